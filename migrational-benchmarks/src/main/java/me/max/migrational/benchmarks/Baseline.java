@@ -0,0 +1,54 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the single object benchmarks with the gc profiler and writes the results as json.
+ * The forks and iterations of the benchmarks themselves are used, a baseline is only worth comparing against
+ * when it was recorded on a machine with several cores at the commit of a release:
+ * <pre>{@code
+ * java -cp target/benchmarks.jar me.max.migrational.benchmarks.Baseline baseline/results.json
+ * }</pre>
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class Baseline {
+
+    private Baseline() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MigratorBenchmark.class.getSimpleName())
+                .include(TypedMigratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(args.length > 0 ? args[0] : "baseline/results.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks;
+
+import me.max.migrational.BatchMigration;
+import me.max.migrational.GeneratedMigrator;
+import me.max.migrational.TypedMigrator;
+import me.max.migrational.benchmarks.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link BatchMigration#migrateAll(TypedMigrator, java.util.Collection, ForkJoinPool)}
+ * scales with the amount of workers, run it with {@code -p parallelism=1,2,4,...} up to the amount of cores.
+ * It has not been run on a machine with several cores yet, so scaling is not verified
+ * and the chunk size of {@link BatchMigration} should be picked from its results once it is.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchMigrationBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"100000"})
+    private int size;
+
+    private ForkJoinPool pool;
+    private List<Map<String, Object>> data;
+    private TypedMigrator<Person> migrator;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        data = Data.people(size);
+        migrator = GeneratedMigrator.of(Person.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Person> migrateAll() {
+        return BatchMigration.migrateAll(migrator, data, pool);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the data used by the benchmarks.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class Data {
+
+    private Data() {
+    }
+
+    /**
+     * Create one data map for a {@link me.max.migrational.benchmarks.model.Person}
+     *
+     * @param index the index of the person, used to vary the values
+     * @return the data map
+     */
+    static Map<String, Object> person(int index) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Name" + index);
+        data.put("age", index % 100);
+        data.put("id", (long) index);
+        data.put("active", index % 2 == 0);
+        data.put("country", "Netherlands");
+        return data;
+    }
+
+    /**
+     * Create one data map for a {@link me.max.migrational.benchmarks.model.WideObject}
+     *
+     * @param fields the amount of fields of the object
+     * @return the data map
+     */
+    static Map<String, Object> wide(int fields) {
+        Map<String, Object> data = new HashMap<>();
+        for (int i = 0; i < fields; i++) data.put("field" + i, i % 2 == 0 ? (Object) i : "Value" + i);
+        return data;
+    }
+
+    /**
+     * Create the data maps of many people
+     *
+     * @param size the amount of people
+     * @return the data maps
+     */
+    static List<Map<String, Object>> people(int size) {
+        List<Map<String, Object>> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) data.add(person(i));
+        return data;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks;
+
+import me.max.migrational.Migrator;
+import me.max.migrational.benchmarks.model.DefaultPerson;
+import me.max.migrational.benchmarks.model.ExemptPerson;
+import me.max.migrational.benchmarks.model.FieldPerson;
+import me.max.migrational.benchmarks.model.Person;
+import me.max.migrational.benchmarks.model.WideObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every code path of the {@link Migrator} api, from constructing a migrator to migrating
+ * class annotated, field annotated, exempt heavy, wide and default heavy classes.
+ * Run it with {@code -prof gc} to see the allocation rate of every path.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MigratorBenchmark {
+
+    private Map<String, Object> person;
+    private Map<String, Object> wide;
+
+    private Migrator classMigrator;
+    private Migrator fieldMigrator;
+    private Migrator exemptMigrator;
+    private Migrator defaultMigrator;
+    private Migrator wideMigrator;
+
+    @Setup
+    public void setUp() {
+        person = Data.person(42);
+        wide = Data.wide(120);
+
+        classMigrator = new Migrator(Person.class, person);
+        fieldMigrator = new Migrator(FieldPerson.class, person);
+        exemptMigrator = new Migrator(ExemptPerson.class, person);
+        //Empty data so every field uses its default value
+        defaultMigrator = new Migrator(DefaultPerson.class, Collections.emptyMap());
+        wideMigrator = new Migrator(WideObject.class, wide);
+    }
+
+    @Benchmark
+    public Migrator construct() {
+        return new Migrator(Person.class);
+    }
+
+    @Benchmark
+    public Migrator constructWide() {
+        return new Migrator(WideObject.class);
+    }
+
+    @Benchmark
+    public Object migrateToClass_ClassAnnotated() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        return classMigrator.migrateToClass();
+    }
+
+    @Benchmark
+    public Object migrateToClass_FieldAnnotated() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        return fieldMigrator.migrateToClass();
+    }
+
+    @Benchmark
+    public Object migrateToClass_ExemptHeavy() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        return exemptMigrator.migrateToClass();
+    }
+
+    @Benchmark
+    public Object migrateToClass_Defaults() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        return defaultMigrator.migrateToClass();
+    }
+
+    @Benchmark
+    public Object migrateToClass_Wide() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        return wideMigrator.migrateToClass();
+    }
+
+    @Benchmark
+    public Map<String, Object> migrateToMap_ClassAnnotated() {
+        return classMigrator.migrateToMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> migrateToMap_Defaults() {
+        return defaultMigrator.migrateToMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> migrateToMap_Wide() {
+        return wideMigrator.migrateToMap();
+    }
+}
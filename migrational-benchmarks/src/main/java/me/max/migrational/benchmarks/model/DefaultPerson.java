@@ -0,0 +1,49 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks.model;
+
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * A {@link Person} with a default value for every field, it is migrated from empty data.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class DefaultPerson {
+
+    @Migratable(defaultValue = "Unknown")
+    private String name;
+    @Migratable(defaultValue = "18")
+    private int age;
+    @Migratable(defaultValue = "0")
+    private long id;
+    @Migratable(defaultValue = "true")
+    private boolean active;
+    @Migratable(defaultValue = "Netherlands")
+    private String country;
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+}
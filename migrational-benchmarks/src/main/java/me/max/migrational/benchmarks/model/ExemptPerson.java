@@ -0,0 +1,87 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks.model;
+
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * A {@link Person} with many more exempt fields than migratable fields.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Migratable
+public class ExemptPerson {
+
+    private String name;
+    private int age;
+    private long id;
+    private boolean active;
+    private String country;
+
+    @Exempt
+    private int cache0;
+    @Exempt
+    private String cache1;
+    @Exempt
+    private int cache2;
+    @Exempt
+    private String cache3;
+    @Exempt
+    private int cache4;
+    @Exempt
+    private String cache5;
+    @Exempt
+    private int cache6;
+    @Exempt
+    private String cache7;
+    @Exempt
+    private int cache8;
+    @Exempt
+    private String cache9;
+    @Exempt
+    private int cache10;
+    @Exempt
+    private String cache11;
+    @Exempt
+    private int cache12;
+    @Exempt
+    private String cache13;
+    @Exempt
+    private int cache14;
+    @Exempt
+    private String cache15;
+    @Exempt
+    private int cache16;
+    @Exempt
+    private String cache17;
+    @Exempt
+    private int cache18;
+    @Exempt
+    private String cache19;
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+}
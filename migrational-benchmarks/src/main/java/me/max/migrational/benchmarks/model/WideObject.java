@@ -0,0 +1,156 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.benchmarks.model;
+
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * An object with 120 migratable fields, even fields are ints and odd fields are strings.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Migratable
+public class WideObject {
+
+    private int field0;
+    private String field1;
+    private int field2;
+    private String field3;
+    private int field4;
+    private String field5;
+    private int field6;
+    private String field7;
+    private int field8;
+    private String field9;
+    private int field10;
+    private String field11;
+    private int field12;
+    private String field13;
+    private int field14;
+    private String field15;
+    private int field16;
+    private String field17;
+    private int field18;
+    private String field19;
+    private int field20;
+    private String field21;
+    private int field22;
+    private String field23;
+    private int field24;
+    private String field25;
+    private int field26;
+    private String field27;
+    private int field28;
+    private String field29;
+    private int field30;
+    private String field31;
+    private int field32;
+    private String field33;
+    private int field34;
+    private String field35;
+    private int field36;
+    private String field37;
+    private int field38;
+    private String field39;
+    private int field40;
+    private String field41;
+    private int field42;
+    private String field43;
+    private int field44;
+    private String field45;
+    private int field46;
+    private String field47;
+    private int field48;
+    private String field49;
+    private int field50;
+    private String field51;
+    private int field52;
+    private String field53;
+    private int field54;
+    private String field55;
+    private int field56;
+    private String field57;
+    private int field58;
+    private String field59;
+    private int field60;
+    private String field61;
+    private int field62;
+    private String field63;
+    private int field64;
+    private String field65;
+    private int field66;
+    private String field67;
+    private int field68;
+    private String field69;
+    private int field70;
+    private String field71;
+    private int field72;
+    private String field73;
+    private int field74;
+    private String field75;
+    private int field76;
+    private String field77;
+    private int field78;
+    private String field79;
+    private int field80;
+    private String field81;
+    private int field82;
+    private String field83;
+    private int field84;
+    private String field85;
+    private int field86;
+    private String field87;
+    private int field88;
+    private String field89;
+    private int field90;
+    private String field91;
+    private int field92;
+    private String field93;
+    private int field94;
+    private String field95;
+    private int field96;
+    private String field97;
+    private int field98;
+    private String field99;
+    private int field100;
+    private String field101;
+    private int field102;
+    private String field103;
+    private int field104;
+    private String field105;
+    private int field106;
+    private String field107;
+    private int field108;
+    private String field109;
+    private int field110;
+    private String field111;
+    private int field112;
+    private String field113;
+    private int field114;
+    private String field115;
+    private int field116;
+    private String field117;
+    private int field118;
+    private String field119;
+
+    public int getField0() {
+        return field0;
+    }
+}
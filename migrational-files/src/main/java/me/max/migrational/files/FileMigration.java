@@ -0,0 +1,301 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+import me.max.migrational.AccessorBackend;
+import me.max.migrational.MigrationPlan;
+import me.max.migrational.Migrators;
+import me.max.migrational.RecordSchema;
+import me.max.migrational.TypedMigrator;
+import me.max.migrational.exceptions.MigrationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Migrates the records of a local file straight into objects, without creating a map for every record.
+ * Every line is tokenized in place, the keys are matched to the slots of the class as bytes so unknown keys are skipped
+ * without allocating them, and the values are written into a {@link me.max.migrational.MigrationRecord}.
+ * <p>
+ * The file is read in chunks which end at a line break, large chunks are memory mapped.
+ * {@link #readAll(Path, ForkJoinPool)} migrates the chunks in parallel.
+ * <pre>{@code
+ * List<User> users = FileMigration.ndjson(User.class).readAll(Paths.get("users.ndjson"));
+ * }</pre>
+ *
+ * @param <T> the type of the class
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class FileMigration<T> {
+
+    /**
+     * The default amount of bytes per chunk
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+    /**
+     * The default amount of bytes from which a chunk is memory mapped instead of read
+     */
+    public static final long DEFAULT_MAP_THRESHOLD = 1024 * 1024;
+
+    //Chunks have to fit into one buffer
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE - 8;
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final TypedMigrator<T> migrator;
+    private final RecordSchema schema;
+    private final KeyMatcher matcher;
+    private final Supplier<LineParser> parsers;
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private long mapThreshold = DEFAULT_MAP_THRESHOLD;
+
+    private FileMigration(Class<T> clazz, Supplier<LineParser> parsers) {
+        //The plan based migrator reads records by slot, generated migrators would turn every record into a map
+        MigrationPlan<T> plan = MigrationPlan.of(clazz, AccessorBackend.METHOD_HANDLE);
+        this.migrator = Migrators.forPlan(plan);
+        this.schema = plan.getSchema();
+        this.matcher = new KeyMatcher(schema);
+        this.parsers = parsers;
+    }
+
+    /**
+     * Read files with one json object per line
+     *
+     * @param clazz the class to migrate to
+     * @param <T>   the type of the class
+     * @return the file migration
+     */
+    public static <T> FileMigration<T> ndjson(Class<T> clazz) {
+        return new FileMigration<>(clazz, JsonLineParser::new);
+    }
+
+    /**
+     * Read files with one record of {@code key=value} pairs per line
+     *
+     * @param clazz     the class to migrate to
+     * @param separator the ascii character between the pairs of a line, for example ','
+     * @param <T>       the type of the class
+     * @return the file migration
+     */
+    public static <T> FileMigration<T> keyValue(Class<T> clazz, char separator) {
+        //Create one parser to check the separator straight away
+        new KeyValueLineParser(separator);
+        return new FileMigration<>(clazz, () -> new KeyValueLineParser(separator));
+    }
+
+    /**
+     * Set the amount of bytes per chunk, a chunk is extended to the end of its last line
+     *
+     * @param chunkSize the amount of bytes
+     * @return this file migration
+     */
+    public FileMigration<T> chunkSize(long chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE)
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + ": " + chunkSize);
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Set the amount of bytes from which a chunk is memory mapped, smaller chunks are read into the heap
+     *
+     * @param mapThreshold the amount of bytes
+     * @return this file migration
+     */
+    public FileMigration<T> mapThreshold(long mapThreshold) {
+        this.mapThreshold = mapThreshold;
+        return this;
+    }
+
+    /**
+     * Migrate every record of a file in order on the calling thread, only one chunk is held at a time
+     *
+     * @param file     the local file to read
+     * @param consumer the consumer of the migrated objects
+     * @throws IOException        if the file could not be read
+     * @throws MigrationException if a record could not be parsed or migrated, this stops reading
+     */
+    public void forEach(Path file, Consumer<? super T> consumer) throws IOException {
+        try (FileChannel channel = open(file)) {
+            long[] bounds = chunks(channel);
+            RecordWriter writer = new RecordWriter(schema, matcher);
+            LineParser parser = parsers.get();
+            for (int i = 0; i + 1 < bounds.length; i++) migrate(file, channel, bounds[i], bounds[i + 1], parser, writer, consumer);
+        }
+    }
+
+    /**
+     * Migrate every record of a file on the calling thread
+     *
+     * @param file the local file to read
+     * @return the migrated objects in the order of the file
+     * @throws IOException        if the file could not be read
+     * @throws MigrationException if a record could not be parsed or migrated
+     */
+    public List<T> readAll(Path file) throws IOException {
+        List<T> objects = new ArrayList<>();
+        forEach(file, objects::add);
+        return objects;
+    }
+
+    /**
+     * Migrate every record of a file, migrating the chunks in parallel
+     *
+     * @param file the local file to read
+     * @param pool the pool to migrate the chunks on
+     * @return the migrated objects in the order of the file
+     * @throws IOException        if the file could not be read
+     * @throws MigrationException if a record could not be parsed or migrated
+     */
+    public List<T> readAll(Path file, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = open(file)) {
+            long[] bounds = chunks(channel);
+            List<ForkJoinTask<List<T>>> tasks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long from = bounds[i], to = bounds[i + 1];
+                tasks.add(pool.submit(() -> {
+                    List<T> objects = new ArrayList<>();
+                    try {
+                        migrate(file, channel, from, to, parsers.get(), new RecordWriter(schema, matcher), objects::add);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return objects;
+                }));
+            }
+
+            List<T> objects = new ArrayList<>();
+            for (ForkJoinTask<List<T>> task : tasks) objects.addAll(join(task));
+            return objects;
+        }
+    }
+
+    private static <R> R join(ForkJoinTask<R> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MigrationException("Interrupted while migrating", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new MigrationException("Could not migrate a chunk", cause);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        if (file.getFileSystem() != FileSystems.getDefault())
+            throw new IllegalArgumentException("Only local files can be migrated: " + file.toUri());
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    /**
+     * Split the file into chunks which end right after a line break or at the end of the file
+     *
+     * @return the start of every chunk followed by the size of the file
+     */
+    private long[] chunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            //Move the end past the next line break so no line is split
+            if (end < size && !endsLine(channel, scan, end)) end = nextLineBreak(channel, scan, end, size);
+            if (end - start > MAX_CHUNK_SIZE) throw new MigrationException("A line of the file is longer than " + MAX_CHUNK_SIZE + " bytes", null);
+            bounds.add(end);
+            start = end;
+        }
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    private static boolean endsLine(FileChannel channel, ByteBuffer scan, long position) throws IOException {
+        scan.clear().limit(1);
+        channel.read(scan, position - 1);
+        return scan.get(0) == '\n';
+    }
+
+    /**
+     * Get the position right after the next line break from a position, or the size if there is none
+     */
+    private static long nextLineBreak(FileChannel channel, ByteBuffer scan, long position, long size) throws IOException {
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Migrate the lines of one chunk
+     */
+    private void migrate(Path file, FileChannel channel, long from, long to, LineParser parser, RecordWriter writer, Consumer<? super T> consumer) throws IOException {
+        ByteBuffer buffer = load(channel, from, to);
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') lineEnd++;
+
+            try {
+                if (parser.parse(buffer, lineStart, lineEnd, writer)) consumer.accept(migrator.migrate(writer.build()));
+            } catch (RuntimeException e) {
+                throw new MigrationException("Could not migrate the record at byte " + (from + lineStart) + " of " + file, e);
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private ByteBuffer load(FileChannel channel, long from, long to) throws IOException {
+        long length = to - from;
+        if (length >= mapThreshold) return channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) break;
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
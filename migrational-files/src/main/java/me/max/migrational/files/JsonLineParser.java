@@ -0,0 +1,309 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses one json object per line, also known as ndjson or json lines.
+ * Values of unknown keys are skipped without being decoded, nested objects and arrays of known keys
+ * become maps and lists so nested migratable fields can migrate them.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class JsonLineParser extends LineParser {
+
+    @Override
+    protected boolean parse(RecordWriter writer) {
+        skipWhitespace();
+        if (pos == end) return false;
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return finish();
+        }
+
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            int keyStart = pos;
+            boolean escaped = skipString();
+            //Keys with escapes are rare, only those are decoded before they are matched
+            int slot = escaped ? writer.slot(decode(keyStart, pos - 1)) : writer.slot(buffer, keyStart, pos - 1);
+
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            if (slot < 0) skipValue();
+            else writeValue(writer, slot);
+
+            skipWhitespace();
+            byte c = next();
+            if (c == '}') return finish();
+            if (c != ',') throw error("Expected , or }");
+        }
+    }
+
+    private boolean finish() {
+        skipWhitespace();
+        if (pos != end) throw error("Unexpected content after the object");
+        return true;
+    }
+
+    private void writeValue(RecordWriter writer, int slot) {
+        byte c = peek();
+        switch (c) {
+            case '"':
+                pos++;
+                writer.set(slot, readString());
+                return;
+            case 't':
+            case 'f':
+                writer.setBoolean(slot, readBoolean());
+                return;
+            case 'n':
+                readNull();
+                writer.set(slot, null);
+                return;
+            case '{':
+            case '[':
+                writer.set(slot, readValue());
+                return;
+            default:
+                int from = pos;
+                skipNumber();
+                if (isLong(from, pos)) writer.setLong(slot, parseLong(from, pos));
+                else writer.setDouble(slot, parseDouble(from, pos));
+        }
+    }
+
+    /**
+     * Read any value, boxing it
+     */
+    private Object readValue() {
+        byte c = peek();
+        switch (c) {
+            case '"':
+                pos++;
+                return readString();
+            case 't':
+            case 'f':
+                return readBoolean();
+            case 'n':
+                readNull();
+                return null;
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            default:
+                int from = pos;
+                skipNumber();
+                return isLong(from, pos) ? (Object) parseLong(from, pos) : (Object) parseDouble(from, pos);
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        expect('{');
+        Map<String, Object> map = new HashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            map.put(key, readValue());
+            skipWhitespace();
+            byte c = next();
+            if (c == '}') return map;
+            if (c != ',') throw error("Expected , or }");
+        }
+    }
+
+    private List<Object> readArray() {
+        expect('[');
+        List<Object> list = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            skipWhitespace();
+            list.add(readValue());
+            skipWhitespace();
+            byte c = next();
+            if (c == ']') return list;
+            if (c != ',') throw error("Expected , or ]");
+        }
+    }
+
+    /**
+     * Skip any value without decoding it
+     */
+    private void skipValue() {
+        byte c = peek();
+        if (c == '"') {
+            pos++;
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = next();
+                if (c == '"') skipString();
+                else if (c == '{' || c == '[') depth++;
+                else if (c == '}' || c == ']') depth--;
+            } while (depth > 0);
+        } else {
+            //Numbers and literals end at the next separator
+            while (pos < end && (c = buffer.get(pos)) != ',' && c != '}' && c != ']' && !isWhitespace(c)) pos++;
+        }
+    }
+
+    /**
+     * Move past the closing quote of a string, the opening quote must already be consumed
+     *
+     * @return true if the string contains escapes
+     */
+    private boolean skipString() {
+        boolean escaped = false;
+        while (true) {
+            byte c = next();
+            if (c == '"') return escaped;
+            if (c == '\\') {
+                escaped = true;
+                next();
+            }
+        }
+    }
+
+    /**
+     * Read a string, the opening quote must already be consumed
+     */
+    private String readString() {
+        int from = pos;
+        boolean escaped = skipString();
+        return escaped ? decode(from, pos - 1) : string(from, pos - 1);
+    }
+
+    /**
+     * Decode a string containing escapes
+     */
+    private String decode(int from, int to) {
+        StringBuilder builder = new StringBuilder(to - from);
+        int segment = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) != '\\') continue;
+            builder.append(string(segment, i));
+
+            byte c = buffer.get(++i);
+            switch (c) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= to) throw error("Invalid unicode escape");
+                    builder.append((char) Integer.parseInt(string(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    builder.append((char) c);
+            }
+            segment = i + 1;
+        }
+        return builder.append(string(segment, to)).toString();
+    }
+
+    private boolean readBoolean() {
+        int from = pos;
+        while (pos < end && Character.isLetter(buffer.get(pos))) pos++;
+        if (equals(from, pos, "true")) return true;
+        if (equals(from, pos, "false")) return false;
+        throw error("Expected true or false");
+    }
+
+    private void readNull() {
+        int from = pos;
+        while (pos < end && Character.isLetter(buffer.get(pos))) pos++;
+        if (!equals(from, pos, "null")) throw error("Expected null");
+    }
+
+    private void skipNumber() {
+        int from = pos;
+        byte c;
+        while (pos < end && (((c = buffer.get(pos)) >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E')) pos++;
+        if (pos == from) throw error("Expected a value");
+    }
+
+    private double parseDouble(int from, int to) {
+        try {
+            return Double.parseDouble(string(from, to));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && isWhitespace(buffer.get(pos))) pos++;
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private byte peek() {
+        if (pos >= end) throw error("Unexpected end of line");
+        return buffer.get(pos);
+    }
+
+    private byte next() {
+        if (pos >= end) throw error("Unexpected end of line");
+        return buffer.get(pos++);
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            pos--;
+            throw error("Expected " + c);
+        }
+    }
+}
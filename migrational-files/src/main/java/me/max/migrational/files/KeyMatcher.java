@@ -0,0 +1,129 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+import me.max.migrational.RecordSchema;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Matches the bytes of a key in a buffer to its slot without creating a string,
+ * so keys which are not migrated are skipped without allocating anything.
+ * <p>
+ * The aliases of fields are matched as bytes as well. A match tells the slot and whether it was the key of the field itself,
+ * so a {@link RecordWriter} can let the key win over aliases. Keys matched ignoring case are only looked for
+ * when no exact match was found, which decodes the key.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class KeyMatcher {
+
+    private static final byte[][] NO_KEYS = new byte[0][];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final RecordSchema schema;
+    //The utf-8 bytes of the keys and aliases and their targets, indexed by the length of the key
+    private final byte[][][] keys;
+    private final int[][] targets;
+    private final boolean ignoreCase;
+
+    KeyMatcher(RecordSchema schema) {
+        this.schema = schema;
+        List<byte[]> encoded = new ArrayList<>();
+        List<Integer> encodedTargets = new ArrayList<>();
+        boolean ignoreCase = false;
+        //Keys of fields come first so a key which is also the alias of another field matches the field whose key it is
+        for (int slot = 0; slot < schema.size(); slot++) {
+            encoded.add(schema.getKey(slot).getBytes(StandardCharsets.UTF_8));
+            encodedTargets.add(slot << 1 | 1);
+            ignoreCase |= schema.isIgnoreCase(slot);
+        }
+        for (int slot = 0; slot < schema.size(); slot++) {
+            for (String alias : schema.getAliases(slot)) {
+                encoded.add(alias.getBytes(StandardCharsets.UTF_8));
+                encodedTargets.add(slot << 1);
+            }
+        }
+        this.ignoreCase = ignoreCase;
+
+        int maxLength = 0;
+        for (byte[] key : encoded) maxLength = Math.max(maxLength, key.length);
+        this.keys = new byte[maxLength + 1][][];
+        this.targets = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            keys[length] = NO_KEYS;
+            targets[length] = NO_TARGETS;
+        }
+        for (int i = 0; i < encoded.size(); i++) {
+            int length = encoded.get(i).length;
+            int count = keys[length].length;
+            keys[length] = Arrays.copyOf(keys[length], count + 1);
+            targets[length] = Arrays.copyOf(targets[length], count + 1);
+            keys[length][count] = encoded.get(i);
+            targets[length][count] = encodedTargets.get(i);
+        }
+    }
+
+    /**
+     * Find the slot of the key in a range of a buffer
+     *
+     * @param buffer the buffer
+     * @param from   the index of the first byte of the key
+     * @param to     the index after the last byte of the key
+     * @return the slot shifted left by one with the lowest bit set if it is the key of the field itself,
+     * or -1 if no field has this key
+     */
+    int match(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (length < keys.length) {
+            byte[][] candidates = keys[length];
+            candidates:
+            for (int i = 0; i < candidates.length; i++) {
+                byte[] key = candidates[i];
+                for (int j = 0; j < length; j++) {
+                    if (buffer.get(from + j) != key[j]) continue candidates;
+                }
+                return targets[length][i];
+            }
+        }
+        if (!ignoreCase) return -1;
+
+        byte[] bytes = new byte[length];
+        for (int j = 0; j < length; j++) bytes[j] = buffer.get(from + j);
+        return match(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Find the slot of a key which was already decoded, see {@link #match(ByteBuffer, int, int)}
+     *
+     * @param key the key
+     * @return the slot shifted left by one with the lowest bit set if it is the key of the field itself,
+     * or -1 if no field has this key
+     */
+    int match(String key) {
+        int slot = schema.slot(key);
+        if (slot < 0) return -1;
+        return slot << 1 | (schema.isKey(slot, key) ? 1 : 0);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+/**
+ * Parses one record of {@code key=value} pairs per line, for example {@code name=Max,age=20}.
+ * Spaces around keys and values are ignored, blank lines and lines starting with {@code #} are skipped.
+ * Values of int, long, double and boolean fields are parsed from the bytes, other values are migrated as strings.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class KeyValueLineParser extends LineParser {
+
+    private final byte separator;
+
+    /**
+     * @param separator the ascii character between the pairs of a line
+     */
+    KeyValueLineParser(char separator) {
+        if (separator > 0x7f || separator == '=') throw new IllegalArgumentException("Invalid separator " + separator);
+        this.separator = (byte) separator;
+    }
+
+    @Override
+    protected boolean parse(RecordWriter writer) {
+        int first = skipSpaces(pos, end);
+        if (first == end || buffer.get(first) == '#') return false;
+
+        while (pos < end) {
+            int pairEnd = pos;
+            int equals = -1;
+            for (byte c; pairEnd < end && (c = buffer.get(pairEnd)) != separator; pairEnd++) {
+                if (c == '=' && equals < 0) equals = pairEnd;
+            }
+
+            int keyFrom = skipSpaces(pos, pairEnd);
+            if (keyFrom < pairEnd) {
+                if (equals < 0) throw error("Expected =");
+                int slot = writer.slot(buffer, keyFrom, trimSpaces(keyFrom, equals));
+                if (slot >= 0) write(writer, slot, skipSpaces(equals + 1, pairEnd), trimSpaces(equals + 1, pairEnd));
+            }
+            pos = pairEnd + 1;
+        }
+        return true;
+    }
+
+    private void write(RecordWriter writer, int slot, int from, int to) {
+        Class<?> type = writer.type(slot);
+        if ((type == int.class || type == long.class) && isLong(from, to)) {
+            writer.setLong(slot, parseLong(from, to));
+        } else if (type == boolean.class && (equals(from, to, "true") || equals(from, to, "false"))) {
+            writer.setBoolean(slot, to - from == 4);
+        } else if (type == double.class) {
+            try {
+                writer.setDouble(slot, Double.parseDouble(string(from, to)));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        } else {
+            //Anything else is converted by the converter of the field
+            writer.set(slot, string(from, to));
+        }
+    }
+
+    private int skipSpaces(int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) from++;
+        return from;
+    }
+
+    private int trimSpaces(int from, int to) {
+        while (to > from && isSpace(buffer.get(to - 1))) to--;
+        return to;
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses one line of a file into a {@link RecordWriter}.
+ * A parser keeps the position in the current line and a scratch array, so every thread needs its own parser.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+abstract class LineParser {
+
+    protected ByteBuffer buffer;
+    protected int pos;
+    protected int end;
+    private int start;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Parse a line
+     *
+     * @param buffer the buffer holding the line
+     * @param from   the index of the first byte of the line
+     * @param to     the index after the last byte of the line, without the line break
+     * @param writer the writer to write the values into
+     * @return true if the line held a record, false if it was blank or a comment
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    final boolean parse(ByteBuffer buffer, int from, int to, RecordWriter writer) {
+        this.buffer = buffer;
+        this.start = from;
+        this.pos = from;
+        this.end = to;
+        return parse(writer);
+    }
+
+    /**
+     * Parse the current line
+     */
+    protected abstract boolean parse(RecordWriter writer);
+
+    /**
+     * Decode a range of the buffer as utf-8
+     */
+    protected final String string(int from, int to) {
+        int length = to - from;
+        if (buffer.hasArray()) return new String(buffer.array(), buffer.arrayOffset() + from, length, StandardCharsets.UTF_8);
+
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        for (int i = 0; i < length; i++) scratch[i] = buffer.get(from + i);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check if a range of the buffer is a whole number which fits into a long
+     *
+     * @return true if the range is an optional sign followed by at most 18 digits
+     */
+    protected final boolean isLong(int from, int to) {
+        int i = from;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) i++;
+        //Up to 18 digits always fit into a long
+        if (i == to || to - i > 18) return false;
+        for (; i < to; i++) {
+            byte c = buffer.get(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a range of the buffer which passed {@link #isLong(int, int)}
+     */
+    protected final long parseLong(int from, int to) {
+        boolean negative = buffer.get(from) == '-';
+        int i = negative || buffer.get(from) == '+' ? from + 1 : from;
+        long value = 0;
+        for (; i < to; i++) value = value * 10 + (buffer.get(i) - '0');
+        return negative ? -value : value;
+    }
+
+    /**
+     * Check if a range of the buffer equals an ascii word
+     */
+    protected final boolean equals(int from, int to, String word) {
+        if (to - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (buffer.get(from + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    protected final IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at column " + (pos - start + 1));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+import me.max.migrational.MigrationRecord;
+import me.max.migrational.RecordSchema;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes the values read by a {@link LineParser} into the slots of a record.
+ * Numbers and booleans are stored without boxing when the field in the slot has the matching primitive type.
+ * A writer belongs to one thread.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class RecordWriter {
+
+    private final RecordSchema schema;
+    private final KeyMatcher matcher;
+    private final Class<?>[] types;
+    private final MigrationRecord.Builder builder;
+    //0 when a slot is not written in the current line, 1 when it was written by an alias and 2 by the key of its field
+    private final byte[] ranks;
+
+    RecordWriter(RecordSchema schema, KeyMatcher matcher) {
+        this.schema = schema;
+        this.matcher = matcher;
+        this.types = new Class<?>[schema.size()];
+        for (int slot = 0; slot < types.length; slot++) types[slot] = schema.getFieldType(slot);
+        this.builder = schema.newRecord();
+        this.ranks = new byte[types.length];
+    }
+
+    /**
+     * Get the slot of a key in a buffer, see {@link KeyMatcher#match(ByteBuffer, int, int)}
+     *
+     * @return the slot or -1 if the value of this key is not written
+     */
+    int slot(ByteBuffer buffer, int from, int to) {
+        return claim(matcher.match(buffer, from, to));
+    }
+
+    /**
+     * Get the slot of a key which had to be decoded, for example because it contains escapes
+     *
+     * @return the slot or -1 if the value of this key is not written
+     */
+    int slot(String key) {
+        return claim(matcher.match(key));
+    }
+
+    /**
+     * Claim the slot of a match for the current line
+     * The key of a field wins over its aliases, between keys of the same kind the first one in the line wins.
+     *
+     * @return the slot or -1 if the slot was already written by a key which wins
+     */
+    private int claim(int target) {
+        if (target < 0) return -1;
+        int slot = target >> 1;
+        byte rank = (byte) (1 + (target & 1));
+        if (ranks[slot] >= rank) return -1;
+        ranks[slot] = rank;
+        return slot;
+    }
+
+    /**
+     * Get the declared type of the field in a slot
+     */
+    Class<?> type(int slot) {
+        return types[slot];
+    }
+
+    void set(int slot, Object value) {
+        builder.set(slot, value);
+    }
+
+    /**
+     * Write a whole number, numbers are never wrapped to fit the field
+     *
+     * @throws IllegalArgumentException if the field is an int and the number does not fit in it
+     */
+    void setLong(int slot, long value) {
+        Class<?> type = types[slot];
+        if (type == int.class) {
+            if ((int) value != value)
+                throw new IllegalArgumentException(value + " does not fit in the int field of key " + schema.getKey(slot));
+            builder.setInt(slot, (int) value);
+        } else if (type == long.class) builder.setLong(slot, value);
+        else if (type == double.class) builder.setDouble(slot, value);
+        else builder.set(slot, value);
+    }
+
+    void setDouble(int slot, double value) {
+        if (types[slot] == double.class) builder.setDouble(slot, value);
+        else builder.set(slot, value);
+    }
+
+    void setBoolean(int slot, boolean value) {
+        if (types[slot] == boolean.class) builder.setBoolean(slot, value);
+        else builder.set(slot, value);
+    }
+
+    /**
+     * Build the record of the current line and start the next one
+     */
+    MigrationRecord build() {
+        Arrays.fill(ranks, (byte) 0);
+        return builder.build();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files;
+
+import me.max.migrational.exceptions.MigrationException;
+import me.max.migrational.files.testobjects.Account;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if {@link FileMigration} migrates every record of a file.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class FileMigrationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readAll_JsonLines_MigratesRecords() throws IOException {
+        Path file = write("{\"name\": \"Max\", \"age\": 20, \"balance\": 12345678901, \"height\": 1.8, \"active\": true}",
+                "",
+                "{\"name\":\"St\\u0069jn \\\"S\\\"\",\"unknown\":{\"nested\":[1,\"}\"]},\"id\":\"123e4567-e89b-12d3-a456-426614174000\",\"tags\":[\"a\",2]}");
+
+        List<Account> accounts = FileMigration.ndjson(Account.class).readAll(file);
+
+        assertEquals(2, accounts.size());
+        Account max = accounts.get(0);
+        assertEquals("Max", max.getName());
+        assertEquals(20, max.getAge());
+        assertEquals(12345678901L, max.getBalance());
+        assertEquals(1.8, max.getHeight(), 0);
+        assertTrue(max.isActive());
+
+        Account stijn = accounts.get(1);
+        assertEquals("Stijn \"S\"", stijn.getName());
+        assertEquals(18, stijn.getAge());
+        assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), stijn.getId());
+        assertEquals(Arrays.asList("a", 2L), stijn.getTags());
+    }
+
+    @Test
+    public void readAll_KeyValueLines_MigratesRecords() throws IOException {
+        Path file = write("# accounts", "name = Max, age=20,unknown=x, height=1.5, active=true", "name=Lily,balance=7\r");
+
+        List<Account> accounts = FileMigration.keyValue(Account.class, ',').readAll(file);
+
+        assertEquals(2, accounts.size());
+        assertEquals("Max", accounts.get(0).getName());
+        assertEquals(20, accounts.get(0).getAge());
+        assertEquals(1.5, accounts.get(0).getHeight(), 0);
+        assertTrue(accounts.get(0).isActive());
+        assertEquals(7, accounts.get(1).getBalance());
+    }
+
+    @Test
+    public void readAll_SmallChunksInParallel_KeepsOrder() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) lines.add("{\"age\":" + i + ",\"name\":\"Name" + i + "\"}");
+        Path file = write(lines.toArray(new String[0]));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Account> accounts = FileMigration.ndjson(Account.class).chunkSize(4096).mapThreshold(1024).readAll(file, pool);
+
+            assertEquals(10_000, accounts.size());
+            for (int i = 0; i < accounts.size(); i++) assertEquals(i, accounts.get(i).getAge());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void readAll_Aliases_MigratesRecordsAndPrefersKeys() throws IOException {
+        Path file = write("{\"fullName\": \"Alias\", \"name\": \"Max\", \"YEARS\": 20}", "{\"full\\u004eame\": \"Lily\", \"Age\": 30, \"years\": 31}");
+
+        List<Account> accounts = FileMigration.ndjson(Account.class).readAll(file);
+
+        assertEquals("Max", accounts.get(0).getName());
+        assertEquals(20, accounts.get(0).getAge());
+        assertEquals("Lily", accounts.get(1).getName());
+        assertEquals(30, accounts.get(1).getAge());
+    }
+
+    @Test(expected = MigrationException.class)
+    public void readAll_MalformedLine_ThrowsMigrationException() throws IOException {
+        FileMigration.ndjson(Account.class).readAll(write("{\"name\": \"Max\"", "{}"));
+    }
+
+    @Test(expected = MigrationException.class)
+    public void readAll_NumberTooLargeForInt_ThrowsMigrationException() throws IOException {
+        FileMigration.ndjson(Account.class).readAll(write("{\"age\": 3000000000}"));
+    }
+
+    @Test(expected = MigrationException.class)
+    public void readAll_FractionalNumberForLong_ThrowsMigrationException() throws IOException {
+        FileMigration.keyValue(Account.class, ',').readAll(write("balance=3.7"));
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+}
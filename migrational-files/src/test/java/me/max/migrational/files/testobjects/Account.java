@@ -0,0 +1,78 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.files.testobjects;
+
+import me.max.migrational.annotations.Migratable;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This is a test object
+ * This test object is used to test migrating records read from files.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class Account {
+
+    @Migratable(aliases = "fullName")
+    private String name;
+    @Migratable(defaultValue = "18", aliases = "years", ignoreCase = true)
+    private int age;
+    @Migratable
+    private long balance;
+    @Migratable
+    private double height;
+    @Migratable
+    private boolean active;
+    @Migratable
+    private UUID id;
+    @Migratable
+    private List<Object> tags;
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public List<Object> getTags() {
+        return tags;
+    }
+}
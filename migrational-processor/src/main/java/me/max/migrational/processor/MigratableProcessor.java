@@ -0,0 +1,283 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.processor;
+
+import me.max.migrational.annotations.Creator;
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a reflection free migrator for every class using {@link Migratable}.
+ * The generated class is named after the class followed by {@code Migrator} and is placed in the same package,
+ * it sets every migratable field directly or through its setter and has the keys and parsed default values as constants.
+ * {@link me.max.migrational.Migrator} uses the generated migrator automatically when it is on the classpath.
+ * <p>
+ * A class is skipped with a warning if it cannot be migrated without reflection,
+ * this is the case when it has no non private zero parameter constructor
+ * or when a migratable field is private or final and has no setter.
+ * Classes with fields holding other migratable classes are skipped too, only reflection migrates nested data,
+ * and so are classes with a {@link me.max.migrational.annotations.Creator} or fields with aliases.
+ * Migratable fields of superclasses are set too, as long as they or their setters can be reached from the package of the class.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigratableProcessor extends AbstractProcessor {
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(Migratable.class.getName(), Exempt.class.getName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        //Collect the classes which are annotated themselves or have annotated fields
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Migratable.class)) {
+            if (element.getKind() == ElementKind.CLASS) types.add((TypeElement) element);
+            else if (element.getKind() == ElementKind.FIELD) types.add((TypeElement) element.getEnclosingElement());
+        }
+
+        for (TypeElement type : types) {
+            String name = processingEnv.getElementUtils().getBinaryName(type) + "Migrator";
+            //A class can only be generated once per compilation
+            if (!generated.add(name)) continue;
+
+            MigratorSource source = createSource(type);
+            if (source == null) continue;
+            try {
+                JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+                try (Writer writer = file.openWriter()) {
+                    writer.write(source.toString());
+                }
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + name + ": " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolve the migratable fields of a class and how they can be set
+     *
+     * @param type the class to migrate to
+     * @return the source of the migrator or null if the class cannot be migrated without reflection
+     */
+    private MigratorSource createSource(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT))
+            return skip(type, "it is abstract");
+        for (Element element = type; element.getKind() == ElementKind.CLASS; element = element.getEnclosingElement()) {
+            TypeElement enclosing = (TypeElement) element;
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE))
+                return skip(type, "it is not accessible from its package");
+            if (enclosing.getNestingKind() == NestingKind.MEMBER && !enclosing.getModifiers().contains(Modifier.STATIC))
+                return skip(type, "it is an inner class");
+            if (enclosing.getNestingKind() != NestingKind.TOP_LEVEL && enclosing.getNestingKind() != NestingKind.MEMBER)
+                return skip(type, "it is a local or anonymous class");
+        }
+        if (!hasZeroParameterConstructor(type))
+            return skip(type, "it has no non private zero parameter constructor");
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getAnnotation(Creator.class) != null)
+                return skip(type, "it is created through a creator");
+        }
+
+        //The class and its superclasses, the class itself first
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement current = type; current != null; current = superclass(current)) hierarchy.add(current);
+
+        //A field shadows the fields of superclasses with the same key, the same as the plan of the class
+        //Lower classes may declare a field with the same name, a cast makes sure the right field is set
+        Set<String> keys = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        List<List<VariableElement>> levels = new ArrayList<>();
+        List<Set<String>> shadowed = new ArrayList<>();
+        for (TypeElement level : hierarchy) {
+            List<VariableElement> fields = new ArrayList<>();
+            for (VariableElement field : migratableFields(level)) {
+                if (keys.add(key(field, migratable(field, level)))) fields.add(field);
+            }
+            levels.add(fields);
+            shadowed.add(new HashSet<>(names));
+            for (VariableElement field : ElementFilter.fieldsIn(level.getEnclosedElements())) names.add(field.getSimpleName().toString());
+        }
+
+        MigratorSource source = new MigratorSource(processingEnv, type);
+        //Superclass fields come first
+        for (int i = hierarchy.size() - 1; i >= 0; i--) {
+            TypeElement level = hierarchy.get(i);
+            boolean inherited = level != type;
+            List<ExecutableElement> methods = ElementFilter.methodsIn(level.getEnclosedElements());
+            for (VariableElement field : levels.get(i)) {
+                if (holdsMigratable(field.asType()))
+                    return skip(type, "field " + field.getSimpleName() + " holds other migratable classes");
+                Migratable migratable = migratable(field, level);
+                if (migratable.aliases().length != 0 || migratable.ignoreCase())
+                    return skip(type, "field " + field.getSimpleName() + " has aliases or ignores case");
+
+                String setter = null;
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || (inherited && !isReachable(field, type))) {
+                    setter = findSetter(field, methods, type);
+                    if (setter == null)
+                        return skip(type, "field " + field.getSimpleName() + " cannot be reached and has no setter");
+                }
+
+                String owner = "target";
+                if (shadowed.get(i).contains(field.getSimpleName().toString())) {
+                    if (!isReachable(level, type))
+                        return skip(type, "field " + field.getSimpleName() + " of " + level.getQualifiedName() + " is shadowed");
+                    owner = "((" + processingEnv.getTypeUtils().erasure(level.asType()) + ") target)";
+                }
+                if (!source.addField(field, migratable, setter, owner)) return null;
+            }
+        }
+        return source;
+    }
+
+    /**
+     * Get the superclass of a class
+     *
+     * @return the superclass or null if it is Object
+     */
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    /**
+     * Get the fields of one class which are migrated, in declaration order
+     */
+    private List<VariableElement> migratableFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (migratable(field, type) == null) continue; //Needs to be our annotation
+            if (field.getAnnotation(Exempt.class) != null) continue; //If the field is exempted then do not migrate.
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    /**
+     * Get the annotation of a field or of the class declaring it
+     */
+    private static Migratable migratable(VariableElement field, TypeElement type) {
+        return field.getAnnotation(Migratable.class) != null ? field.getAnnotation(Migratable.class) : type.getAnnotation(Migratable.class);
+    }
+
+    private static String key(VariableElement field, Migratable migratable) {
+        return migratable.key().isEmpty() ? field.getSimpleName().toString() : migratable.key();
+    }
+
+    /**
+     * Check if an element of a superclass can be used from the generated migrator in the package of the class
+     */
+    private boolean isReachable(Element element, TypeElement type) {
+        if (element.getModifiers().contains(Modifier.PUBLIC)) return true;
+        if (element.getModifiers().contains(Modifier.PRIVATE)) return false;
+        return processingEnv.getElementUtils().getPackageOf(element).equals(processingEnv.getElementUtils().getPackageOf(type));
+    }
+
+    /**
+     * Check if a type is a migratable class or an array or generic type of one
+     */
+    private boolean holdsMigratable(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) return holdsMigratable(((ArrayType) type).getComponentType());
+        if (type.getKind() != TypeKind.DECLARED) return false;
+
+        DeclaredType declared = (DeclaredType) type;
+        for (TypeMirror argument : declared.getTypeArguments()) {
+            if (holdsMigratable(argument)) return true;
+        }
+        for (TypeElement element = (TypeElement) declared.asElement(); element != null; element = superclass(element)) {
+            if (element.getAnnotation(Migratable.class) != null) return true;
+            for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+                if (field.getAnnotation(Migratable.class) != null) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasZeroParameterConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Find a non private setter named set followed by the capitalized field name taking only the type of the field
+     */
+    private String findSetter(VariableElement field, List<ExecutableElement> methods, TypeElement type) {
+        String name = field.getSimpleName().toString();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+        for (ExecutableElement method : methods) {
+            if (!method.getSimpleName().contentEquals(setterName)) continue;
+            if (!isReachable(method, type)) continue;
+            if (method.getModifiers().contains(Modifier.STATIC) != isStatic) continue;
+            if (method.getParameters().size() != 1) continue;
+            TypeMirror parameter = method.getParameters().get(0).asType();
+            if (processingEnv.getTypeUtils().isSameType(parameter, field.asType())) return setterName;
+        }
+        return null;
+    }
+
+    private MigratorSource skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "No migrator generated for " + type.getQualifiedName() + " because " + reason + ", reflection will be used instead", type);
+        return null;
+    }
+}
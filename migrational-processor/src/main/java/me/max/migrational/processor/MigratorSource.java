@@ -0,0 +1,279 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.processor;
+
+import me.max.migrational.Converter;
+import me.max.migrational.ConverterRegistry;
+import me.max.migrational.annotations.Migratable;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The source of one generated migrator.
+ * Fields are added in declaration order, every field gets a key constant and a default value constant if it has one.
+ * The public {@code _KEY} constants and the {@code _DEFAULT} constants sharing their prefix are also read at runtime
+ * to count missing keys without scanning the class, so their names must not change.
+ *
+ * @author Max Berkelmans
+ * @see MigratableProcessor
+ * @since 1.2.0
+ */
+final class MigratorSource {
+
+    private final ProcessingEnvironment environment;
+    private final TypeElement type;
+    private final String typeName;
+    private final StringBuilder constants = new StringBuilder();
+    private final StringBuilder body = new StringBuilder();
+    private final Set<String> constantNames = new HashSet<>();
+
+    /**
+     * @param environment the environment of the processor
+     * @param type        the class to migrate to
+     */
+    MigratorSource(ProcessingEnvironment environment, TypeElement type) {
+        this.environment = environment;
+        this.type = type;
+        this.typeName = environment.getTypeUtils().erasure(type.asType()).toString();
+    }
+
+    /**
+     * Add a migratable field
+     *
+     * @param field      the field to migrate
+     * @param migratable the annotation of the field or of its class
+     * @param setter     the name of the setter to use or null if the field can be set directly
+     * @param target     the expression of the object to set an instance field on
+     * @return false if the default value could not be parsed, an error has been reported in that case
+     */
+    boolean addField(VariableElement field, Migratable migratable, String setter, String target) {
+        String name = field.getSimpleName().toString();
+        String constant = constantName(name);
+        String key = migratable.key().isEmpty() ? name : migratable.key();
+        String keyConstant = constant + "_KEY";
+        String castType = castType(field.asType());
+
+        constants.append("    public static final java.lang.String ").append(keyConstant).append(" = ").append(stringLiteral(key)).append(";\n");
+        body.append("        value = data.get(").append(keyConstant).append(");\n");
+
+        //Values of other types are converted the same way as the plan of the class would
+        String converterConstant = constant + "_CONVERTER";
+        if (!castType.equals(Object.class.getName())) {
+            String classLiteral = environment.getTypeUtils().erasure(field.asType()) + ".class";
+            constants.append("    private static final me.max.migrational.Converter<?> ").append(converterConstant)
+                    .append(" = me.max.migrational.ConverterRegistry.defaults().find(").append(classLiteral).append(");\n");
+            body.append("        if (value != null && !(value instanceof ").append(castType).append(") && ").append(converterConstant).append(" != null) value = ")
+                    .append(converterConstant).append(".convert(value);\n");
+        }
+
+        if (!migratable.defaultValue().isEmpty()) {
+            String literal = parseDefault(field, migratable.defaultValue(), converterConstant);
+            if (literal == null) return false;
+
+            String defaultConstant = constant + "_DEFAULT";
+            constants.append("    private static final ").append(castType).append(' ').append(defaultConstant).append(" = ").append(literal).append(";\n");
+            body.append("        if (value == null && !data.containsKey(").append(keyConstant).append(")) value = ").append(defaultConstant).append(";\n");
+        }
+
+        String owner = field.getModifiers().contains(Modifier.STATIC) ? environment.getTypeUtils().erasure(field.getEnclosingElement().asType()).toString() : target;
+        String cast = "(" + castType + ") value";
+        body.append("        if (value != null) ");
+        if (setter == null) body.append(owner).append('.').append(name).append(" = ").append(cast).append(";\n");
+        else body.append(owner).append('.').append(setter).append('(').append(cast).append(");\n");
+        return true;
+    }
+
+    /**
+     * Create a unique constant name from a field name, for example firstName becomes FIRST_NAME
+     */
+    private String constantName(String fieldName) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(fieldName.charAt(i - 1))) builder.append('_');
+            builder.append(Character.toUpperCase(c));
+        }
+
+        String name = builder.toString();
+        for (int i = 2; !constantNames.add(name); i++) name = builder.toString() + "_" + i;
+        return name;
+    }
+
+    /**
+     * The type to cast a value to before it is set, primitives are cast to their box
+     */
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return environment.getTypeUtils().boxedClass(environment.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        return environment.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * Parse a default value into a Java literal of the type of the field
+     * Types without literals are parsed once when the migrator is loaded using the built in converter of the type.
+     *
+     * @return the literal or null if the value cannot be parsed, an error is reported in that case
+     */
+    private String parseDefault(VariableElement field, String value, String converterConstant) {
+        TypeMirror fieldType = field.asType();
+        TypeKind kind = fieldType.getKind();
+        if (kind == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) fieldType).asElement();
+            //Boxed primitives are parsed the same as their primitive
+            try {
+                kind = environment.getTypeUtils().unboxedType(fieldType).getKind();
+            } catch (IllegalArgumentException e) {
+                //Not a boxed primitive
+            }
+
+            if (!kind.isPrimitive()) {
+                TypeMirror string = environment.getElementUtils().getTypeElement(String.class.getName()).asType();
+                if (environment.getTypeUtils().isAssignable(string, fieldType)) return stringLiteral(value);
+                if (element.getKind() == ElementKind.ENUM) {
+                    for (Element constant : element.getEnclosedElements()) {
+                        if (constant.getKind() == ElementKind.ENUM_CONSTANT && constant.getSimpleName().contentEquals(value))
+                            return castType(fieldType) + "." + value;
+                    }
+                    return invalidDefault(field, value);
+                }
+                if (!canConvert(element, value)) return invalidDefault(field, value);
+                return "(" + castType(fieldType) + ") " + converterConstant + ".convert(" + stringLiteral(value) + ")";
+            }
+        }
+
+        try {
+            switch (kind) {
+                case BOOLEAN:
+                    if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) return invalidDefault(field, value);
+                    return String.valueOf(Boolean.parseBoolean(value));
+                case BYTE:
+                    return "(byte) " + Byte.parseByte(value);
+                case SHORT:
+                    return "(short) " + Short.parseShort(value);
+                case INT:
+                    return String.valueOf(Integer.parseInt(value));
+                case LONG:
+                    return Long.parseLong(value) + "L";
+                case CHAR:
+                    if (value.length() != 1) return invalidDefault(field, value);
+                    return "'" + escape(value, '\'') + "'";
+                case FLOAT:
+                    return floatLiteral(Float.parseFloat(value));
+                case DOUBLE:
+                    return doubleLiteral(Double.parseDouble(value));
+                default:
+                    return invalidDefault(field, value);
+            }
+        } catch (NumberFormatException e) {
+            return invalidDefault(field, value);
+        }
+    }
+
+    /**
+     * Check if a built in converter of {@link ConverterRegistry#defaults()} is able to parse a value into a type
+     */
+    private boolean canConvert(TypeElement type, String value) {
+        try {
+            Class<?> clazz = Class.forName(environment.getElementUtils().getBinaryName(type).toString(), false, getClass().getClassLoader());
+            Converter<?> converter = ConverterRegistry.defaults().find(clazz);
+            if (converter == null) return false;
+            converter.convert(value);
+            return true;
+        } catch (ClassNotFoundException | LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String floatLiteral(float value) {
+        if (Float.isNaN(value)) return "java.lang.Float.NaN";
+        if (Float.isInfinite(value)) return value > 0 ? "java.lang.Float.POSITIVE_INFINITY" : "java.lang.Float.NEGATIVE_INFINITY";
+        return value + "f";
+    }
+
+    private static String doubleLiteral(double value) {
+        if (Double.isNaN(value)) return "java.lang.Double.NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "java.lang.Double.POSITIVE_INFINITY" : "java.lang.Double.NEGATIVE_INFINITY";
+        return value + "d";
+    }
+
+    private String invalidDefault(VariableElement field, String value) {
+        environment.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Default value \"" + value + "\" cannot be parsed into " + field.asType(), field);
+        return null;
+    }
+
+    private static String stringLiteral(String value) {
+        return "\"" + escape(value, '"') + "\"";
+    }
+
+    private static String escape(String value, char quote) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == quote || c == '\\') builder.append('\\').append(c);
+            else if (c == '\n') builder.append("\\n");
+            else if (c == '\r') builder.append("\\r");
+            else if (c == '\t') builder.append("\\t");
+            else if (c < 0x20 || c > 0x7e) builder.append(String.format("\\u%04x", (int) c));
+            else builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        PackageElement packageElement = environment.getElementUtils().getPackageOf(type);
+        String binaryName = environment.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageElement.isUnnamed() ? binaryName : binaryName.substring(packageElement.getQualifiedName().length() + 1)) + "Migrator";
+
+        StringBuilder source = new StringBuilder();
+        if (!packageElement.isUnnamed()) source.append("package ").append(packageElement.getQualifiedName()).append(";\n\n");
+        source.append("/**\n")
+                .append(" * Migrates data into {@link ").append(type.getQualifiedName()).append("} without reflection.\n")
+                .append(" * Generated by the migrational-processor, do not edit.\n")
+                .append(" */\n")
+                .append("@java.lang.SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(simpleName).append(" implements me.max.migrational.TypedMigrator<").append(typeName).append("> {\n\n")
+                .append(constants).append('\n')
+                .append("    @java.lang.Override\n")
+                .append("    public ").append(typeName).append(" migrate(java.util.Map<java.lang.String, java.lang.Object> data) {\n")
+                .append("        return migrateInto(new ").append(typeName).append("(), data);\n")
+                .append("    }\n\n")
+                .append("    @java.lang.Override\n")
+                .append("    public ").append(typeName).append(" migrateInto(").append(typeName).append(" target, java.util.Map<java.lang.String, java.lang.Object> data) {\n")
+                .append("        java.lang.Object value;\n")
+                .append(body)
+                .append("        return target;\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.processor;
+
+import me.max.migrational.Migrator;
+import me.max.migrational.TypedMigrator;
+import me.max.migrational.metrics.MigrationMetrics;
+import me.max.migrational.processor.testobjects.CompiledChildObject;
+import me.max.migrational.processor.testobjects.CompiledChildObjectMigrator;
+import me.max.migrational.processor.testobjects.CompiledObject;
+import me.max.migrational.processor.testobjects.CompiledObjectMigrator;
+import me.max.migrational.processor.testobjects.NestedObject;
+import me.max.migrational.processor.testobjects.SkippedObject;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check the migrators generated by the {@link MigratableProcessor} while compiling the test objects.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigratableProcessorTest {
+
+    @Test
+    public void migrate_GeneratedMigrator_SetsFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("secret", "Secret");
+        data.put("exempted", "Migrated");
+
+        CompiledObject testObject = new CompiledObjectMigrator().migrate(data);
+
+        assertEquals("Stijn", testObject.getName());
+        assertEquals("Secret", testObject.getSecret());
+        assertEquals("Exempted", testObject.getExempted());
+    }
+
+    @Test
+    public void migrateInto_GeneratedMigrator_SetsFieldsOnTarget() {
+        CompiledObject target = new CompiledObject();
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+
+        assertSame(target, new CompiledObjectMigrator().migrateInto(target, data));
+        assertEquals("Stijn", target.getName());
+    }
+
+    @Test
+    public void migrate_GeneratedMigrator_SetsSuperclassFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("nickname", "Stinky");
+        data.put("secret", "Secret");
+
+        CompiledChildObject testObject = new CompiledChildObjectMigrator().migrate(data);
+
+        assertEquals("Stijn", testObject.getName());
+        assertEquals("Stinky", testObject.getNickname());
+        assertEquals("Secret", testObject.getSecret());
+        assertEquals(18, testObject.getAge());
+    }
+
+    @Test
+    public void migrate_MissingKeys_UsesParsedDefaults() {
+        CompiledObject testObject = new CompiledObjectMigrator().migrate(new HashMap<>());
+
+        assertEquals(18, testObject.getAge());
+        assertEquals(CompiledObject.Color.GREEN, testObject.getColor());
+        assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), testObject.getId());
+    }
+
+    @Test
+    public void migrate_ValuesOfOtherTypes_ConvertsValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("years", "20");
+        data.put("color", "RED");
+
+        CompiledObject testObject = new CompiledObjectMigrator().migrate(data);
+
+        assertEquals(20, testObject.getAge());
+        assertEquals(CompiledObject.Color.RED, testObject.getColor());
+    }
+
+    @Test
+    public void keyConstants_ResolvedKeys() {
+        assertEquals("name", CompiledObjectMigrator.NAME_KEY);
+        assertEquals("years", CompiledObjectMigrator.AGE_KEY);
+    }
+
+    @Test
+    public void migrateToClass_GeneratedMigratorOnClasspath_UsesGeneratedMigrator() throws IllegalAccessException, InstantiationException, InvocationTargetException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("secret", "Secret");
+
+        CompiledObject testObject = (CompiledObject) new Migrator(CompiledObject.class, data).migrateToClass();
+
+        //Reflection would have set the private field directly
+        assertTrue(testObject.isSetThroughSetter());
+    }
+
+    @Test
+    public void migrateToClass_GeneratedMigratorWithListener_CountsMissingAndDefaulted() throws IllegalAccessException, InstantiationException, InvocationTargetException {
+        MigrationMetrics metrics = new MigrationMetrics();
+        Migrator migrator = new Migrator(CompiledObject.class, metrics);
+        migrator.setData(Collections.singletonMap("name", "Stijn"));
+
+        migrator.migrateToClass();
+
+        assertEquals(4, metrics.get(CompiledObject.class).getMissing());
+        assertEquals(3, metrics.get(CompiledObject.class).getDefaulted());
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void process_PrivateFieldWithoutSetter_SkipsClass() throws ClassNotFoundException {
+        Class.forName(SkippedObject.class.getName() + "Migrator");
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void process_NestedMigratableField_SkipsClass() throws ClassNotFoundException {
+        Class.forName(NestedObject.class.getName() + "Migrator");
+    }
+
+    @Test
+    public void migrateToClass_NestedMigratableField_MigratesUsingReflection() throws InvocationTargetException, InstantiationException, IllegalAccessException {
+        Map<String, Object> child = new HashMap<>();
+        child.put("name", "Child");
+        Map<String, Object> data = new HashMap<>();
+        data.put("children", Collections.singletonList(child));
+
+        NestedObject testObject = (NestedObject) new Migrator(NestedObject.class, data).migrateToClass();
+
+        assertEquals("Child", testObject.children.get(0).getName());
+    }
+
+    @Test
+    public void typedMigrator_GeneratedMigrator_ImplementsTypedMigrator() {
+        assertTrue(TypedMigrator.class.isAssignableFrom(CompiledObjectMigrator.class));
+    }
+}
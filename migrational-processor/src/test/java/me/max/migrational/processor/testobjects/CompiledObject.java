@@ -0,0 +1,87 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.processor.testobjects;
+
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+
+import java.util.UUID;
+
+/**
+ * This is a test object
+ * This test object is used to test the migrator generated by the {@link me.max.migrational.processor.MigratableProcessor}.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Migratable
+public class CompiledObject {
+
+    String name;
+    @Migratable(key = "years", defaultValue = "18")
+    int age;
+    @Migratable(defaultValue = "GREEN")
+    Color color;
+    @Migratable(defaultValue = "123e4567-e89b-12d3-a456-426614174000")
+    UUID id;
+    private String secret;
+    @Exempt
+    String exempted = "Exempted";
+
+    @Exempt
+    private boolean setThroughSetter;
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+        this.setThroughSetter = true;
+    }
+
+    public String getExempted() {
+        return exempted;
+    }
+
+    public boolean isSetThroughSetter() {
+        return setThroughSetter;
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
+}
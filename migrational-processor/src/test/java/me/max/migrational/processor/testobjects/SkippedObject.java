@@ -0,0 +1,38 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.processor.testobjects;
+
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * This is a test object
+ * This test object has a private field without setter, so no migrator can be generated for it.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class SkippedObject {
+
+    @Migratable
+    private String name;
+
+    public String getName() {
+        return name;
+    }
+}
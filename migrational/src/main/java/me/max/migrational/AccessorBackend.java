@@ -0,0 +1,116 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+
+/**
+ * The way a {@link MigrationPlan} writes fields and creates instances.
+ * The backend is picked when the plan is built using {@link MigrationPlan#of(Class, AccessorBackend)}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public enum AccessorBackend {
+
+    /**
+     * Uses core reflection, {@link Field#set(Object, Object)} and {@link Constructor#newInstance(Object...)}.
+     * This is the default backend.
+     */
+    REFLECTION {
+        @Override
+        FieldAccessor accessor(Field field) {
+            return new ReflectionFieldAccessor(field);
+        }
+
+        @Override
+        <T> Instantiator<T> instantiator(Constructor<T> constructor) {
+            return () -> constructor.newInstance(NO_ARGUMENTS);
+        }
+    },
+
+    /**
+     * Uses a {@link MethodHandle} setter per field and a {@link MethodHandle} for the constructor.
+     * The handles are created once so the JIT is able to inline the field writes.
+     * Fields or constructors for which no handle can be created will fall back to {@link #REFLECTION}.
+     */
+    METHOD_HANDLE {
+        private final MethodType constructorType = MethodType.methodType(Object.class);
+
+        @Override
+        FieldAccessor accessor(Field field) {
+            try {
+                return new MethodHandleFieldAccessor(field);
+            } catch (IllegalAccessException | WrongMethodTypeException e) {
+                //Final fields, fields we are not allowed to access or fields whose handles cannot be adapted
+                return REFLECTION.accessor(field);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        <T> Instantiator<T> instantiator(Constructor<T> constructor) {
+            //Let reflection report abstract classes the usual way
+            if (Modifier.isAbstract(constructor.getDeclaringClass().getModifiers()))
+                return REFLECTION.instantiator(constructor);
+
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflectConstructor(constructor).asType(constructorType);
+            } catch (IllegalAccessException e) {
+                return REFLECTION.instantiator(constructor);
+            }
+
+            return () -> {
+                try {
+                    return (T) handle.invokeExact();
+                } catch (Throwable t) {
+                    //Keep the same contract as Constructor#newInstance
+                    throw new InvocationTargetException(t);
+                }
+            };
+        }
+    };
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    /**
+     * Create the accessor of a field
+     *
+     * @param field the field, this should already be accessible
+     * @return the accessor which writes this field
+     */
+    abstract FieldAccessor accessor(Field field);
+
+    /**
+     * Create the instantiator of a zero parameter constructor
+     *
+     * @param constructor the constructor, this should already be accessible
+     * @param <T>         the type of the class
+     * @return the instantiator which calls this constructor
+     */
+    abstract <T> Instantiator<T> instantiator(Constructor<T> constructor);
+}
@@ -0,0 +1,298 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.annotations.Creator;
+import me.max.migrational.annotations.Migratable;
+import me.max.migrational.exceptions.InvalidConstructorException;
+import me.max.migrational.exceptions.MigrationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+
+/**
+ * Creates new instances by passing the migrated values to a constructor or static factory.
+ * This is used for classes which cannot be created empty, like records and other immutable classes,
+ * so their fields are given to the constructor once instead of being written after the instance was created.
+ * <p>
+ * The creator of a class is, in this order, the constructor or static factory annotated with {@link Creator},
+ * the canonical constructor of a record
+ * or, for classes without a zero parameter constructor, a constructor taking every migratable field in order.
+ * It is called through one spread {@link MethodHandle}.
+ *
+ * @param <T> the type of the instances
+ * @author Max Berkelmans
+ * @see MigrationPlan#getCreator()
+ * @since 1.2.0
+ */
+final class ArgumentInstantiator<T> {
+
+    private static final Method IS_RECORD, GET_RECORD_COMPONENTS, GET_NAME;
+
+    static {
+        //Records only exist since Java 16, look them up reflectively
+        Method isRecord = null, getRecordComponents = null, getName = null;
+        try {
+            isRecord = Class.class.getMethod("isRecord");
+            getRecordComponents = Class.class.getMethod("getRecordComponents");
+            getName = getRecordComponents.getReturnType().getComponentType().getMethod("getName");
+        } catch (NoSuchMethodException ignored) {
+        }
+        IS_RECORD = isRecord;
+        GET_RECORD_COMPONENTS = getRecordComponents;
+        GET_NAME = getName;
+    }
+
+    private final Class<T> type;
+    private final Executable executable;
+    private final MethodHandle handle;
+    private final MigrationField[] fields;
+    private final int[] slots;
+    private final Object[] zeros;
+    private final int[] remaining;
+
+    /**
+     * @param type       the class to create instances of
+     * @param executable the constructor or static factory, this should already be accessible
+     * @param fields     the migratable fields of the class
+     * @param slots      the index of the field bound to every parameter
+     * @throws IllegalAccessException if the executable cannot be accessed
+     */
+    private ArgumentInstantiator(Class<T> type, Executable executable, MigrationField[] fields, int[] slots) throws IllegalAccessException {
+        this.type = type;
+        this.executable = executable;
+        MethodHandle handle = executable instanceof Constructor
+                ? MethodHandles.lookup().unreflectConstructor((Constructor<?>) executable)
+                : MethodHandles.lookup().unreflect((Method) executable);
+        this.handle = handle.asType(handle.type().changeReturnType(Object.class)).asSpreader(Object[].class, slots.length);
+        this.fields = fields;
+        this.slots = slots;
+
+        //Primitive parameters without a value are given their zero value
+        Class<?>[] parameterTypes = executable.getParameterTypes();
+        this.zeros = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isPrimitive()) zeros[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+        }
+
+        //Fields which are not bound to a parameter are set after creating the instance
+        boolean[] bound = new boolean[fields.length];
+        for (int slot : slots) bound[slot] = true;
+        int[] remaining = new int[fields.length];
+        int size = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (!bound[i]) remaining[size++] = i;
+        }
+        this.remaining = Arrays.copyOf(remaining, size);
+    }
+
+    /**
+     * Find the creator of a class
+     *
+     * @param type     the class to find the creator of
+     * @param fields   the migratable fields of the class
+     * @param zeroArgs true if the class has a zero parameter constructor
+     * @param <T>      the type of the class
+     * @return the instantiator using the creator or null if the class has no creator
+     * @throws InvalidConstructorException if an annotated creator is invalid or cannot be bound to the fields
+     */
+    static <T> ArgumentInstantiator<T> find(Class<T> type, MigrationField[] fields, boolean zeroArgs) {
+        Executable annotated = null;
+        for (Executable executable : executables(type)) {
+            if (!executable.isAnnotationPresent(Creator.class)) continue;
+            if (annotated != null)
+                throw new InvalidConstructorException("More than one creator is annotated in " + type.getName(), null);
+            if (executable instanceof Method && (!Modifier.isStatic(executable.getModifiers()) || !type.isAssignableFrom(((Method) executable).getReturnType())))
+                throw new InvalidConstructorException("The creator " + executable + " must be static and return " + type.getName(), null);
+            annotated = executable;
+        }
+        if (annotated != null) return create(type, annotated, fields, bind(annotated, fields, null));
+
+        String[] components = recordComponents(type);
+        if (components != null) {
+            for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+                if (constructor.getParameterCount() == components.length && !constructor.isSynthetic()) {
+                    int[] slots = bind(constructor, fields, components);
+                    if (slots != null) return create(type, constructor, fields, slots);
+                }
+            }
+        }
+
+        if (zeroArgs || fields.length == 0) return null;
+        //A constructor taking every field in order
+        constructors:
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != fields.length) continue;
+            int[] slots = new int[fields.length];
+            for (int i = 0; i < slots.length; i++) {
+                if (parameterTypes[i] != fields[i].getField().getType()) continue constructors;
+                slots[i] = i;
+            }
+            return create(type, constructor, fields, slots);
+        }
+        return null;
+    }
+
+    private static Executable[] executables(Class<?> type) {
+        Constructor<?>[] constructors = type.getDeclaredConstructors();
+        Method[] methods = type.getDeclaredMethods();
+        Executable[] executables = Arrays.copyOf(constructors, constructors.length + methods.length, Executable[].class);
+        System.arraycopy(methods, 0, executables, constructors.length, methods.length);
+        return executables;
+    }
+
+    /**
+     * Bind every parameter of an executable to a migratable field
+     *
+     * @param executable the executable to bind
+     * @param fields     the migratable fields
+     * @param names      the names of the parameters or null to use the annotations and names of the parameters
+     * @return the index of the field of every parameter, or null if record components could not be bound
+     * @throws InvalidConstructorException if a parameter of an annotated creator cannot be bound
+     */
+    private static int[] bind(Executable executable, MigrationField[] fields, String[] names) {
+        Parameter[] parameters = executable.getParameters();
+        int[] slots = new int[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            String key;
+            Migratable migratable = parameters[i].getAnnotation(Migratable.class);
+            if (names != null) key = names[i];
+            else if (migratable != null && !migratable.key().isEmpty()) key = migratable.key();
+            else if (parameters[i].isNamePresent()) key = parameters[i].getName();
+            else
+                throw new InvalidConstructorException("Parameter " + i + " of " + executable + " has no name, annotate it with @Migratable(key = ...)", null);
+
+            slots[i] = find(key, parameters[i].getType(), fields, names != null);
+            if (slots[i] >= 0) continue;
+            if (names != null) return null;
+            throw new InvalidConstructorException("Parameter " + key + " of " + executable + " does not match a migratable field", null);
+        }
+        return slots;
+    }
+
+    /**
+     * Find the field bound to a parameter, by key or by the name of the field
+     *
+     * @return the index of the field or -1 if there is no field of the type of the parameter
+     */
+    private static int find(String key, Class<?> type, MigrationField[] fields, boolean byName) {
+        for (int i = 0; i < fields.length; i++) {
+            MigrationField field = fields[i];
+            if (!field.getField().getName().equals(key) && (byName || !field.getKey().equals(key))) continue;
+            Class<?> fieldType = field.getField().getType();
+            if (fieldType == type || (!type.isPrimitive() && type.isAssignableFrom(fieldType.isPrimitive() ? ConverterRegistry.box(fieldType) : fieldType)))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the names of the components of a record
+     *
+     * @return the names or null if the class is not a record
+     */
+    private static String[] recordComponents(Class<?> type) {
+        if (IS_RECORD == null) return null;
+        try {
+            if (!(Boolean) IS_RECORD.invoke(type)) return null;
+            Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+            String[] names = new String[components.length];
+            for (int i = 0; i < components.length; i++) names[i] = (String) GET_NAME.invoke(components[i]);
+            return names;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create the instantiator of a creator of which the parameters were already bound
+     *
+     * @param type       the class to create instances of
+     * @param executable the constructor or static factory
+     * @param fields     the migratable fields of the class
+     * @param slots      the index of the field bound to every parameter
+     * @param <T>        the type of the class
+     * @return the instantiator
+     * @throws InvalidConstructorException if the creator cannot be accessed
+     */
+    static <T> ArgumentInstantiator<T> create(Class<T> type, Executable executable, MigrationField[] fields, int[] slots) {
+        if (!Modifier.isPublic(executable.getModifiers()) || !Modifier.isPublic(type.getModifiers()))
+            executable.setAccessible(true);
+        try {
+            return new ArgumentInstantiator<>(type, executable, fields, slots);
+        } catch (IllegalAccessException e) {
+            throw new InvalidConstructorException("The creator " + executable + " cannot be accessed", executable instanceof Constructor ? (Constructor<?>) executable : null);
+        }
+    }
+
+    /**
+     * Create a new instance from the resolved values of the fields
+     * The values bound to parameters are passed to the creator, the other values are set afterwards.
+     *
+     * @param values the value of every field by index, null if there is nothing to migrate, this array is not kept
+     * @return the new instance
+     * @throws MigrationException if the creator threw or a field could not be set
+     */
+    @SuppressWarnings("unchecked")
+    T newInstance(Object[] values) {
+        Object[] arguments = new Object[slots.length];
+        for (int i = 0; i < arguments.length; i++) {
+            Object value = values[slots[i]];
+            arguments[i] = value == null ? zeros[i] : value;
+        }
+
+        T target;
+        try {
+            target = (T) handle.invokeExact(arguments);
+        } catch (Throwable t) {
+            throw new MigrationException("Could not create an instance of " + type.getName() + " using " + executable, t);
+        }
+        for (int index : remaining) {
+            if (values[index] != null) PlanMigrator.set(fields[index], target, values[index]);
+        }
+        return target;
+    }
+
+    /**
+     * Get the constructor or static factory used
+     *
+     * @return the creator
+     */
+    Executable getExecutable() {
+        return executable;
+    }
+
+    /**
+     * Get the index of the field bound to every parameter, this array must never be modified.
+     *
+     * @return the index of the field of every parameter
+     */
+    int[] slots() {
+        return slots;
+    }
+}
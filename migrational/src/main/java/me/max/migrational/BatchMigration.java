@@ -0,0 +1,258 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Migrates many data maps or a batch of columns into objects of one class, or exports many objects into data maps, at once.
+ * The work is split into chunks which are migrated in parallel on a {@link ForkJoinPool},
+ * every chunk uses the same {@link TypedMigrator} and so the same {@link MigrationPlan}.
+ * How the throughput scales with the amount of cores has not been measured yet, so the chunk size is not tuned for it.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class BatchMigration {
+
+    //The chunk size is max(MIN_CHUNK_SIZE, size / (parallelism * CHUNKS_PER_WORKER)), both values are untuned estimates
+    //which should be measured with BatchMigrationBenchmark on a machine with several cores before they are relied on.
+    //Smaller batches than this are not split
+    private static final int MIN_CHUNK_SIZE = 256;
+    //Chunks per worker, more chunks balance the work better when some records are slower
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private BatchMigration() {
+    }
+
+    /**
+     * Migrate all data into new instances of a class using the common pool
+     * This uses {@link Migrators#forClass(Class)}.
+     *
+     * @param clazz the class to migrate to
+     * @param data  the data to migrate, one map per object
+     * @param <T>   the type of the class
+     * @return the migrated objects in the same order as the data
+     * @throws me.max.migrational.exceptions.MigrationException if any of the objects could not be migrated
+     */
+    public static <T> List<T> migrateAll(Class<T> clazz, Collection<? extends Map<String, Object>> data) {
+        return migrateAll(Migrators.forClass(clazz), data);
+    }
+
+    /**
+     * Migrate all data using the common pool
+     *
+     * @param migrator the migrator to use, this must be safe to use from multiple threads
+     * @param data     the data to migrate, one map per object
+     * @param <T>      the type of the class
+     * @return the migrated objects in the same order as the data
+     * @throws me.max.migrational.exceptions.MigrationException if any of the objects could not be migrated
+     */
+    public static <T> List<T> migrateAll(TypedMigrator<T> migrator, Collection<? extends Map<String, Object>> data) {
+        return migrateAll(migrator, data, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Migrate all data using a specific pool
+     * The chunk size depends on the amount of data and the parallelism of the pool,
+     * small batches are migrated on the calling thread.
+     *
+     * @param migrator the migrator to use, this must be safe to use from multiple threads
+     * @param data     the data to migrate, one map per object
+     * @param pool     the pool to migrate on
+     * @param <T>      the type of the class
+     * @return the migrated objects in the same order as the data
+     * @throws me.max.migrational.exceptions.MigrationException if any of the objects could not be migrated
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> migrateAll(TypedMigrator<T> migrator, Collection<? extends Map<String, Object>> data, ForkJoinPool pool) {
+        return run(data, pool, element -> migrator.migrate((Map<String, Object>) element));
+    }
+
+    /**
+     * Migrate all data on the calling thread without throwing for bad records
+     * Values which cannot be converted are recorded in the error buffer and handled by the policy,
+     * when a record is skipped only its first error is recorded.
+     * The errors hold the index of every record in the data, so skipped records can be found again.
+     *
+     * @param plan   the plan of the class to migrate to
+     * @param data   the data to migrate, one map per object
+     * @param policy what to do with records holding bad values
+     * @param errors the buffer to record the errors in
+     * @param <T>    the type of the class
+     * @return the migrated objects in the same order as the data, without the skipped records
+     * @throws me.max.migrational.exceptions.InvalidConstructorException if the class has no way to create instances
+     */
+    public static <T> List<T> migrateAll(MigrationPlan<T> plan, Collection<? extends Map<String, Object>> data, ErrorPolicy policy, MigrationErrors errors) {
+        TolerantMigrator<T> migrator = new TolerantMigrator<>(plan, policy);
+        List<T> migrated = new ArrayList<>(data.size());
+        int record = 0;
+        for (Map<String, Object> element : data) {
+            T object = migrator.migrate(element, record++, errors);
+            if (object != null) migrated.add(object);
+        }
+        return migrated;
+    }
+
+    /**
+     * Export all objects using the common pool
+     *
+     * @param exporter the exporter to use
+     * @param objects  the objects to export
+     * @param <T>      the type of the objects
+     * @return the data of the objects in the same order
+     * @throws me.max.migrational.exceptions.MigrationException if a field could not be read
+     */
+    public static <T> List<Map<String, Object>> exportAll(Exporter<T> exporter, Collection<? extends T> objects) {
+        return exportAll(exporter, objects, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Export all objects using a specific pool, split the same way as {@link #migrateAll(TypedMigrator, Collection, ForkJoinPool)}
+     *
+     * @param exporter the exporter to use
+     * @param objects  the objects to export
+     * @param pool     the pool to export on
+     * @param <T>      the type of the objects
+     * @return the data of the objects in the same order
+     * @throws me.max.migrational.exceptions.MigrationException if a field could not be read
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<Map<String, Object>> exportAll(Exporter<T> exporter, Collection<? extends T> objects, ForkJoinPool pool) {
+        return run(objects, pool, element -> exporter.toMap((T) element));
+    }
+
+    /**
+     * Migrate every row of a batch of columns into new instances of a class using the common pool
+     * This uses the {@link AccessorBackend#METHOD_HANDLE} plan of the class.
+     *
+     * @param clazz the class to migrate to
+     * @param batch the columns to migrate
+     * @param <T>   the type of the class
+     * @return the migrated objects in the order of the rows
+     * @throws me.max.migrational.exceptions.MigrationException if any of the objects could not be migrated
+     */
+    public static <T> List<T> migrateColumns(Class<T> clazz, ColumnBatch batch) {
+        return migrateColumns(MigrationPlan.of(clazz, AccessorBackend.METHOD_HANDLE), batch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Migrate every row of a batch of columns using a specific pool
+     * Every column is bound to its fields once, the rows are then split the same way as {@link #migrateAll(TypedMigrator, Collection, ForkJoinPool)}.
+     * Pass null as the pool to migrate every row on the calling thread.
+     *
+     * @param plan  the plan of the class to migrate to
+     * @param batch the columns to migrate
+     * @param pool  the pool to migrate on or null to not migrate in parallel
+     * @param <T>   the type of the class
+     * @return the migrated objects in the order of the rows
+     * @throws me.max.migrational.exceptions.MigrationException if any of the objects could not be migrated
+     */
+    public static <T> List<T> migrateColumns(MigrationPlan<T> plan, ColumnBatch batch, ForkJoinPool pool) {
+        ColumnMigrator<T> migrator = new ColumnMigrator<>(plan, batch);
+        return run(batch.getRows(), pool, migrator::migrate);
+    }
+
+    /**
+     * Apply a function to every element, in parallel if there are enough elements
+     *
+     * @param elements the elements
+     * @param pool     the pool to run on
+     * @param function the function to apply
+     * @param <R>      the type of the results
+     * @return the results in the same order as the elements
+     */
+    private static <R> List<R> run(Collection<?> elements, ForkJoinPool pool, Function<Object, Object> function) {
+        Object[] input = elements.toArray();
+        return run(input.length, pool, index -> function.apply(input[index]));
+    }
+
+    /**
+     * Compute the result of every index, in parallel if there are enough indexes
+     *
+     * @param size     the amount of indexes
+     * @param pool     the pool to run on or null to run on the calling thread
+     * @param function the function computing the result of an index
+     * @param <R>      the type of the results
+     * @return the results in the order of the indexes
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> List<R> run(int size, ForkJoinPool pool, IntFunction<?> function) {
+        Object[] output = new Object[size];
+
+        int chunkSize = pool == null ? size : chunkSize(size, pool.getParallelism());
+        ChunkTask task = new ChunkTask(function, output, 0, size, chunkSize);
+        if (size <= chunkSize) task.compute();
+        else pool.invoke(task);
+
+        return (List<R>) Collections.unmodifiableList(Arrays.asList(output));
+    }
+
+    /**
+     * Get the amount of records each task should migrate
+     *
+     * @param size        the amount of records
+     * @param parallelism the amount of workers
+     * @return the chunk size
+     */
+    static int chunkSize(int size, int parallelism) {
+        return Math.max(MIN_CHUNK_SIZE, size / (Math.max(1, parallelism) * CHUNKS_PER_WORKER));
+    }
+
+    /**
+     * Applies the function to a range of indexes, splitting it in halves until it is at most one chunk
+     */
+    private static final class ChunkTask extends RecursiveAction {
+
+        private final IntFunction<?> function;
+        private final Object[] output;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        ChunkTask(IntFunction<?> function, Object[] output, int from, int to, int chunkSize) {
+            this.function = function;
+            this.output = output;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(function, output, from, middle, chunkSize),
+                        new ChunkTask(function, output, middle, to, chunkSize));
+                return;
+            }
+
+            for (int i = from; i < to; i++) output[i] = function.apply(i);
+        }
+    }
+}
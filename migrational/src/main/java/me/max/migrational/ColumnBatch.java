@@ -0,0 +1,146 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data of many objects stored per key, one array per key holding the value of every row.
+ * Primitive columns are kept as primitive arrays, so they are migrated into primitive fields without boxing.
+ * <pre>{@code
+ * ColumnBatch batch = new ColumnBatch(ids.length).column("id", ids).column("name", names);
+ * List<User> users = BatchMigration.migrateColumns(User.class, batch);
+ * }</pre>
+ * The arrays are not copied, they should not be changed while the batch is migrated.
+ *
+ * @author Max Berkelmans
+ * @see BatchMigration#migrateColumns(Class, ColumnBatch)
+ * @since 1.2.0
+ */
+public final class ColumnBatch {
+
+    private final int rows;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+
+    /**
+     * @param rows the amount of rows, every column must hold at least this many values
+     */
+    public ColumnBatch(int rows) {
+        if (rows < 0) throw new IllegalArgumentException("The amount of rows cannot be negative: " + rows);
+        this.rows = rows;
+    }
+
+    /**
+     * Add a column of int values
+     *
+     * @param key    the key of the column
+     * @param values the value of every row
+     * @return this batch
+     * @throws IllegalArgumentException if the column has less values than the batch has rows
+     */
+    public ColumnBatch column(String key, int[] values) {
+        return add(key, values, values.length);
+    }
+
+    /**
+     * Add a column of long values
+     *
+     * @param key    the key of the column
+     * @param values the value of every row
+     * @return this batch
+     * @throws IllegalArgumentException if the column has less values than the batch has rows
+     */
+    public ColumnBatch column(String key, long[] values) {
+        return add(key, values, values.length);
+    }
+
+    /**
+     * Add a column of double values
+     *
+     * @param key    the key of the column
+     * @param values the value of every row
+     * @return this batch
+     * @throws IllegalArgumentException if the column has less values than the batch has rows
+     */
+    public ColumnBatch column(String key, double[] values) {
+        return add(key, values, values.length);
+    }
+
+    /**
+     * Add a column of boolean values
+     *
+     * @param key    the key of the column
+     * @param values the value of every row
+     * @return this batch
+     * @throws IllegalArgumentException if the column has less values than the batch has rows
+     */
+    public ColumnBatch column(String key, boolean[] values) {
+        return add(key, values, values.length);
+    }
+
+    /**
+     * Add a column of objects, a null value is skipped the same way as a key with a null value in a data map
+     *
+     * @param key    the key of the column
+     * @param values the value of every row
+     * @return this batch
+     * @throws IllegalArgumentException if the column has less values than the batch has rows
+     */
+    public ColumnBatch column(String key, Object[] values) {
+        return add(key, values, values.length);
+    }
+
+    private ColumnBatch add(String key, Object values, int length) {
+        if (length < rows)
+            throw new IllegalArgumentException("The column " + key + " has " + length + " values but the batch has " + rows + " rows");
+        columns.put(key, values);
+        return this;
+    }
+
+    /**
+     * Get the amount of rows
+     *
+     * @return the amount of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the keys of the columns
+     *
+     * @return an unmodifiable set of the keys in the order the columns were added
+     */
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Get the array of a column
+     *
+     * @param key the key of the column
+     * @return the primitive or object array or null if there is no such column
+     */
+    Object getColumn(String key) {
+        return columns.get(key);
+    }
+}
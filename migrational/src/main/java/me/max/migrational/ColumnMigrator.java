@@ -0,0 +1,264 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Migrates the rows of a {@link ColumnBatch}, every column is bound to its fields once before the first row.
+ * Columns of the primitive type of their field are stored using the primitive setters of the accessor,
+ * other values are converted the same way as values of a data map.
+ *
+ * @param <T> the type of the class this migrates to
+ * @author Max Berkelmans
+ * @see BatchMigration#migrateColumns(MigrationPlan, ColumnBatch, java.util.concurrent.ForkJoinPool)
+ * @since 1.2.0
+ */
+final class ColumnMigrator<T> {
+
+    private final MigrationPlan<T> plan;
+    private final Instantiator<T> instantiator;
+    private final ArgumentInstantiator<T> creator;
+    private final MigrationField[] fields;
+    private final Column[] columns;
+    private final int[] defaulted;
+
+    /**
+     * @param plan  the plan of the class to migrate to
+     * @param batch the batch to bind the columns of
+     */
+    ColumnMigrator(MigrationPlan<T> plan, ColumnBatch batch) {
+        this.plan = plan;
+        this.instantiator = plan.getConstructor() == null ? null : plan.instantiator(plan.getConstructor());
+        this.creator = plan.creator();
+
+        //Bind every field to at most one column, the column of the key of the field wins over columns of its aliases
+        MigrationField[] fields = plan.fields();
+        this.fields = fields;
+        Column[] bound = new Column[fields.length];
+        boolean[] byKey = new boolean[fields.length];
+        for (String key : batch.getKeys()) {
+            int[] targets = plan.keys().find(key);
+            if (targets == null) continue; //Not one of our keys
+            for (int target : targets) {
+                int index = target >> 1;
+                if (byKey[index] || (bound[index] != null && (target & 1) == 0)) continue;
+                bound[index] = column(fields[index], index, batch.getColumn(key));
+                byKey[index] = (target & 1) != 0;
+            }
+        }
+
+        //Fields without a column get their default value
+        List<Column> columns = new ArrayList<>();
+        int[] defaulted = new int[fields.length];
+        int size = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (bound[i] != null) columns.add(bound[i]);
+            else if (fields[i].getDefaultValue() != null) defaulted[size++] = i;
+        }
+        this.columns = columns.toArray(new Column[0]);
+        this.defaulted = Arrays.copyOf(defaulted, size);
+    }
+
+    private static Column column(MigrationField field, int index, Object values) {
+        if (values instanceof int[]) return new IntColumn(field, index, (int[]) values);
+        if (values instanceof long[]) return new LongColumn(field, index, (long[]) values);
+        if (values instanceof double[]) return new DoubleColumn(field, index, (double[]) values);
+        if (values instanceof boolean[]) return new BooleanColumn(field, index, (boolean[]) values);
+        return new ObjectColumn(field, index, (Object[]) values);
+    }
+
+    /**
+     * Migrate one row into a new instance
+     *
+     * @param row the index of the row
+     * @return the migrated object
+     * @throws MigrationException if the instance could not be created or a field could not be set
+     */
+    T migrate(int row) {
+        if (creator != null) return create(row);
+
+        T target = PlanMigrator.newInstance(plan, instantiator);
+        for (Column column : columns) {
+            try {
+                column.set(target, row);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new MigrationException("Could not set " + column.field.getField() + " of row " + row, e);
+            }
+        }
+        for (int index : defaulted) PlanMigrator.set(fields[index], target, fields[index].getDefaultValue());
+        return target;
+    }
+
+    /**
+     * Create a row using the creator of the class, primitive values are boxed to pass them
+     */
+    private T create(int row) {
+        Object[] values = new Object[fields.length];
+        for (Column column : columns) {
+            Object value = column.value(row);
+            values[column.index] = value == null ? null : column.field.convert(value);
+        }
+        for (int index : defaulted) values[index] = fields[index].getDefaultValue();
+        return creator.newInstance(values);
+    }
+
+    /**
+     * A column bound to a field
+     */
+    private abstract static class Column {
+
+        final MigrationField field;
+        final int index;
+
+        Column(MigrationField field, int index) {
+            this.field = field;
+            this.index = index;
+        }
+
+        /**
+         * Set the value of a row on the field
+         */
+        abstract void set(Object target, int row) throws IllegalAccessException;
+
+        /**
+         * Get the unconverted value of a row, primitive values are boxed
+         */
+        abstract Object value(int row);
+    }
+
+    private static final class IntColumn extends Column {
+
+        private final int[] values;
+        private final boolean primitive;
+
+        IntColumn(MigrationField field, int index, int[] values) {
+            super(field, index);
+            this.values = values;
+            //Ints are stored as the bits of a long field too
+            this.primitive = field.kind() == MigrationField.INT || field.kind() == MigrationField.LONG;
+        }
+
+        @Override
+        void set(Object target, int row) throws IllegalAccessException {
+            if (primitive) field.setPrimitive(target, values[row]);
+            else field.set(target, field.convert(values[row]));
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        private final long[] values;
+        private final boolean primitive;
+
+        LongColumn(MigrationField field, int index, long[] values) {
+            super(field, index);
+            this.values = values;
+            this.primitive = field.kind() == MigrationField.LONG;
+        }
+
+        @Override
+        void set(Object target, int row) throws IllegalAccessException {
+            if (primitive) field.setPrimitive(target, values[row]);
+            else field.set(target, field.convert(values[row]));
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        private final double[] values;
+        private final boolean primitive;
+
+        DoubleColumn(MigrationField field, int index, double[] values) {
+            super(field, index);
+            this.values = values;
+            this.primitive = field.kind() == MigrationField.DOUBLE;
+        }
+
+        @Override
+        void set(Object target, int row) throws IllegalAccessException {
+            if (primitive) field.setPrimitive(target, Double.doubleToRawLongBits(values[row]));
+            else field.set(target, field.convert(values[row]));
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        private final boolean[] values;
+        private final boolean primitive;
+
+        BooleanColumn(MigrationField field, int index, boolean[] values) {
+            super(field, index);
+            this.values = values;
+            this.primitive = field.kind() == MigrationField.BOOLEAN;
+        }
+
+        @Override
+        void set(Object target, int row) throws IllegalAccessException {
+            if (primitive) field.setPrimitive(target, values[row] ? 1 : 0);
+            else field.set(target, field.convert(values[row]));
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private final Object[] values;
+
+        ObjectColumn(MigrationField field, int index, Object[] values) {
+            super(field, index);
+            this.values = values;
+        }
+
+        @Override
+        void set(Object target, int row) throws IllegalAccessException {
+            Object value = values[row];
+            //A null value is skipped, the same as a key with a null value
+            if (value != null) field.set(target, field.convert(value));
+        }
+
+        @Override
+        Object value(int row) {
+            return values[row];
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds the migrators generated at compile time by the migrational-processor.
+ * A generated migrator of a class is named after the class followed by {@code Migrator},
+ * for example {@code com.example.User} has {@code com.example.UserMigrator}
+ * and {@code com.example.Outer$Inner} has {@code com.example.Outer$InnerMigrator}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class CompiledMigrators {
+
+    private static final String SUFFIX = "Migrator";
+    private static final String KEY_SUFFIX = "_KEY", DEFAULT_SUFFIX = "_DEFAULT";
+
+    private static final ClassValue<Optional<TypedMigrator<?>>> MIGRATORS = new ClassValue<Optional<TypedMigrator<?>>>() {
+        @Override
+        protected Optional<TypedMigrator<?>> computeValue(Class<?> type) {
+            return Optional.ofNullable(load(type));
+        }
+    };
+
+    private static final ClassValue<Keys> KEYS = new ClassValue<Keys>() {
+        @Override
+        protected Keys computeValue(Class<?> type) {
+            return new Keys(type);
+        }
+    };
+
+    private CompiledMigrators() {
+    }
+
+    /**
+     * Get the keys of the fields a generated migrator sets, read from its key and default value constants
+     * Only the small generated class is looked at, the migrated class itself is not scanned.
+     *
+     * @param migrator the generated migrator
+     * @return the keys of the migrator
+     */
+    static Keys keys(TypedMigrator<?> migrator) {
+        return KEYS.get(migrator.getClass());
+    }
+
+    /**
+     * Find the generated migrator of a class, this is only looked up the first time this is called for it.
+     *
+     * @param clazz the class to find the migrator for
+     * @param <T>   the type of the class
+     * @return the generated migrator or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TypedMigrator<T> find(Class<T> clazz) {
+        return (TypedMigrator<T>) MIGRATORS.get(clazz).orElse(null);
+    }
+
+    private static TypedMigrator<?> load(Class<?> type) {
+        Class<?> migratorClass;
+        try {
+            migratorClass = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        //A class with the same name which has nothing to do with us
+        if (!TypedMigrator.class.isAssignableFrom(migratorClass)) return null;
+
+        try {
+            return (TypedMigrator<?>) migratorClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The keys of a generated migrator, every migrated field has a public key constant
+     * and a default value constant with the same prefix if it has a default value.
+     */
+    static final class Keys {
+
+        private final String[] keys;
+        private final boolean[] defaulted;
+
+        private Keys(Class<?> migratorClass) {
+            Set<String> names = new HashSet<>();
+            for (Field field : migratorClass.getDeclaredFields()) names.add(field.getName());
+
+            List<String> keys = new ArrayList<>();
+            List<Boolean> defaulted = new ArrayList<>();
+            for (Field field : migratorClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isPublic(modifiers) || !Modifier.isStatic(modifiers) || field.getType() != String.class) continue;
+                String name = field.getName();
+                if (!name.endsWith(KEY_SUFFIX)) continue;
+                try {
+                    keys.add((String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    continue;
+                }
+                defaulted.add(names.contains(name.substring(0, name.length() - KEY_SUFFIX.length()) + DEFAULT_SUFFIX));
+            }
+            this.keys = keys.toArray(new String[0]);
+            this.defaulted = new boolean[keys.size()];
+            for (int i = 0; i < this.defaulted.length; i++) this.defaulted[i] = defaulted.get(i);
+        }
+
+        /**
+         * @return the amount of keys
+         */
+        int size() {
+            return keys.length;
+        }
+
+        /**
+         * @return the key at an index
+         */
+        String key(int index) {
+            return keys[index];
+        }
+
+        /**
+         * @return true if the field of the key at an index has a default value
+         */
+        boolean isDefaulted(int index) {
+            return defaulted[index];
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+/**
+ * Converts a value from the data into the type of a field.
+ * Converters are looked up once per field when its {@link MigrationPlan} is built,
+ * they are used to parse default values and for values in the data which are not of the type of the field.
+ *
+ * @param <T> the type this converts to
+ * @author Max Berkelmans
+ * @see ConverterRegistry
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface Converter<T> {
+
+    /**
+     * Convert a value
+     *
+     * @param value the value to convert, this is never null
+     * @return the converted value
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    T convert(Object value);
+}
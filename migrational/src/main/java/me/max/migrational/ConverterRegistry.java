@@ -0,0 +1,422 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The {@link Converter}s used by a {@link MigrationPlan}, by the type they convert to.
+ * A new registry has converters for all primitives and their boxes, {@link String}, enums, {@link UUID}, {@link Instant},
+ * {@link LocalDate}, {@link LocalDateTime}, {@link Duration}, {@link BigDecimal} and {@link BigInteger}.
+ * <p>
+ * The shared {@link #defaults()} registry cannot be changed, to add converters create a new registry
+ * and pass it to {@link MigrationPlan#of(Class, AccessorBackend, ConverterRegistry)}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class ConverterRegistry {
+
+    private static final ConverterRegistry DEFAULTS = new ConverterRegistry(true);
+
+    private final Map<Class<?>, Converter<?>> converters = new ConcurrentHashMap<>();
+    private final Set<Class<?>> registered = ConcurrentHashMap.newKeySet();
+    //The plans of nested classes using this registry, by backend
+    private final Map<AccessorBackend, Map<Class<?>, MigrationPlan<?>>> plans = new EnumMap<>(AccessorBackend.class);
+    private final boolean locked;
+
+    /**
+     * Creates a registry with the built in converters
+     */
+    public ConverterRegistry() {
+        this(false);
+    }
+
+    private ConverterRegistry(boolean locked) {
+        registerDefaults();
+        for (AccessorBackend backend : AccessorBackend.values()) plans.put(backend, new ConcurrentHashMap<>());
+        this.locked = locked;
+    }
+
+    /**
+     * Get the shared registry with only the built in converters
+     *
+     * @return the default registry
+     */
+    public static ConverterRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Register a converter, replacing the converter which was registered for the type before
+     *
+     * @param type      the type the converter converts to
+     * @param converter the converter
+     * @param <T>       the type the converter converts to
+     * @return this registry
+     * @throws UnsupportedOperationException if this is the {@link #defaults()} registry
+     */
+    public <T> ConverterRegistry register(Class<T> type, Converter<? extends T> converter) {
+        if (locked) throw new UnsupportedOperationException("The default registry cannot be changed, create a new registry instead");
+        converters.put(type, converter);
+        registered.add(type);
+        return this;
+    }
+
+    /**
+     * Find the converter for a type
+     * Primitives use the converter of their box and enums are converted by name unless a converter was registered for them.
+     *
+     * @param type the type to convert to
+     * @return the converter or null if there is none for this type
+     */
+    public Converter<?> find(Class<?> type) {
+        if (type.isPrimitive()) type = box(type);
+        Converter<?> converter = converters.get(type);
+        if (converter == null && type.isEnum()) converter = enumConverter(type);
+        return converter;
+    }
+
+    /**
+     * Get the plan of a nested class using this registry, it is only scanned the first time for every backend
+     * Plans of the {@link #defaults()} registry are the shared plans of {@link MigrationPlan#of(Class, AccessorBackend)}.
+     *
+     * @param type    the nested class
+     * @param backend the backend of the plan
+     * @param <T>     the type of the class
+     * @return the plan of the class
+     */
+    @SuppressWarnings("unchecked")
+    <T> MigrationPlan<T> plan(Class<T> type, AccessorBackend backend) {
+        if (this == DEFAULTS) return MigrationPlan.of(type, backend);
+        return (MigrationPlan<T>) plans.get(backend).computeIfAbsent(type, key -> MigrationPlan.of(key, backend, this));
+    }
+
+    /**
+     * Check if a type is converted by a built in converter, see {@link #canParse(Class, Object)}
+     *
+     * @param type the type to convert to
+     * @return true if no converter was registered for this type
+     */
+    boolean isBuiltIn(Class<?> type) {
+        if (type.isPrimitive()) type = box(type);
+        return !registered.contains(type) && (converters.containsKey(type) || type.isEnum());
+    }
+
+    /**
+     * Check cheaply if a built in converter will be able to convert a value, without throwing
+     * This is used to report bad values without the cost of an exception.
+     * It rules out values of the wrong kind, strings with the wrong characters and numbers which do not fit the type,
+     * so a value can still fail to convert, for example a string holding a number which is too large.
+     * Strings of UUIDs, dates and date times are checked for their shape, a day which does not exist in its month still fails.
+     * Instants, durations, big numbers and values of custom converters are not checked, bad values of those still throw.
+     *
+     * @param type  the boxed type to convert to
+     * @param value the value to convert, this cannot be null
+     * @return false if the value certainly cannot be converted
+     */
+    static boolean canParse(Class<?> type, Object value) {
+        if (type == Integer.class) return canParseWhole(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (type == Long.class) return canParseWhole(value, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (type == Short.class) return canParseWhole(value, Short.MIN_VALUE, Short.MAX_VALUE);
+        if (type == Byte.class) return canParseWhole(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        if (type == Float.class && value instanceof Number) return fitsFloat(((Number) value).doubleValue());
+        if (type == Double.class || type == Float.class)
+            return value instanceof Number || (value instanceof CharSequence && isDecimal(value.toString().trim()));
+        if (type == String.class) return isText(value);
+        if (type == Boolean.class) {
+            if (value instanceof Number) return true;
+            String string = value instanceof CharSequence ? value.toString().trim() : null;
+            return "true".equalsIgnoreCase(string) || "false".equalsIgnoreCase(string);
+        }
+        if (type.isEnum()) {
+            if (!(value instanceof CharSequence)) return false;
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().contentEquals((CharSequence) value)) return true;
+            }
+            return false;
+        }
+        if (type == UUID.class) return value instanceof CharSequence && isUuid(value.toString());
+        if (type == LocalDate.class) return value instanceof CharSequence && date(value.toString()) == value.toString().length();
+        if (type == LocalDateTime.class) return value instanceof CharSequence && isDateTime(value.toString());
+        return true;
+    }
+
+    /**
+     * Check if a string is five groups of hexadecimal digits like {@link UUID#fromString(String)} accepts
+     */
+    private static boolean isUuid(String string) {
+        int group = 0, length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '-') {
+                if (length == 0 || ++group > 4) return false;
+                length = 0;
+            } else if (Character.digit(c, 16) < 0 || ++length > (group == 0 ? 8 : group == 4 ? 12 : 4)) {
+                return false;
+            }
+        }
+        return group == 4 && length > 0;
+    }
+
+    /**
+     * Check the shape of an ISO date, the year has at least four digits and may have a sign
+     *
+     * @return the index after the date or -1 if the string does not start with a date
+     */
+    private static int date(String string) {
+        int start = string.startsWith("-") || string.startsWith("+") ? 1 : 0;
+        int dash = string.indexOf('-', start);
+        if (dash - start < 4 || !isDigits(string, start, dash)) return -1;
+        if (!isNumber(string, dash + 1, 1, 12) || !string.startsWith("-", dash + 3) || !isNumber(string, dash + 4, 1, 31)) return -1;
+        return dash + 6;
+    }
+
+    /**
+     * Check the shape of an ISO date and time, seconds and fractions of seconds are optional
+     */
+    private static boolean isDateTime(String string) {
+        int time = date(string);
+        if (time < 0 || !string.startsWith("T", time) || !isNumber(string, time + 1, 0, 23)
+                || !string.startsWith(":", time + 3) || !isNumber(string, time + 4, 0, 59)) return false;
+        int end = time + 6;
+        if (end == string.length()) return true;
+        if (!string.startsWith(":", end) || !isNumber(string, end + 1, 0, 59)) return false;
+        end += 3;
+        if (end == string.length()) return true;
+        if (string.charAt(end) != '.' || string.length() - end - 1 > 9) return false;
+        return end + 1 == string.length() || isDigits(string, end + 1, string.length());
+    }
+
+    /**
+     * Check if the two characters at an index are a number between min and max
+     */
+    private static boolean isNumber(String string, int index, int min, int max) {
+        if (index + 2 > string.length() || !isDigits(string, index, index + 2)) return false;
+        int number = Integer.parseInt(string.substring(index, index + 2));
+        return number >= min && number <= max;
+    }
+
+    private static boolean isDigits(String string, int start, int end) {
+        if (start >= end) return false;
+        for (int i = start; i < end; i++) {
+            if (string.charAt(i) < '0' || string.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean canParseWhole(Object value, long min, long max) {
+        if (value instanceof Number) return isWhole((Number) value, min, max);
+        return value instanceof CharSequence && isInteger(value.toString().trim());
+    }
+
+    private static boolean isInteger(String string) {
+        int start = string.startsWith("-") || string.startsWith("+") ? 1 : 0;
+        if (start == string.length()) return false;
+        for (int i = start; i < string.length(); i++) {
+            if (string.charAt(i) < '0' || string.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean isDecimal(String string) {
+        if (string.isEmpty()) return false;
+        if (string.endsWith("NaN") || string.endsWith("Infinity")) return true;
+        for (int i = 0; i < string.length(); i++) {
+            //Hexadecimal digits, exponents and type suffixes are all accepted by the parser
+            if (Character.digit(string.charAt(i), 16) < 0 && "+-.xXpP".indexOf(string.charAt(i)) < 0) return false;
+        }
+        return true;
+    }
+
+    private void registerDefaults() {
+        converters.put(Integer.class, value -> value instanceof Number ? (int) whole((Number) value, Integer.MIN_VALUE, Integer.MAX_VALUE) : Integer.valueOf(string(value).trim()));
+        converters.put(Long.class, value -> value instanceof Number ? whole((Number) value, Long.MIN_VALUE, Long.MAX_VALUE) : Long.valueOf(string(value).trim()));
+        converters.put(Short.class, value -> value instanceof Number ? (short) whole((Number) value, Short.MIN_VALUE, Short.MAX_VALUE) : Short.valueOf(string(value).trim()));
+        converters.put(Byte.class, value -> value instanceof Number ? (byte) whole((Number) value, Byte.MIN_VALUE, Byte.MAX_VALUE) : Byte.valueOf(string(value).trim()));
+        converters.put(Double.class, value -> value instanceof Number ? ((Number) value).doubleValue() : Double.valueOf(string(value).trim()));
+        converters.put(Float.class, ConverterRegistry::toFloat);
+        converters.put(Boolean.class, ConverterRegistry::toBoolean);
+        converters.put(Character.class, ConverterRegistry::toCharacter);
+        converters.put(String.class, ConverterRegistry::toText);
+        converters.put(UUID.class, value -> UUID.fromString(string(value)));
+        converters.put(Instant.class, ConverterRegistry::toInstant);
+        converters.put(LocalDate.class, value -> temporal(value, LocalDate::parse));
+        converters.put(LocalDateTime.class, value -> temporal(value, LocalDateTime::parse));
+        converters.put(Duration.class, value -> value instanceof Number ? Duration.ofMillis(((Number) value).longValue()) : temporal(value, Duration::parse));
+        converters.put(BigDecimal.class, value -> new BigDecimal(value.toString()));
+        converters.put(BigInteger.class, value -> value instanceof BigDecimal ? ((BigDecimal) value).toBigInteger() : new BigInteger(value.toString()));
+    }
+
+    /**
+     * Get a number as a long if it is a whole number between min and max
+     * Numbers are never rounded or wrapped, a number which does not fit is rejected.
+     *
+     * @throws IllegalArgumentException if the number is not whole or out of range
+     */
+    private static long whole(Number number, long min, long max) {
+        if (number instanceof BigDecimal || number instanceof BigInteger) {
+            try {
+                long value = new BigDecimal(number.toString()).longValueExact();
+                if (value >= min && value <= max) return value;
+            } catch (ArithmeticException e) {
+                //Fractional or too large for a long, rejected below
+            }
+        } else if (isWhole(number, min, max)) {
+            return isFloating(number) ? (long) number.doubleValue() : number.longValue();
+        }
+        throw new IllegalArgumentException(number + " is not a whole number between " + min + " and " + max);
+    }
+
+    /**
+     * Check if a number is a whole number between min and max, without throwing
+     * Big numbers and numbers of unknown types are assumed to fit, their converter checks them.
+     *
+     * @param number the number to check
+     * @param min    the smallest allowed value
+     * @param max    the largest allowed value
+     * @return false if the number certainly does not fit
+     */
+    private static boolean isWhole(Number number, long min, long max) {
+        if (isFloating(number)) {
+            double value = number.doubleValue();
+            //NaN is never equal to itself rounded, infinity is out of every range
+            return value == Math.rint(value) && value >= min && value < (double) max + 1;
+        }
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            long value = number.longValue();
+            return value >= min && value <= max;
+        }
+        return true;
+    }
+
+    private static boolean isFloating(Number number) {
+        return number instanceof Double || number instanceof Float;
+    }
+
+    private static Float toFloat(Object value) {
+        if (!(value instanceof Number)) return Float.valueOf(string(value).trim());
+        double number = ((Number) value).doubleValue();
+        if (!fitsFloat(number)) throw new IllegalArgumentException(value + " is out of the range of a float");
+        return (float) number;
+    }
+
+    /**
+     * Check if a number is in the range of a float, rounding is allowed but overflowing to infinity is not
+     */
+    private static boolean fitsFloat(double number) {
+        return Double.isInfinite(number) || !Float.isInfinite((float) number);
+    }
+
+    private static String toText(Object value) {
+        if (isText(value)) return value.toString();
+        throw new IllegalArgumentException("Cannot convert " + value.getClass().getName() + " to a string");
+    }
+
+    /**
+     * Only values with a natural text form are converted to strings, other objects are rejected
+     */
+    private static boolean isText(Object value) {
+        return value instanceof CharSequence || value instanceof Character || value instanceof Number || value instanceof Boolean;
+    }
+
+    private static Boolean toBoolean(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue() != 0;
+        String string = string(value).trim();
+        if (string.equalsIgnoreCase("true")) return Boolean.TRUE;
+        if (string.equalsIgnoreCase("false")) return Boolean.FALSE;
+        throw new IllegalArgumentException("\"" + string + "\" is not a boolean");
+    }
+
+    private static Character toCharacter(Object value) {
+        if (value instanceof Number) return (char) whole((Number) value, Character.MIN_VALUE, Character.MAX_VALUE);
+        String string = string(value);
+        if (string.length() != 1) throw new IllegalArgumentException("\"" + string + "\" is not a single character");
+        return string.charAt(0);
+    }
+
+    private static Instant toInstant(Object value) {
+        try {
+            if (value instanceof Number) return Instant.ofEpochMilli(((Number) value).longValue());
+            if (value instanceof Date) return ((Date) value).toInstant();
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IllegalArgumentException(value + " is out of the range of an instant", e);
+        }
+        return temporal(value, Instant::parse);
+    }
+
+    /**
+     * Parse a date, time or duration, a value which cannot be parsed is rejected like any other invalid value
+     *
+     * @throws IllegalArgumentException if the value is not a string or could not be parsed
+     */
+    private static <T> T temporal(Object value, Function<String, T> parser) {
+        String text = string(value);
+        try {
+            return parser.apply(text);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Cannot parse " + text, e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter<?> enumConverter(Class<?> type) {
+        Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+        return value -> Enum.valueOf(enumType, string(value));
+    }
+
+    /**
+     * Only strings are parsed, anything else is of a type this cannot convert
+     */
+    private static String string(Object value) {
+        if (value instanceof CharSequence) return value.toString();
+        throw new IllegalArgumentException("Cannot convert " + value.getClass().getName());
+    }
+
+    /**
+     * Get the box of a primitive type
+     *
+     * @param primitive the primitive type
+     * @return the box of the type
+     */
+    static Class<?> box(Class<?> primitive) {
+        if (primitive == boolean.class) return Boolean.class;
+        if (primitive == byte.class) return Byte.class;
+        if (primitive == char.class) return Character.class;
+        if (primitive == short.class) return Short.class;
+        if (primitive == int.class) return Integer.class;
+        if (primitive == long.class) return Long.class;
+        if (primitive == float.class) return Float.class;
+        if (primitive == double.class) return Double.class;
+        return Void.class;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies partial changes to objects which were already migrated.
+ * Only the fields whose keys are in the changes are looked at, so the cost of an update depends on the amount of changes
+ * and not on the amount of fields of the class. Fields which already hold an equal value are not written.
+ * <pre>{@code
+ * BitSet changed = DeltaMigrator.forClass(User.class).apply(user, changes);
+ * }</pre>
+ * The same conversions and aliases as migrating are used, a key with a null value is skipped and unknown keys are ignored.
+ * When the changes contain both the key of a field and one of its aliases, the value of the key is used.
+ * A delta migrator holds no state besides the plan, so it can be used from many threads at once.
+ *
+ * @param <T> the type of the updated objects
+ * @author Max Berkelmans
+ * @see TypedMigrator#migrateInto(Object, Map)
+ * @since 1.2.0
+ */
+public final class DeltaMigrator<T> {
+
+    private static final ClassValue<DeltaMigrator<?>> MIGRATORS = new ClassValue<DeltaMigrator<?>>() {
+        @Override
+        protected DeltaMigrator<?> computeValue(Class<?> type) {
+            return new DeltaMigrator<>(MigrationPlan.of(type, AccessorBackend.METHOD_HANDLE));
+        }
+    };
+
+    private final MigrationPlan<T> plan;
+    private final MigrationField[] fields;
+    private final KeyTable keys;
+
+    private DeltaMigrator(MigrationPlan<T> plan) {
+        this.plan = plan;
+        this.fields = plan.fields();
+        this.keys = plan.keys();
+    }
+
+    /**
+     * Get the shared delta migrator of a class
+     *
+     * @param clazz the class to update
+     * @param <T>   the type of the class
+     * @return the delta migrator of this class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DeltaMigrator<T> forClass(Class<T> clazz) {
+        return (DeltaMigrator<T>) MIGRATORS.get(clazz);
+    }
+
+    /**
+     * Create a delta migrator writing fields using the accessors of a plan
+     *
+     * @param plan the plan of the class to update
+     * @param <T>  the type of the class
+     * @return a new delta migrator
+     */
+    public static <T> DeltaMigrator<T> forPlan(MigrationPlan<T> plan) {
+        return new DeltaMigrator<>(plan);
+    }
+
+    /**
+     * Apply changes to an object
+     *
+     * @param target  the object to update
+     * @param changes the changed keys and their new values
+     * @return the indexes in the plan of the fields which changed
+     * @throws MigrationException if a field could not be read or set
+     */
+    public BitSet apply(T target, Map<String, Object> changes) {
+        BitSet changed = new BitSet(fields.length);
+        apply(target, changes, changed);
+        return changed;
+    }
+
+    /**
+     * Apply changes to an object, marking the fields which changed in a reusable mask
+     * The mask is not cleared first, so it can collect the changes of several updates.
+     *
+     * @param target  the object to update
+     * @param changes the changed keys and their new values
+     * @param changed the mask to set the index in the plan of every changed field in
+     * @return the amount of fields which changed
+     * @throws MigrationException if a field could not be read or set
+     */
+    public int apply(T target, Map<String, Object> changes, BitSet changed) {
+        if (plan.isAliased()) return applyAliased(target, changes, changed);
+
+        int count = 0;
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            if (entry.getValue() == null) continue;
+            int[] targets = keys.find(entry.getKey());
+            if (targets == null) continue; //Not one of our keys
+
+            for (int slot : targets) {
+                int index = slot >> 1;
+                if (!change(index, target, entry.getValue())) continue;
+                changed.set(index);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Apply changes to an object of a class with aliases or keys matched ignoring case
+     * The changes are scanned using the key table first, so when the changes contain both the key of a field
+     * and one of its aliases the value of the key is used whatever the order of the changes.
+     */
+    private int applyAliased(T target, Map<String, Object> changes, BitSet changed) {
+        Object[] values = keys.scan(changes, new byte[fields.length]);
+        int count = 0;
+        for (int index = 0; index < fields.length; index++) {
+            if (values[index] == null || !change(index, target, values[index])) continue;
+            changed.set(index);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Convert a changed value and update the field at an index
+     *
+     * @return true if the field was set
+     */
+    private boolean change(int index, Object target, Object value) {
+        MigrationField field = fields[index];
+        try {
+            return update(field, target, field.convert(value));
+        } catch (IllegalAccessException | IllegalArgumentException | ClassCastException e) {
+            throw new MigrationException("Could not update " + field.getField(), e);
+        }
+    }
+
+    /**
+     * Set a field if its value is not equal yet, primitive fields are compared and set without boxing
+     *
+     * @return true if the field was set
+     */
+    private static boolean update(MigrationField field, Object target, Object value) throws IllegalAccessException {
+        int kind = field.kind();
+        if (kind != MigrationField.OBJECT) {
+            long bits = MigrationField.bits(kind, value);
+            if (field.getPrimitive(target) == bits) return false;
+            field.setPrimitive(target, bits);
+            return true;
+        }
+        if (Objects.equals(field.get(target), value)) return false;
+        field.set(target, value);
+        return true;
+    }
+
+    /**
+     * Get the plan this delta migrator uses
+     *
+     * @return the plan of the class
+     */
+    public MigrationPlan<T> getPlan() {
+        return plan;
+    }
+}
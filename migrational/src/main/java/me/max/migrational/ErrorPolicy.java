@@ -0,0 +1,39 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+/**
+ * What to do with a record of which a field has a value that cannot be migrated, see {@link MigrationErrors}.
+ *
+ * @author Max Berkelmans
+ * @see BatchMigration#migrateAll(MigrationPlan, java.util.Collection, ErrorPolicy, MigrationErrors)
+ * @since 1.2.0
+ */
+public enum ErrorPolicy {
+
+    /**
+     * Leave the whole record out of the results
+     */
+    SKIP_RECORD,
+
+    /**
+     * Give the field its default value, or leave it unset if it has none, and migrate the rest of the record
+     */
+    USE_DEFAULT
+}
@@ -0,0 +1,166 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exports objects back into data, the reverse of a {@link TypedMigrator}.
+ * The same keys and {@link me.max.migrational.annotations.Exempt} rules are used, so exported data migrates back into an equal object.
+ * Fields are read through the accessors of the {@link MigrationPlan}, nothing is looked up while exporting.
+ * <pre>{@code
+ * Map<String, Object> data = Exporter.forClass(User.class).toMap(user);
+ * }</pre>
+ * An exporter holds no state besides the plan, so it can be used from many threads at once.
+ *
+ * @param <T> the type of the exported objects
+ * @author Max Berkelmans
+ * @see BatchMigration#exportAll(Exporter, Collection)
+ * @since 1.2.0
+ */
+public final class Exporter<T> {
+
+    private static final ClassValue<Exporter<?>> EXPORTERS = new ClassValue<Exporter<?>>() {
+        @Override
+        protected Exporter<?> computeValue(Class<?> type) {
+            return new Exporter<>(MigrationPlan.of(type, AccessorBackend.METHOD_HANDLE));
+        }
+    };
+
+    private final MigrationPlan<T> plan;
+    private final MigrationField[] fields;
+    private final int capacity;
+
+    private Exporter(MigrationPlan<T> plan) {
+        this.plan = plan;
+        this.fields = plan.fields();
+        this.capacity = (int) (fields.length / 0.75f) + 1;
+    }
+
+    /**
+     * Get the shared exporter of a class
+     *
+     * @param clazz the class to export
+     * @param <T>   the type of the class
+     * @return the exporter of this class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Exporter<T> forClass(Class<T> clazz) {
+        return (Exporter<T>) EXPORTERS.get(clazz);
+    }
+
+    /**
+     * Create an exporter reading fields using the accessors of a plan
+     *
+     * @param plan the plan of the class to export
+     * @param <T>  the type of the class
+     * @return a new exporter
+     */
+    public static <T> Exporter<T> forPlan(MigrationPlan<T> plan) {
+        return new Exporter<>(plan);
+    }
+
+    /**
+     * Export an object into a new map holding the value of every migratable field by its key, including null values
+     *
+     * @param object the object to export
+     * @return the data of the object
+     * @throws MigrationException if a field could not be read
+     */
+    public Map<String, Object> toMap(T object) {
+        Map<String, Object> data = new HashMap<>(capacity);
+        for (MigrationField field : fields) data.put(field.getKey(), get(field, object));
+        return data;
+    }
+
+    /**
+     * Export an object into a record of the schema of its plan, primitive fields are read without boxing
+     *
+     * @param object the object to export
+     * @return the record of the object
+     * @throws MigrationException if a field could not be read
+     */
+    public MigrationRecord toRecord(T object) {
+        byte[] states = new byte[fields.length];
+        Object[] values = new Object[fields.length];
+        long[] primitives = new long[fields.length];
+        for (int slot = 0; slot < fields.length; slot++) {
+            MigrationField field = fields[slot];
+            if (field.kind() == MigrationField.OBJECT) {
+                states[slot] = MigrationRecord.OBJECT;
+                values[slot] = get(field, object);
+                continue;
+            }
+            states[slot] = MigrationRecord.PRIMITIVE;
+            try {
+                primitives[slot] = field.getPrimitive(object);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new MigrationException("Could not get " + field.getField(), e);
+            }
+        }
+        return new MigrationRecord(plan.getSchema(), states, values, primitives);
+    }
+
+    /**
+     * Export all objects on the calling thread, see {@link BatchMigration#exportAll(Exporter, Collection)} to export in parallel
+     *
+     * @param objects the objects to export
+     * @return the data of the objects in the same order
+     * @throws MigrationException if a field could not be read
+     */
+    public List<Map<String, Object>> exportAll(Collection<? extends T> objects) {
+        List<Map<String, Object>> data = new ArrayList<>(objects.size());
+        for (T object : objects) data.add(toMap(object));
+        return data;
+    }
+
+    /**
+     * Export a stream lazily, closing the returned stream closes the source
+     *
+     * @param objects the objects to export
+     * @return a lazy stream of the data of the objects, it is parallel if the source is parallel
+     */
+    public Stream<Map<String, Object>> export(Stream<? extends T> objects) {
+        return objects.map(this::toMap);
+    }
+
+    /**
+     * Get the plan this exporter reads fields with
+     *
+     * @return the plan
+     */
+    public MigrationPlan<T> getPlan() {
+        return plan;
+    }
+
+    private static Object get(MigrationField field, Object object) {
+        try {
+            return field.get(object);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new MigrationException("Could not get " + field.getField(), e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+/**
+ * Writes a value into and reads a value from one field of an object.
+ * An accessor is created once per field when its {@link MigrationPlan} is built.
+ * The primitive setters and getters may only be used for fields of that exact primitive type.
+ *
+ * @author Max Berkelmans
+ * @see AccessorBackend
+ * @since 1.2.0
+ */
+interface FieldAccessor {
+
+    /**
+     * Set the field on an object
+     *
+     * @param target the object to set the field on
+     * @param value  the value to set
+     * @throws IllegalAccessException   if the field cannot be accessed
+     * @throws IllegalArgumentException if the value is not of the type of the field
+     */
+    void set(Object target, Object value) throws IllegalAccessException;
+
+    /**
+     * Set an int field without boxing
+     *
+     * @param target the object to set the field on
+     * @param value  the value to set
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    void setInt(Object target, int value) throws IllegalAccessException;
+
+    /**
+     * Set a long field without boxing
+     *
+     * @param target the object to set the field on
+     * @param value  the value to set
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    void setLong(Object target, long value) throws IllegalAccessException;
+
+    /**
+     * Set a boolean field without boxing
+     *
+     * @param target the object to set the field on
+     * @param value  the value to set
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    void setBoolean(Object target, boolean value) throws IllegalAccessException;
+
+    /**
+     * Set a double field without boxing
+     *
+     * @param target the object to set the field on
+     * @param value  the value to set
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    void setDouble(Object target, double value) throws IllegalAccessException;
+
+    /**
+     * Get the value of the field of an object
+     *
+     * @param target the object to get the field of
+     * @return the value, primitive values are boxed
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    Object get(Object target) throws IllegalAccessException;
+
+    /**
+     * Get an int field without boxing
+     *
+     * @param target the object to get the field of
+     * @return the value
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    int getInt(Object target) throws IllegalAccessException;
+
+    /**
+     * Get a long field without boxing
+     *
+     * @param target the object to get the field of
+     * @return the value
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    long getLong(Object target) throws IllegalAccessException;
+
+    /**
+     * Get a boolean field without boxing
+     *
+     * @param target the object to get the field of
+     * @return the value
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    boolean getBoolean(Object target) throws IllegalAccessException;
+
+    /**
+     * Get a double field without boxing
+     *
+     * @param target the object to get the field of
+     * @return the value
+     * @throws IllegalAccessException if the field cannot be accessed
+     */
+    double getDouble(Object target) throws IllegalAccessException;
+}
@@ -0,0 +1,170 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.Map;
+
+/**
+ * The base class of the migrators generated at runtime.
+ * A generated migrator creates the instance and sets every field it can reach directly in straight-line bytecode,
+ * fields which it cannot reach, like private fields, are set through the accessors of the {@link MigrationPlan}.
+ * Only public non-final fields of public classes are stored directly, so for a class with private fields
+ * the generated code only saves the loop over the plan and every field is still written through a method handle.
+ * This class is public only so generated classes are able to extend it, it is not meant to be extended by hand.
+ *
+ * @param <T> the type of the class this migrates to
+ * @author Max Berkelmans
+ * @see #of(Class)
+ * @since 1.2.0
+ */
+public abstract class GeneratedMigrator<T> implements TypedMigrator<T> {
+
+    private static final ClassValue<TypedMigrator<?>> MIGRATORS = new ClassValue<TypedMigrator<?>>() {
+        @Override
+        protected TypedMigrator<?> computeValue(Class<?> type) {
+            //Errors in the class itself, like an invalid default value, are not something to fall back from
+            MigrationPlan<?> plan = MigrationPlan.of(type, AccessorBackend.METHOD_HANDLE);
+            //Instances made by a creator cannot be created in straight-line bytecode and aliases need the key table
+            if (plan.creator() != null || plan.isAliased()) return new PlanMigrator<>(plan);
+            try {
+                return MigratorGenerator.generate(plan);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                //The class could not be generated or loaded, use the plan directly instead.
+                return new PlanMigrator<>(plan);
+            }
+        }
+    };
+
+    private final MigrationPlan<T> plan;
+    private final MigrationField[] fields;
+    private final Instantiator<T> instantiator;
+
+    /**
+     * @param plan the plan of the class this migrates to
+     */
+    protected GeneratedMigrator(MigrationPlan<T> plan) {
+        this.plan = plan;
+        this.fields = plan.fields();
+        this.instantiator = plan.getConstructor() == null ? null : plan.instantiator(plan.getConstructor());
+    }
+
+    /**
+     * Get the generated migrator of a class, the class is only generated the first time this is called for it.
+     * If no class can be generated, for example because the class loader of the class cannot see this library,
+     * a migrator using the {@link AccessorBackend#METHOD_HANDLE} plan of the class is returned instead.
+     * Errors building that plan are not fallen back from, they are thrown like they are by {@link MigrationPlan#of(Class)}.
+     *
+     * @param clazz the class to migrate to
+     * @param <T>   the type of the class
+     * @return the shared migrator of this class
+     * @throws me.max.migrational.exceptions.InvalidDefaultValueException if a default value cannot be parsed
+     * @throws me.max.migrational.exceptions.InvalidConstructorException  if an annotated creator cannot be used
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TypedMigrator<T> of(Class<T> clazz) {
+        return (TypedMigrator<T>) MIGRATORS.get(clazz);
+    }
+
+    /**
+     * Migrates using the generated code, a value which is not of the type of a field it is stored to directly
+     * fails as a {@link MigrationException} like it does for fields set through the accessors of the plan.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public final T migrate(Map<String, Object> data) {
+        try {
+            return (T) migrateFields(data);
+        } catch (ClassCastException e) {
+            throw failure(data, e);
+        }
+    }
+
+    /**
+     * Create the instance and set every field which has a value in the data, this is the generated code
+     *
+     * @param data the data to migrate
+     * @return the migrated object
+     * @throws ClassCastException if a value is not of the type of the field it is stored to directly
+     */
+    protected abstract Object migrateFields(Map<String, Object> data);
+
+    /**
+     * Find the field whose value could not be stored, this is only done after migrating failed
+     */
+    private MigrationException failure(Map<String, Object> data, ClassCastException e) {
+        for (MigrationField field : fields) {
+            Object value = field.resolve(data);
+            Class<?> type = field.getField().getType();
+            if (value != null && !(type.isPrimitive() ? ConverterRegistry.box(type) : type).isInstance(value))
+                return new MigrationException("Could not set " + field.getField(), e);
+        }
+        return new MigrationException("Could not migrate to " + plan.getType().getName(), e);
+    }
+
+    /**
+     * Existing instances are migrated into using the accessors of the plan
+     */
+    @Override
+    public T migrateInto(T target, Map<String, Object> data) {
+        return PlanMigrator.migrateInto(plan, target, data);
+    }
+
+    /**
+     * Records are migrated by slot using the accessors of the plan
+     */
+    @Override
+    public T migrate(MigrationRecord record) {
+        return PlanMigrator.migrate(plan, instantiator, record);
+    }
+
+    /**
+     * Create a new instance using the constructor of the plan
+     * This is used when the constructor cannot be called directly.
+     *
+     * @return the new instance
+     */
+    protected final Object instantiate() {
+        return PlanMigrator.newInstance(plan, instantiator);
+    }
+
+    /**
+     * Get the value of a field from the data, see {@link MigrationField}
+     *
+     * @param data  the data to get the value from
+     * @param index the index of the field in the plan
+     * @return the value to migrate or null if there is nothing to migrate
+     */
+    protected final Object value(Map<String, Object> data, int index) {
+        return fields[index].resolve(data);
+    }
+
+    /**
+     * Set a field using the accessor of the plan
+     * This is used for fields which cannot be set directly.
+     *
+     * @param index  the index of the field in the plan
+     * @param target the object to set the field on
+     * @param value  the value to set
+     */
+    protected final void set(int index, Object target, Object value) {
+        PlanMigrator.set(fields[index], target, value);
+    }
+}
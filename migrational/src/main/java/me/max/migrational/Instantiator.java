@@ -0,0 +1,43 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Creates new instances of a class.
+ * An instantiator is created once per constructor when its {@link MigrationPlan} is built.
+ *
+ * @param <T> the type of the instances
+ * @author Max Berkelmans
+ * @see AccessorBackend
+ * @since 1.2.0
+ */
+interface Instantiator<T> {
+
+    /**
+     * Create a new instance
+     *
+     * @return the new instance
+     * @throws IllegalAccessException    if the constructor cannot be accessed
+     * @throws InvocationTargetException if the constructor threw an exception
+     * @throws InstantiationException    if the class cannot be instantiated
+     */
+    T newInstance() throws IllegalAccessException, InvocationTargetException, InstantiationException;
+}
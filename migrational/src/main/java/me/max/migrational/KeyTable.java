@@ -0,0 +1,271 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the fields of a key, including the aliases of fields and keys matched ignoring case.
+ * The table is built once per {@link MigrationPlan} and is a minimal perfect hash over every key and alias:
+ * keys are spread over buckets and every bucket gets the seed which puts its keys in free slots,
+ * so a lookup is one hash, one slot and one equals check.
+ * Should no seed be found for a bucket, which is very unlikely, the keys are kept in a {@link HashMap} instead.
+ * <p>
+ * This lets data with aliased keys be migrated with one scan over its entries
+ * instead of looking up every alias of every field.
+ *
+ * @author Max Berkelmans
+ * @see me.max.migrational.annotations.Migratable#aliases()
+ * @since 1.2.0
+ */
+final class KeyTable {
+
+    //Average amount of keys per bucket, more keys per bucket make the seeds harder to find
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final int MAX_SEED = 1 << 20;
+
+    private final PerfectHash exact;
+    private final PerfectHash folded;
+
+    /**
+     * @param fields the migratable fields of the class
+     */
+    KeyTable(MigrationField[] fields) {
+        this(fields, MAX_SEED);
+    }
+
+    /**
+     * @param fields  the migratable fields of the class
+     * @param maxSeed the seed at which to stop looking for a perfect hash and use a hash map instead
+     */
+    KeyTable(MigrationField[] fields, int maxSeed) {
+        Map<String, List<Integer>> exact = new LinkedHashMap<>();
+        Map<String, List<Integer>> folded = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i++) {
+            MigrationField field = fields[i];
+            //Targets are stored as the index of the field shifted left, the lowest bit is set for the key of the field itself
+            add(exact, field.getKey(), i << 1 | 1);
+            for (String alias : field.aliases()) add(exact, alias, i << 1);
+            if (!field.isIgnoreCase()) continue;
+            add(folded, fold(field.getKey()), i << 1 | 1);
+            for (String alias : field.aliases()) add(folded, fold(alias), i << 1);
+        }
+        //A key matches the fields ignoring case as well, even when it also is the exact key of another field
+        for (Map.Entry<String, List<Integer>> entry : exact.entrySet()) {
+            List<Integer> targets = folded.get(fold(entry.getKey()));
+            if (targets == null) continue;
+            for (int target : targets) add(exact, entry.getKey(), target);
+        }
+        this.exact = new PerfectHash(exact, maxSeed);
+        this.folded = folded.isEmpty() ? null : new PerfectHash(folded, maxSeed);
+    }
+
+    private static void add(Map<String, List<Integer>> keys, String key, int target) {
+        List<Integer> targets = keys.computeIfAbsent(key, k -> new ArrayList<>(1));
+        //A field matching the same key twice is only a target once, as its own key if it is
+        for (int i = 0; i < targets.size(); i++) {
+            if (targets.get(i) >> 1 == target >> 1) {
+                targets.set(i, targets.get(i) | target);
+                return;
+            }
+        }
+        targets.add(target);
+    }
+
+    /**
+     * Fold the case of a key the way keys matched ignoring case are compared
+     *
+     * @param key the key
+     * @return the folded key
+     */
+    static String fold(String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Find the fields of a key
+     * A key which is found exactly already holds the fields matching it ignoring case, so the folded key is only looked up when it is not.
+     *
+     * @param key the key in the data
+     * @return the targets, the index of the field shifted left by one with the lowest bit set if it is the key of the field itself,
+     * or null if no field has this key
+     */
+    int[] find(String key) {
+        int[] targets = exact.find(key);
+        if (targets != null || folded == null) return targets;
+        return folded.find(fold(key));
+    }
+
+    /**
+     * Resolve the values of every field with one scan over the entries of the data, see {@link MigrationField#resolve(Map)}
+     * When the data contains both the key of a field and one of its aliases the value of the key is used,
+     * between aliases the first entry of the data wins.
+     *
+     * @param fields  the migratable fields of the class
+     * @param data    the data to resolve the values from
+     * @param present the array to mark the fields found in the data in, or null
+     * @return the value of every field, null if there is nothing to migrate
+     * @throws IllegalArgumentException if a value could not be converted
+     */
+    Object[] resolve(MigrationField[] fields, Map<String, Object> data, boolean[] present) {
+        //0 when not found, 1 when found by an alias and 2 when found by the key of the field
+        byte[] found = new byte[fields.length];
+        Object[] values = scan(data, found);
+
+        for (int i = 0; i < fields.length; i++) {
+            if (found[i] == 0) {
+                values[i] = fields[i].getDefaultValue();
+                continue;
+            }
+            if (present != null) present[i] = true;
+            if (values[i] != null) values[i] = fields[i].convert(values[i]);
+        }
+        return values;
+    }
+
+    /**
+     * Get the unconverted value of every field with one scan over the entries of the data
+     *
+     * @param data  the data to get the values from
+     * @param found the array to mark every field found in the data in, with 1 if it was found by an alias or 2 if it was found by its key
+     * @return the value of every field, null if the field was not found or its value is null
+     */
+    Object[] scan(Map<String, Object> data, byte[] found) {
+        Object[] values = new Object[found.length];
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (entry.getKey() == null) continue;
+            int[] targets = find(entry.getKey());
+            if (targets == null) continue;
+            for (int target : targets) {
+                int index = target >> 1;
+                byte rank = (byte) (1 + (target & 1));
+                if (found[index] >= rank) continue;
+                found[index] = rank;
+                values[index] = entry.getValue();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Check if the keys are looked up in a hash map because no perfect hash was found
+     */
+    boolean isFallback() {
+        return exact.fallback != null || (folded != null && folded.fallback != null);
+    }
+
+    /**
+     * A minimal perfect hash from strings to targets, built using hash and displace
+     */
+    private static final class PerfectHash {
+
+        private final int[] seeds;
+        private final String[] keys;
+        private final int[][] targets;
+        //The targets of every key when no perfect hash was found, otherwise null
+        private final Map<String, int[]> fallback;
+
+        PerfectHash(Map<String, List<Integer>> entries, int maxSeed) {
+            int size = entries.size();
+            String[] keys = entries.keySet().toArray(new String[0]);
+            int buckets = Math.max(1, size / KEYS_PER_BUCKET);
+            this.seeds = new int[buckets];
+            this.keys = new String[size];
+            this.targets = new int[size][];
+
+            //Place the largest buckets first while most slots are still free
+            List<List<String>> byBucket = new ArrayList<>(buckets);
+            for (int i = 0; i < buckets; i++) byBucket.add(new ArrayList<>());
+            for (String key : keys) byBucket.get(Math.floorMod(bucket(key), buckets)).add(key);
+            Integer[] order = new Integer[buckets];
+            for (int i = 0; i < buckets; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> byBucket.get(b).size() - byBucket.get(a).size());
+
+            int[] slots = new int[KEYS_PER_BUCKET * 4];
+            for (int bucket : order) {
+                List<String> bucketKeys = byBucket.get(bucket);
+                if (bucketKeys.isEmpty()) break;
+                if (slots.length < bucketKeys.size()) slots = new int[bucketKeys.size()];
+                int seed = 1;
+                while (!fits(bucketKeys, seed, size, slots)) {
+                    if (++seed >= maxSeed) {
+                        this.fallback = new HashMap<>();
+                        for (Map.Entry<String, List<Integer>> entry : entries.entrySet())
+                            fallback.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+                        return;
+                    }
+                }
+                seeds[bucket] = seed;
+                for (int i = 0; i < bucketKeys.size(); i++) {
+                    String key = bucketKeys.get(i);
+                    this.keys[slots[i]] = key;
+                    this.targets[slots[i]] = entries.get(key).stream().mapToInt(Integer::intValue).toArray();
+                }
+            }
+            this.fallback = null;
+        }
+
+        /**
+         * Check if every key of a bucket lands on a different free slot using a seed
+         */
+        private boolean fits(List<String> bucketKeys, int seed, int size, int[] slots) {
+            for (int i = 0; i < bucketKeys.size(); i++) {
+                int slot = Math.floorMod(slot(bucketKeys.get(i), seed), size);
+                if (keys[slot] != null) return false;
+                for (int j = 0; j < i; j++) {
+                    if (slots[j] == slot) return false;
+                }
+                slots[i] = slot;
+            }
+            return true;
+        }
+
+        int[] find(String key) {
+            if (fallback != null) return fallback.get(key);
+            if (keys.length == 0) return null;
+            int seed = seeds[Math.floorMod(bucket(key), seeds.length)];
+            int slot = Math.floorMod(slot(key, seed), keys.length);
+            return key.equals(keys[slot]) ? targets[slot] : null;
+        }
+
+        /**
+         * Spread the cached hash code of a string
+         */
+        private static int bucket(String key) {
+            int hash = key.hashCode() * 0x9e3779b9;
+            return hash ^ hash >>> 16;
+        }
+
+        /**
+         * Hash the characters of a string starting from a seed
+         * The characters are hashed instead of the hash code so strings with equal hash codes can be told apart.
+         */
+        private static int slot(String key, int seed) {
+            int hash = seed * 0x9e3779b9;
+            for (int i = 0; i < key.length(); i++) hash = (hash ^ key.charAt(i)) * 0x01000193;
+            return hash ^ hash >>> 15;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A {@link FieldAccessor} using {@link MethodHandle} setters and getters.
+ * Primitive fields get an extra setter and getter of their exact type so they are accessed without boxing.
+ * The handles of static fields ignore the target, like {@link Field#set(Object, Object)} does.
+ *
+ * @author Max Berkelmans
+ * @see AccessorBackend#METHOD_HANDLE
+ * @since 1.2.0
+ */
+final class MethodHandleFieldAccessor implements FieldAccessor {
+
+    private final Field field;
+    private final MethodHandle setter;
+    private final MethodHandle primitiveSetter;
+    private final MethodHandle getter;
+    private final MethodHandle primitiveGetter;
+
+    /**
+     * @param field the field, this should already be accessible
+     * @throws IllegalAccessException if no setter or getter can be created, for example for final fields
+     */
+    MethodHandleFieldAccessor(Field field) throws IllegalAccessException {
+        this.field = field;
+        MethodHandle handle = receiver(field, MethodHandles.lookup().unreflectSetter(field));
+        this.setter = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        this.primitiveSetter = field.getType().isPrimitive() ? handle.asType(MethodType.methodType(void.class, Object.class, field.getType())) : null;
+
+        MethodHandle getHandle = receiver(field, MethodHandles.lookup().unreflectGetter(field));
+        this.getter = getHandle.asType(MethodType.methodType(Object.class, Object.class));
+        this.primitiveGetter = field.getType().isPrimitive() ? getHandle.asType(MethodType.methodType(field.getType(), Object.class)) : null;
+    }
+
+    /**
+     * Give the handle of a static field a target parameter which is ignored
+     */
+    private static MethodHandle receiver(Field field, MethodHandle handle) {
+        if (!Modifier.isStatic(field.getModifiers())) return handle;
+        return MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+
+    @Override
+    public void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (ClassCastException e) {
+            //Keep the same contract as Field#set
+            throw new IllegalArgumentException("Can not set " + field + " to " + value.getClass().getName(), e);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public void setInt(Object target, int value) {
+        try {
+            primitiveSetter.invokeExact(target, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public void setLong(Object target, long value) {
+        try {
+            primitiveSetter.invokeExact(target, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public void setBoolean(Object target, boolean value) {
+        try {
+            primitiveSetter.invokeExact(target, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public void setDouble(Object target, double value) {
+        try {
+            primitiveSetter.invokeExact(target, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public int getInt(Object target) {
+        try {
+            return (int) primitiveGetter.invokeExact(target);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public long getLong(Object target) {
+        try {
+            return (long) primitiveGetter.invokeExact(target);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(Object target) {
+        try {
+            return (boolean) primitiveGetter.invokeExact(target);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @Override
+    public double getDouble(Object target) {
+        try {
+            return (double) primitiveGetter.invokeExact(target);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * A setter or getter handle cannot throw checked exceptions, so anything thrown is unchecked
+     */
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.Arrays;
+
+/**
+ * A compact buffer of the problems found while migrating many records, without exceptions or stack traces.
+ * Every error holds the index of the record, the field and the reason, stored in parallel arrays which grow as needed.
+ * <pre>{@code
+ * MigrationErrors errors = new MigrationErrors();
+ * List<User> users = BatchMigration.migrateAll(plan, data, ErrorPolicy.SKIP_RECORD, errors);
+ * for (int i = 0; i < errors.size(); i++) log(errors.getRecord(i), errors.getKey(i), errors.getReason(i));
+ * }</pre>
+ * A buffer is not thread safe, use one buffer per thread.
+ *
+ * @author Max Berkelmans
+ * @see ErrorPolicy
+ * @since 1.2.0
+ */
+public final class MigrationErrors {
+
+    private static final Reason[] REASONS = Reason.values();
+
+    private int[] records = new int[16];
+    private MigrationField[] fields = new MigrationField[16];
+    private byte[] reasons = new byte[16];
+    private int size;
+
+    /**
+     * Record an error
+     *
+     * @param record the index of the record
+     * @param field  the field or null if the error is not about one field
+     * @param reason the reason
+     */
+    void add(int record, MigrationField field, Reason reason) {
+        if (size == records.length) {
+            records = Arrays.copyOf(records, size * 2);
+            fields = Arrays.copyOf(fields, size * 2);
+            reasons = Arrays.copyOf(reasons, size * 2);
+        }
+        records[size] = record;
+        fields[size] = field;
+        reasons[size] = (byte) reason.ordinal();
+        size++;
+    }
+
+    /**
+     * Get the amount of errors
+     *
+     * @return the amount of errors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if there are no errors
+     *
+     * @return true if there are no errors
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the index of the record of an error, in the order the records were given
+     *
+     * @param index the index of the error
+     * @return the index of the record
+     */
+    public int getRecord(int index) {
+        checkIndex(index);
+        return records[index];
+    }
+
+    /**
+     * Get the field of an error
+     *
+     * @param index the index of the error
+     * @return the field or null if the error is not about one field
+     */
+    public MigrationField getField(int index) {
+        checkIndex(index);
+        return fields[index];
+    }
+
+    /**
+     * Get the key of the field of an error
+     *
+     * @param index the index of the error
+     * @return the key or null if the error is not about one field
+     */
+    public String getKey(int index) {
+        MigrationField field = getField(index);
+        return field == null ? null : field.getKey();
+    }
+
+    /**
+     * Get the reason of an error
+     *
+     * @param index the index of the error
+     * @return the reason
+     */
+    public Reason getReason(int index) {
+        checkIndex(index);
+        return REASONS[reasons[index]];
+    }
+
+    /**
+     * Remove every error so the buffer can be reused
+     */
+    public void clear() {
+        Arrays.fill(fields, 0, size, null);
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(size).append(" errors");
+        for (int i = 0; i < size; i++) {
+            builder.append("\nrecord ").append(records[i]).append(": ").append(REASONS[reasons[i]]);
+            if (fields[i] != null) builder.append(" of ").append(fields[i].getKey());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Why a record could not be migrated
+     */
+    public enum Reason {
+
+        /**
+         * The value of the field cannot be converted to the type of the field
+         */
+        CONVERSION,
+
+        /**
+         * The field could not be set
+         */
+        ACCESS,
+
+        /**
+         * The instance could not be created
+         */
+        INSTANTIATION
+    }
+}
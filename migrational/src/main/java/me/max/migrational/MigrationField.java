@@ -0,0 +1,426 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.annotations.Migratable;
+import me.max.migrational.exceptions.InvalidDefaultValueException;
+
+import java.lang.reflect.Field;
+import java.time.DateTimeException;
+import java.util.Map;
+
+/**
+ * The resolved migration metadata of one migratable field.
+ * The key and default value are read from the {@link Migratable} annotation once,
+ * so migrating does not need to look at annotations anymore.
+ * <p>
+ * The default value is parsed into the type of the field and the {@link Converter} of the field is looked up once.
+ * Values of int, long, boolean and double fields are set using the primitive setters of the accessor.
+ * Fields holding other migratable classes, directly or in a collection, map or array, migrate nested data maps.
+ *
+ * @author Max Berkelmans
+ * @see MigrationPlan
+ * @since 1.2.0
+ */
+public final class MigrationField {
+
+    static final int OBJECT = 0, INT = 1, LONG = 2, BOOLEAN = 3, DOUBLE = 4;
+
+    private final Field field;
+    private final FieldAccessor accessor;
+    private final String key;
+    private final String[] aliases;
+    private final boolean ignoreCase;
+    private final Class<?> valueType;
+    private final Converter<?> converter;
+    private final boolean container;
+    private final boolean builtIn;
+    private final String defaultText;
+    private final Object defaultValue;
+    private final int kind;
+
+    /**
+     * @param field      the field to migrate, this should already be accessible
+     * @param migratable the annotation of the field or of its class
+     * @param backend    the backend used to write the field
+     * @param converters the registry to find the converter of the field in
+     * @throws InvalidDefaultValueException if the default value cannot be parsed into the type of the field
+     */
+    MigrationField(Field field, Migratable migratable, AccessorBackend backend, ConverterRegistry converters) {
+        //Get the correct key if no key is given in the annotation use field name.
+        this(field, migratable.key().isEmpty() ? field.getName() : migratable.key(), migratable.aliases(), migratable.ignoreCase(),
+                migratable.defaultValue().isEmpty() ? null : migratable.defaultValue(), backend, converters);
+    }
+
+    /**
+     * @param field       the field to migrate, this should already be accessible
+     * @param key         the key of the field in the data
+     * @param aliases     the other keys of the field in the data
+     * @param ignoreCase  true if the keys of the field match keys in the data ignoring case
+     * @param defaultText the unparsed default value or null if there is none
+     * @param backend     the backend used to write the field
+     * @param converters  the registry to find the converter of the field in
+     * @throws InvalidDefaultValueException if the default value cannot be parsed into the type of the field
+     */
+    MigrationField(Field field, String key, String[] aliases, boolean ignoreCase, String defaultText, AccessorBackend backend, ConverterRegistry converters) {
+        this(field, key, aliases, ignoreCase, defaultText, backend, backend.accessor(field), converters);
+    }
+
+    /**
+     * @param field       the field to migrate, this should already be accessible
+     * @param key         the key of the field in the data
+     * @param aliases     the other keys of the field in the data
+     * @param ignoreCase  true if the keys of the field match keys in the data ignoring case
+     * @param defaultText the unparsed default value or null if there is none
+     * @param backend     the backend of the plan, nested migratable classes are migrated using it as well
+     * @param accessor    the accessor which writes the field
+     * @param converters  the registry to find the converter of the field in
+     * @throws InvalidDefaultValueException if the default value cannot be parsed into the type of the field
+     */
+    MigrationField(Field field, String key, String[] aliases, boolean ignoreCase, String defaultText, AccessorBackend backend, FieldAccessor accessor, ConverterRegistry converters) {
+        this.field = field;
+        this.accessor = accessor;
+        this.key = key;
+        this.aliases = aliases.clone();
+        this.ignoreCase = ignoreCase;
+
+        Class<?> type = field.getType();
+        this.valueType = type.isPrimitive() ? ConverterRegistry.box(type) : type;
+        Converter<?> converter = converters.find(type);
+        this.converter = converter != null ? converter : NestedConverters.find(field.getGenericType(), backend, converters);
+        //Containers of migratable classes are converted even if the container already is of the field type
+        this.container = NestedConverters.isContainer(this.converter);
+        this.builtIn = converter != null && converters.isBuiltIn(type);
+        this.kind = type == int.class ? INT : type == long.class ? LONG : type == boolean.class ? BOOLEAN : type == double.class ? DOUBLE : OBJECT;
+        this.defaultText = defaultText;
+        this.defaultValue = defaultText == null ? null : parseDefault(defaultText);
+    }
+
+    /**
+     * Parse the default value into the type of the field
+     */
+    private Object parseDefault(String value) {
+        if (valueType.isInstance(value)) return value;
+        if (converter == null)
+            throw new InvalidDefaultValueException("No converter found to parse the default value of " + field + " into " + valueType.getName(), field, null);
+        try {
+            return converter.convert(value);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidDefaultValueException("The default value \"" + value + "\" of " + field + " cannot be parsed into " + valueType.getName(), field, e);
+        }
+    }
+
+    /**
+     * Get the value of this field from the data
+     * If the data does not contain the key the default value will be used, aliases are not looked at, see {@link KeyTable}.
+     * The data will only be looked up once unless the value is null.
+     * Values which are not of the type of the field are converted.
+     *
+     * @param data the data to get the value from
+     * @return the value to migrate or null if there is nothing to migrate
+     * @throws IllegalArgumentException if the value could not be converted
+     */
+    Object resolve(Map<String, Object> data) {
+        Object value = data.get(key);
+        if (value != null) return convert(value);
+        if (data.containsKey(key)) return null;
+        return defaultValue;
+    }
+
+    /**
+     * Get the value of this field from a record, see {@link #resolve(Map)}
+     * Primitive values in the record are not returned, they are set using {@link #setPrimitive(Object, long)}.
+     *
+     * @param record the record to get the value from
+     * @param slot   the slot of this field in the record
+     * @return the value to migrate or null if there is nothing to migrate
+     * @throws IllegalArgumentException if the value could not be converted
+     */
+    Object resolve(MigrationRecord record, int slot) {
+        switch (record.state(slot)) {
+            case MigrationRecord.UNSET:
+                return defaultValue;
+            case MigrationRecord.OBJECT:
+                Object value = record.value(slot);
+                return value == null ? null : convert(value);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Convert a value to the type of the field if it is not of that type yet
+     *
+     * @param value the value to convert, this cannot be null
+     * @return the converted value or the value itself if it did not need converting or there is no converter
+     * @throws IllegalArgumentException if the value could not be converted
+     */
+    Object convert(Object value) {
+        if (converter == null || (!container && valueType.isInstance(value))) return value;
+        return converter.convert(value);
+    }
+
+    /**
+     * Check cheaply if a value can be converted to the type of the field, without throwing
+     * Values converted by custom converters are assumed to be convertible.
+     *
+     * @param value the value to check, this cannot be null
+     * @return false if the value certainly cannot be converted
+     * @see ConverterRegistry#canParse(Class, Object)
+     */
+    boolean canConvert(Object value) {
+        if (!container && valueType.isInstance(value)) return true;
+        if (converter == null) return false;
+        return !builtIn || ConverterRegistry.canParse(valueType, value);
+    }
+
+    /**
+     * Check if a converted value can be set on this field
+     *
+     * @param value the converted value, this cannot be null
+     * @return true if the value is of the type of the field
+     */
+    boolean accepts(Object value) {
+        return valueType.isInstance(value);
+    }
+
+    /**
+     * Set the value of this field on an object
+     * Primitive values are unboxed and set using the primitive setter of the accessor.
+     *
+     * @param target the object to set the field on
+     * @param value  the value to set, this should already be converted
+     * @throws IllegalAccessException   see {@link Field#set(Object, Object)}
+     * @throws IllegalArgumentException if the value is not of the type of the field
+     */
+    void set(Object target, Object value) throws IllegalAccessException {
+        switch (kind) {
+            case INT:
+                if (value instanceof Integer) {
+                    accessor.setInt(target, (Integer) value);
+                    return;
+                }
+                break;
+            case LONG:
+                if (value instanceof Long) {
+                    accessor.setLong(target, (Long) value);
+                    return;
+                }
+                break;
+            case BOOLEAN:
+                if (value instanceof Boolean) {
+                    accessor.setBoolean(target, (Boolean) value);
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (value instanceof Double) {
+                    accessor.setDouble(target, (Double) value);
+                    return;
+                }
+                break;
+        }
+        //Objects and values which are not of the type of the field
+        accessor.set(target, value);
+    }
+
+    /**
+     * Set a primitive value stored as the bits of a long, see {@link MigrationRecord}
+     *
+     * @param target the object to set the field on
+     * @param bits   the value, doubles are stored as their raw long bits and booleans as 1 or 0
+     * @throws IllegalAccessException see {@link Field#set(Object, Object)}
+     */
+    void setPrimitive(Object target, long bits) throws IllegalAccessException {
+        switch (kind) {
+            case INT:
+                accessor.setInt(target, (int) bits);
+                break;
+            case LONG:
+                accessor.setLong(target, bits);
+                break;
+            case BOOLEAN:
+                accessor.setBoolean(target, bits != 0);
+                break;
+            case DOUBLE:
+                accessor.setDouble(target, Double.longBitsToDouble(bits));
+                break;
+            default:
+                throw new IllegalArgumentException(field + " is not a primitive field");
+        }
+    }
+
+    /**
+     * Get the value of this field of an object
+     *
+     * @param target the object to get the field of
+     * @return the value, primitive values are boxed
+     * @throws IllegalAccessException see {@link Field#get(Object)}
+     */
+    Object get(Object target) throws IllegalAccessException {
+        return accessor.get(target);
+    }
+
+    /**
+     * Get the value of a primitive field as the bits of a long, see {@link MigrationRecord}
+     *
+     * @param target the object to get the field of
+     * @return the value, doubles are returned as their raw long bits and booleans as 1 or 0
+     * @throws IllegalAccessException see {@link Field#get(Object)}
+     */
+    long getPrimitive(Object target) throws IllegalAccessException {
+        switch (kind) {
+            case INT:
+                return accessor.getInt(target);
+            case LONG:
+                return accessor.getLong(target);
+            case BOOLEAN:
+                return accessor.getBoolean(target) ? 1 : 0;
+            case DOUBLE:
+                return Double.doubleToRawLongBits(accessor.getDouble(target));
+            default:
+                throw new IllegalArgumentException(field + " is not a primitive field");
+        }
+    }
+
+    /**
+     * Box a primitive value stored as the bits of a long
+     *
+     * @param kind the primitive kind of the value
+     * @param bits the value
+     * @return the boxed value
+     */
+    static Object box(int kind, long bits) {
+        switch (kind) {
+            case INT:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case BOOLEAN:
+                return bits != 0;
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                throw new IllegalArgumentException("Not a primitive kind: " + kind);
+        }
+    }
+
+    /**
+     * Get the bits of a boxed primitive value, the reverse of {@link #box(int, long)}
+     *
+     * @param kind  the primitive kind of the value
+     * @param value the boxed value
+     * @return the value stored as the bits of a long
+     */
+    static long bits(int kind, Object value) {
+        switch (kind) {
+            case INT:
+            case LONG:
+                return ((Number) value).longValue();
+            case BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            case DOUBLE:
+                return Double.doubleToRawLongBits((Double) value);
+            default:
+                throw new IllegalArgumentException("Not a primitive kind: " + kind);
+        }
+    }
+
+    /**
+     * Get the primitive kind of this field, one of {@link #OBJECT}, {@link #INT}, {@link #LONG}, {@link #BOOLEAN} or {@link #DOUBLE}
+     *
+     * @return the kind of this field
+     */
+    int kind() {
+        return kind;
+    }
+
+    /**
+     * Get the field this was resolved from
+     *
+     * @return the field
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Get the key of this field in the data
+     *
+     * @return the key, this is the field name if no key was given in the annotation
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the other keys of this field in the data
+     *
+     * @return a copy of the aliases, empty if the field has none
+     */
+    public String[] getAliases() {
+        return aliases.clone();
+    }
+
+    /**
+     * The aliases of this field, this array must never be modified.
+     *
+     * @return the aliases
+     */
+    String[] aliases() {
+        return aliases;
+    }
+
+    /**
+     * Check if the key and aliases of this field match keys in the data ignoring case
+     *
+     * @return true if keys are matched ignoring case
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    /**
+     * Get the value used when the data does not contain the key
+     * This has already been parsed into the type of the field.
+     *
+     * @return the default value or null if there is none
+     */
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Get the default value as it was written in the annotation
+     *
+     * @return the unparsed default value or null if there is none
+     */
+    String getDefaultText() {
+        return defaultText;
+    }
+
+    /**
+     * Get the converter used for values which are not of the type of the field
+     *
+     * @return the converter or null if there is none for the type of the field
+     */
+    public Converter<?> getConverter() {
+        return converter;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The resolved migration metadata of one class.
+ * This holds the zero parameter constructor or the creator of the class and a {@link MigrationField} for every migratable field.
+ * Migratable fields of superclasses are included, the class annotation of every class only applies to its own fields
+ * and a field shadows the field of a superclass with the same key.
+ * A plan is immutable and is computed only once per class, every {@link Migrator} of that class shares it.
+ * <p>
+ * Plans are cached using a {@link ClassValue} so they are stored alongside the class itself,
+ * this means a plan is released together with its class when the class loader gets unloaded.
+ *
+ * @param <T> the type of the class this plan is for
+ * @author Max Berkelmans
+ * @see Migrator
+ * @since 1.2.0
+ */
+public final class MigrationPlan<T> {
+
+    private static final Map<AccessorBackend, ClassValue<MigrationPlan<?>>> PLANS = new EnumMap<>(AccessorBackend.class);
+
+    static {
+        for (AccessorBackend backend : AccessorBackend.values()) {
+            PLANS.put(backend, new ClassValue<MigrationPlan<?>>() {
+                @Override
+                protected MigrationPlan<?> computeValue(Class<?> type) {
+                    PlanCache cache = PlanCache.installed();
+                    if (cache != null) return cache.plan(type, backend);
+                    return new MigrationPlan<>(type, backend, ConverterRegistry.defaults());
+                }
+            });
+        }
+    }
+
+    private final Class<T> type;
+    private final AccessorBackend backend;
+    private final Constructor<T> constructor;
+    private final Instantiator<T> instantiator;
+    private final MigrationField[] fields;
+    private final RecordSchema schema;
+    private final KeyTable keys;
+    private final boolean aliased;
+    private final ArgumentInstantiator<T> creator;
+
+    /**
+     * Scans the class for its constructors and migratable fields
+     *
+     * @param type       the class to scan
+     * @param backend    the backend used to write fields and create instances
+     * @param converters the registry to find the converters of the fields in
+     * @throws me.max.migrational.exceptions.InvalidDefaultValueException if a default value cannot be parsed
+     * @throws me.max.migrational.exceptions.InvalidConstructorException  if an annotated creator cannot be used
+     */
+    @SuppressWarnings("unchecked")
+    private MigrationPlan(Class<T> type, AccessorBackend backend, ConverterRegistry converters) {
+        this.type = type;
+        this.backend = backend;
+
+        //Loop over constructors to find the one we can use
+        Constructor<T> zeroParameterConstructor = null;
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            //Needs to have zero parameters
+            if (constructor.getParameterCount() == 0) {
+                if (Modifier.isPrivate(constructor.getModifiers())) constructor.setAccessible(true);
+                zeroParameterConstructor = (Constructor<T>) constructor;
+                break;
+            }
+        }
+        this.constructor = zeroParameterConstructor;
+        this.instantiator = zeroParameterConstructor == null ? null : backend.instantiator(zeroParameterConstructor);
+
+        List<MigrationField> declared = new ArrayList<>();
+        //Loop over the declared fields and check if it is a field we migrate
+        for (Field field : type.getDeclaredFields()) {
+            Migratable migratable = field.isAnnotationPresent(Migratable.class) ? field.getAnnotation(Migratable.class) : type.getAnnotation(Migratable.class);
+            if (migratable == null)
+                continue; //Needs to be our annotation
+            if (field.isAnnotationPresent(Exempt.class))
+                continue; //If the field is exempted then do not migrate.
+            if (Modifier.isPrivate(field.getModifiers())) field.setAccessible(true); //Allow us to access private fields
+
+            declared.add(new MigrationField(field, migratable, backend, converters));
+        }
+
+        List<MigrationField> fields = new ArrayList<>();
+        //Fields of superclasses come first, the plan of the superclass is reused instead of scanning it again
+        Class<? super T> superclass = type.getSuperclass();
+        if (superclass != null && isMigratable(superclass)) {
+            MigrationPlan<?> parent = converters == ConverterRegistry.defaults() ? of(superclass, backend) : new MigrationPlan<>(superclass, backend, converters);
+            Set<String> keys = new HashSet<>();
+            for (MigrationField field : declared) keys.add(field.getKey());
+            for (MigrationField field : parent.fields) {
+                //A field of this class shadows the field of a superclass with the same key
+                if (!keys.contains(field.getKey())) fields.add(field);
+            }
+        }
+        fields.addAll(declared);
+        //Change it into an array as we do not need to change the list anymore.
+        this.fields = fields.toArray(new MigrationField[0]);
+        this.keys = new KeyTable(this.fields);
+        this.schema = new RecordSchema(type, this.fields, keys);
+        this.aliased = isAliased(this.fields);
+        this.creator = ArgumentInstantiator.find(type, this.fields, zeroParameterConstructor != null);
+    }
+
+    /**
+     * Creates a plan from metadata which was already resolved, see {@link PlanCache}
+     *
+     * @param type        the class of the plan
+     * @param backend     the backend used to write fields and create instances
+     * @param constructor the zero parameter constructor or null if the class has none, this should already be accessible
+     * @param fields      the migratable fields in order
+     * @param creator     the constructor or static factory to create instances with or null if the class has none
+     * @param slots       the index of the field bound to every parameter of the creator
+     */
+    MigrationPlan(Class<T> type, AccessorBackend backend, Constructor<T> constructor, MigrationField[] fields, Executable creator, int[] slots) {
+        this.type = type;
+        this.backend = backend;
+        this.constructor = constructor;
+        this.instantiator = constructor == null ? null : backend.instantiator(constructor);
+        this.fields = fields;
+        this.keys = new KeyTable(fields);
+        this.schema = new RecordSchema(type, fields, keys);
+        this.aliased = isAliased(fields);
+        this.creator = creator == null ? null : ArgumentInstantiator.create(type, creator, fields, slots);
+    }
+
+    /**
+     * Scans a class, this is what the cache computes for classes which are not in an installed {@link PlanCache}
+     *
+     * @param type    the class to scan
+     * @param backend the backend used to write fields and create instances
+     * @param <T>     the type of the class
+     * @return the new plan
+     */
+    static <T> MigrationPlan<T> scan(Class<T> type, AccessorBackend backend) {
+        return new MigrationPlan<>(type, backend, ConverterRegistry.defaults());
+    }
+
+    /**
+     * Get the plan of a class using the {@link AccessorBackend#REFLECTION} backend.
+     * The class is only scanned the first time this is called for it.
+     *
+     * @param clazz the class to get the plan for
+     * @param <T>   the type of the class
+     * @return the shared plan of this class
+     */
+    public static <T> MigrationPlan<T> of(Class<T> clazz) {
+        return of(clazz, AccessorBackend.REFLECTION);
+    }
+
+    /**
+     * Get the plan of a class using a specific backend.
+     * The class is only scanned the first time this is called for it with this backend.
+     *
+     * @param clazz   the class to get the plan for
+     * @param backend the backend used to write fields and create instances
+     * @param <T>     the type of the class
+     * @return the shared plan of this class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MigrationPlan<T> of(Class<T> clazz, AccessorBackend backend) {
+        return (MigrationPlan<T>) PLANS.get(backend).get(clazz);
+    }
+
+    /**
+     * Get a plan of a class using specific converters.
+     * Only plans using {@link ConverterRegistry#defaults()} are shared,
+     * for any other registry the class is scanned on every call so the plan should be kept by the caller.
+     *
+     * @param clazz      the class to get the plan for
+     * @param backend    the backend used to write fields and create instances
+     * @param converters the registry to find the converters of the fields in
+     * @param <T>        the type of the class
+     * @return the plan of this class
+     * @throws me.max.migrational.exceptions.InvalidDefaultValueException if a default value cannot be parsed
+     */
+    public static <T> MigrationPlan<T> of(Class<T> clazz, AccessorBackend backend, ConverterRegistry converters) {
+        if (converters == ConverterRegistry.defaults()) return of(clazz, backend);
+        return new MigrationPlan<>(clazz, backend, converters);
+    }
+
+    /**
+     * Get the class this plan was made for
+     *
+     * @return the class of this plan
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Get the zero parameter constructor that was found while scanning
+     *
+     * @return the constructor or null if the class has no zero parameter constructor
+     */
+    public Constructor<T> getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * Get the constructor or static factory new instances are created with by passing the migrated values,
+     * see {@link me.max.migrational.annotations.Creator}.
+     * If there is a creator it is used instead of the zero parameter constructor.
+     *
+     * @return the creator or null if the class has none
+     */
+    public Executable getCreator() {
+        return creator == null ? null : creator.getExecutable();
+    }
+
+    /**
+     * Get the backend this plan writes fields and creates instances with
+     *
+     * @return the backend of this plan
+     */
+    public AccessorBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Create the instantiator for a zero parameter constructor of this class using the backend of this plan
+     *
+     * @param constructor the constructor to use
+     * @return the instantiator of the constructor
+     */
+    Instantiator<T> instantiator(Constructor<T> constructor) {
+        return constructor.equals(this.constructor) ? instantiator : backend.instantiator(constructor);
+    }
+
+    /**
+     * Get the amount of migratable fields
+     *
+     * @return the amount of migratable fields
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Get a migratable field
+     *
+     * @param index the index of the field
+     * @return the field at this index
+     */
+    public MigrationField getField(int index) {
+        return fields[index];
+    }
+
+    /**
+     * Get the migratable fields, the fields of superclasses first and then in the order they were declared
+     *
+     * @return an unmodifiable list of the migratable fields
+     */
+    public List<MigrationField> getFields() {
+        return Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * Get the schema of the records of this class, the slot of every field is its index in this plan
+     *
+     * @return the record schema
+     */
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    private static boolean isAliased(MigrationField[] fields) {
+        for (MigrationField field : fields) {
+            if (field.aliases().length != 0 || field.isIgnoreCase()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Check if a class or one of its superclasses is annotated or has an annotated field
+     *
+     * @param type the class to check
+     * @return true if the class has migratable fields
+     */
+    static boolean isMigratable(Class<?> type) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            if (current.isAnnotationPresent(Migratable.class)) return true;
+            for (Field field : current.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Migratable.class)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The table finding the fields of every key and alias
+     *
+     * @return the key table
+     */
+    KeyTable keys() {
+        return keys;
+    }
+
+    /**
+     * Check if any field has aliases or matches keys ignoring case,
+     * the data of such a class is resolved by scanning its entries using the {@link #keys() key table}
+     *
+     * @return true if the keys of the data cannot simply be looked up
+     */
+    boolean isAliased() {
+        return aliased;
+    }
+
+    /**
+     * The instantiator calling the creator of the class
+     *
+     * @return the instantiator or null if the class has no creator
+     */
+    ArgumentInstantiator<T> creator() {
+        return creator;
+    }
+
+    /**
+     * The backing array of the migratable fields, this array must never be modified.
+     *
+     * @return the array of migratable fields
+     */
+    MigrationField[] fields() {
+        return fields;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reuses the objects of a class between migrations, so a refresh loop does not allocate a new object every time.
+ * Objects are taken with {@link #migrate(Map)}, which migrates into a released object if there is one,
+ * and given back with {@link #release(Object)} once they are not used anymore.
+ * <p>
+ * A reused object keeps the values of fields which are not in the new data and have no default value,
+ * give the pool a reset action if that is not wanted.
+ * A pool is not thread safe, use one pool per thread.
+ *
+ * @param <T> the type of the pooled objects
+ * @author Max Berkelmans
+ * @see TypedMigrator#migrateInto(Object, Map)
+ * @since 1.2.0
+ */
+public final class MigrationPool<T> {
+
+    private final TypedMigrator<T> migrator;
+    private final Consumer<? super T> reset;
+    private final Object[] free;
+    private int size;
+
+    /**
+     * @param migrator the migrator to use
+     * @param capacity the maximum amount of released objects to keep
+     */
+    public MigrationPool(TypedMigrator<T> migrator, int capacity) {
+        this(migrator, capacity, null);
+    }
+
+    /**
+     * @param migrator the migrator to use
+     * @param capacity the maximum amount of released objects to keep
+     * @param reset    the action run on an object when it is released or null to keep its values
+     */
+    public MigrationPool(TypedMigrator<T> migrator, int capacity, Consumer<? super T> reset) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        this.migrator = migrator;
+        this.reset = reset;
+        this.free = new Object[capacity];
+    }
+
+    /**
+     * Migrate the data into a released object or into a new instance if there is none
+     *
+     * @param data the data to migrate
+     * @return the migrated object
+     * @throws me.max.migrational.exceptions.MigrationException if the object could not be migrated
+     */
+    @SuppressWarnings("unchecked")
+    public T migrate(Map<String, Object> data) {
+        if (size == 0) return migrator.migrate(data);
+
+        T target = (T) free[--size];
+        free[size] = null;
+        return migrator.migrateInto(target, data);
+    }
+
+    /**
+     * Give an object back so it can be reused, it must not be used by the caller anymore
+     * The object is dropped if the pool is full.
+     *
+     * @param object the object to release
+     */
+    public void release(T object) {
+        if (object == null || size == free.length) return;
+        if (reset != null) reset.accept(object);
+        free[size++] = object;
+    }
+
+    /**
+     * Get the amount of released objects waiting to be reused
+     *
+     * @return the amount of free objects
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The data of one object stored by slot instead of in a map.
+ * Values are stored in an {@code Object[]} and values of int, long, boolean and double fields in a {@code long[]},
+ * so a migrator reads every field by its index without hashing or unboxing.
+ * <pre>{@code
+ * RecordSchema schema = MigrationPlan.of(User.class).getSchema();
+ * int name = schema.slot("name"), age = schema.slot("age");
+ *
+ * MigrationRecord record = schema.newRecord().set(name, "Max").setInt(age, 20).build();
+ * User user = Migrators.forPlan(MigrationPlan.of(User.class)).migrate(record);
+ * }</pre>
+ *
+ * @author Max Berkelmans
+ * @see RecordSchema
+ * @since 1.2.0
+ */
+public final class MigrationRecord {
+
+    static final byte UNSET = 0, OBJECT = 1, PRIMITIVE = 2;
+
+    private final RecordSchema schema;
+    private final byte[] states;
+    private final Object[] values;
+    private final long[] primitives;
+
+    /**
+     * @param schema     the schema of the record
+     * @param states     the state of every slot, {@link #UNSET}, {@link #OBJECT} or {@link #PRIMITIVE}
+     * @param values     the values of the object slots
+     * @param primitives the values of the primitive slots as long bits
+     */
+    MigrationRecord(RecordSchema schema, byte[] states, Object[] values, long[] primitives) {
+        this.schema = schema;
+        this.states = states;
+        this.values = values;
+        this.primitives = primitives;
+    }
+
+    /**
+     * Get the schema of this record
+     *
+     * @return the schema
+     */
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Check if a slot has been set, this is also true when it was set to null
+     *
+     * @param slot the slot
+     * @return true if the slot has been set
+     */
+    public boolean isSet(int slot) {
+        return states[slot] != UNSET;
+    }
+
+    /**
+     * Get the value of a slot, primitive values are boxed
+     *
+     * @param slot the slot
+     * @return the value or null if the slot was not set
+     */
+    public Object get(int slot) {
+        if (states[slot] != PRIMITIVE) return values[slot];
+        return MigrationField.box(schema.kind(slot), primitives[slot]);
+    }
+
+    /**
+     * Create a map with the keys and values of all set slots
+     *
+     * @return a new map of this record
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>((int) (states.length / 0.75f) + 1);
+        for (int slot = 0; slot < states.length; slot++) {
+            if (states[slot] != UNSET) map.put(schema.getKey(slot), get(slot));
+        }
+        return map;
+    }
+
+    byte state(int slot) {
+        return states[slot];
+    }
+
+    Object value(int slot) {
+        return values[slot];
+    }
+
+    long primitive(int slot) {
+        return primitives[slot];
+    }
+
+    /**
+     * Builds a {@link MigrationRecord}, the builder can be reused after {@link #build()}.
+     * The primitive setters store the value without boxing when the field in the slot has that exact primitive type,
+     * otherwise the value is boxed and converted like any other value.
+     */
+    public static final class Builder {
+
+        private final RecordSchema schema;
+        private byte[] states;
+        private Object[] values;
+        private long[] primitives;
+
+        Builder(RecordSchema schema) {
+            this.schema = schema;
+            reset();
+        }
+
+        /**
+         * Set the value of a slot
+         *
+         * @param slot  the slot
+         * @param value the value, null works the same as a null value in a data map
+         * @return this builder
+         */
+        public Builder set(int slot, Object value) {
+            states[slot] = OBJECT;
+            values[slot] = value;
+            return this;
+        }
+
+        /**
+         * Set the value of a key, this looks up the slot on every call
+         *
+         * @param key   the key
+         * @param value the value
+         * @return this builder
+         * @throws IllegalArgumentException if no field has this key
+         */
+        public Builder set(String key, Object value) {
+            int slot = schema.slot(key);
+            if (slot < 0) throw new IllegalArgumentException("No field has the key " + key);
+            return set(slot, value);
+        }
+
+        /**
+         * Set the int value of a slot
+         *
+         * @param slot  the slot
+         * @param value the value
+         * @return this builder
+         */
+        public Builder setInt(int slot, int value) {
+            return schema.kind(slot) == MigrationField.INT ? primitive(slot, value) : set(slot, value);
+        }
+
+        /**
+         * Set the long value of a slot
+         *
+         * @param slot  the slot
+         * @param value the value
+         * @return this builder
+         */
+        public Builder setLong(int slot, long value) {
+            return schema.kind(slot) == MigrationField.LONG ? primitive(slot, value) : set(slot, value);
+        }
+
+        /**
+         * Set the boolean value of a slot
+         *
+         * @param slot  the slot
+         * @param value the value
+         * @return this builder
+         */
+        public Builder setBoolean(int slot, boolean value) {
+            return schema.kind(slot) == MigrationField.BOOLEAN ? primitive(slot, value ? 1 : 0) : set(slot, value);
+        }
+
+        /**
+         * Set the double value of a slot
+         *
+         * @param slot  the slot
+         * @param value the value
+         * @return this builder
+         */
+        public Builder setDouble(int slot, double value) {
+            return schema.kind(slot) == MigrationField.DOUBLE ? primitive(slot, Double.doubleToRawLongBits(value)) : set(slot, value);
+        }
+
+        private Builder primitive(int slot, long bits) {
+            states[slot] = PRIMITIVE;
+            values[slot] = null;
+            primitives[slot] = bits;
+            return this;
+        }
+
+        /**
+         * Build the record and start a new one
+         *
+         * @return the record
+         */
+        public MigrationRecord build() {
+            MigrationRecord record = new MigrationRecord(schema, states, values, primitives);
+            reset();
+            return record;
+        }
+
+        private void reset() {
+            states = new byte[schema.size()];
+            values = new Object[schema.size()];
+            primitives = new long[schema.size()];
+        }
+    }
+}
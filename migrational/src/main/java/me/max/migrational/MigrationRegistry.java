@@ -0,0 +1,323 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidConstructorException;
+import me.max.migrational.exceptions.MigrationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * A fixed set of migratable classes which can be warmed up when the application starts.
+ * Warming up scans every class for every backend and creates its shared migrator, so the first migration of a class does not pay for it,
+ * and surfaces setup errors like an invalid default value or a missing constructor at startup instead of on first use.
+ * <pre>{@code
+ * MigrationRegistry.scan("com.example.model").warmUp();
+ * }</pre>
+ *
+ * @author Max Berkelmans
+ * @see MigrationPlan
+ * @since 1.2.0
+ */
+public final class MigrationRegistry {
+
+    private final List<Class<?>> classes;
+
+    private MigrationRegistry(Collection<Class<?>> classes) {
+        this.classes = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(classes)));
+    }
+
+    /**
+     * Create a registry of specific classes
+     *
+     * @param classes the classes to register
+     * @return the registry
+     */
+    public static MigrationRegistry of(Class<?>... classes) {
+        return of(Arrays.asList(classes));
+    }
+
+    /**
+     * Create a registry of specific classes
+     *
+     * @param classes the classes to register, duplicates are registered once
+     * @return the registry
+     */
+    public static MigrationRegistry of(Collection<Class<?>> classes) {
+        return new MigrationRegistry(classes);
+    }
+
+    /**
+     * Create a registry of every migratable class in a package and its subpackages
+     * This uses the context class loader of the current thread.
+     *
+     * @param packageName the name of the package to scan
+     * @return the registry
+     * @throws UncheckedIOException if the classpath could not be read
+     */
+    public static MigrationRegistry scan(String packageName) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return scan(packageName, loader != null ? loader : MigrationRegistry.class.getClassLoader());
+    }
+
+    /**
+     * Create a registry of every migratable class in a package and its subpackages
+     * Directories and jar files on the classpath of the class loader are scanned,
+     * classes are loaded without initializing them and abstract, local and anonymous classes are left out.
+     *
+     * @param packageName the name of the package to scan
+     * @param loader      the class loader to find and load the classes with
+     * @return the registry
+     * @throws UncheckedIOException if the classpath could not be read
+     */
+    public static MigrationRegistry scan(String packageName, ClassLoader loader) {
+        String path = packageName.replace('.', '/');
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                URLConnection connection = resource.openConnection();
+                if (connection instanceof JarURLConnection) {
+                    scanJar(((JarURLConnection) connection).getJarFile(), path, names);
+                } else if ("file".equals(resource.getProtocol())) {
+                    scanDirectory(Paths.get(resource.toURI()), packageName, names);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan package " + packageName, e);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Could not scan package " + packageName, e);
+        }
+
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : names) {
+            Class<?> type;
+            try {
+                type = Class.forName(name, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue; //Classes we cannot load cannot be migrated either
+            }
+            if (type.isInterface() || type.isEnum() || Modifier.isAbstract(type.getModifiers())) continue;
+            if (type.isAnonymousClass() || type.isLocalClass() || type.isSynthetic()) continue;
+            if (MigrationPlan.isMigratable(type)) classes.add(type);
+        }
+        return new MigrationRegistry(classes);
+    }
+
+    private static void scanJar(JarFile jar, String path, Set<String> names) {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String entry = entries.nextElement().getName();
+            if (entry.startsWith(path + "/") && entry.endsWith(".class"))
+                names.add(entry.substring(0, entry.length() - ".class".length()).replace('/', '.'));
+        }
+    }
+
+    private static void scanDirectory(Path directory, String packageName, Set<String> names) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(file -> file.toString().endsWith(".class")).forEach(file -> {
+                String relative = directory.relativize(file).toString();
+                String name = relative.substring(0, relative.length() - ".class".length()).replace(file.getFileSystem().getSeparator(), ".");
+                names.add(packageName + "." + name);
+            });
+        }
+    }
+
+    /**
+     * Warm up every class for every backend using one thread per available processor, see {@link #warmUp(int, AccessorBackend...)}
+     *
+     * @return the timings of the warm up
+     * @throws MigrationException if any class could not be warmed up
+     */
+    public WarmUpReport warmUp() {
+        return warmUp(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Warm up every class for every backend, see {@link #warmUp(int, AccessorBackend...)}
+     *
+     * @param threads the maximum amount of threads to use
+     * @return the timings of the warm up
+     * @throws MigrationException if any class could not be warmed up
+     */
+    public WarmUpReport warmUp(int threads) {
+        return warmUp(threads, AccessorBackend.values());
+    }
+
+    /**
+     * Warm up every class concurrently on a bounded pool which is shut down afterwards
+     * This creates the {@link MigrationPlan} of every class for every given backend.
+     * With {@link AccessorBackend#REFLECTION} the shared {@link Migrators#forClass(Class) migrator} is created as well,
+     * {@link AccessorBackend#METHOD_HANDLE} plans are used by {@link Exporter}, {@link DeltaMigrator}, {@link GeneratedMigrator}
+     * and {@link BatchMigration#migrateColumns(Class, ColumnBatch, java.util.concurrent.ForkJoinPool) columnar migration}.
+     * Every class is warmed up, even if others fail, so all setup errors are reported at once.
+     *
+     * @param threads  the maximum amount of threads to use
+     * @param backends the backends to create the plans of
+     * @return the timings of the warm up
+     * @throws MigrationException if any class could not be warmed up,
+     *                            the error of every class is added to it as a suppressed exception
+     */
+    public WarmUpReport warmUp(int threads, AccessorBackend... backends) {
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is needed, got " + threads);
+        if (backends.length == 0) throw new IllegalArgumentException("At least one backend is needed");
+        AccessorBackend[] warmed = backends.clone();
+        long start = System.nanoTime();
+        long[] nanos = new long[classes.size()];
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, classes.size())), runnable -> {
+            Thread thread = new Thread(runnable, "migrational-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>(classes.size());
+        try {
+            for (int i = 0; i < classes.size(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> nanos[index] = warmUp(classes.get(index), warmed)));
+            }
+
+            MigrationException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    if (failure == null) failure = new MigrationException("Could not warm up " + classes.get(i).getName(), e.getCause());
+                    else failure.addSuppressed(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MigrationException("Interrupted while warming up", e);
+                }
+            }
+            if (failure != null) throw failure;
+        } finally {
+            executor.shutdownNow();
+        }
+        return new WarmUpReport(classes, nanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Warm up one class
+     *
+     * @return the time it took in nanoseconds
+     */
+    private static long warmUp(Class<?> type, AccessorBackend[] backends) {
+        long start = System.nanoTime();
+        for (AccessorBackend backend : backends) {
+            MigrationPlan<?> plan = MigrationPlan.of(type, backend);
+            if (backend != AccessorBackend.REFLECTION) continue;
+
+            TypedMigrator<?> migrator = Migrators.forClass(type);
+            //Only migrators using the plan need a way to create instances
+            if (migrator instanceof PlanMigrator && plan.getConstructor() == null && plan.creator() == null)
+                throw new InvalidConstructorException("No zero parameter constructor or creator was found in " + type.getName(), null);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Get the registered classes
+     *
+     * @return an unmodifiable list of the classes in the order they were registered
+     */
+    public List<Class<?>> getClasses() {
+        return classes;
+    }
+
+    /**
+     * The timings of a warm up
+     */
+    public static final class WarmUpReport {
+
+        private final List<Class<?>> classes;
+        private final long[] nanos;
+        private final long totalNanos;
+
+        private WarmUpReport(List<Class<?>> classes, long[] nanos, long totalNanos) {
+            this.classes = classes;
+            this.nanos = nanos;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * Get the time the whole warm up took
+         *
+         * @return the wall clock time in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Get the time warming up one class took
+         *
+         * @param clazz the class
+         * @return the time in nanoseconds or -1 if the class was not warmed up
+         */
+        public long getNanos(Class<?> clazz) {
+            int index = classes.indexOf(clazz);
+            return index < 0 ? -1 : nanos[index];
+        }
+
+        /**
+         * Get the amount of classes which were warmed up
+         *
+         * @return the amount of classes
+         */
+        public int size() {
+            return classes.size();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("Warmed up ").append(classes.size()).append(" classes in ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append(" ms");
+            for (int i = 0; i < classes.size(); i++) {
+                builder.append('\n').append(classes.get(i).getName()).append(": ").append(TimeUnit.NANOSECONDS.toMicros(nanos[i])).append(" us");
+            }
+            return builder.toString();
+        }
+    }
+}
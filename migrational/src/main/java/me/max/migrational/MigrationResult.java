@@ -0,0 +1,109 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.Map;
+
+/**
+ * The result of migrating one element of a stream, this is either the migrated object or the error of that element.
+ * A failed element does not stop the stream, see {@link StreamMigration}.
+ *
+ * @param <T> the type of the migrated object
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class MigrationResult<T> {
+
+    private final T value;
+    private final Map<String, Object> data;
+    private final RuntimeException error;
+
+    private MigrationResult(T value, Map<String, Object> data, RuntimeException error) {
+        this.value = value;
+        this.data = data;
+        this.error = error;
+    }
+
+    /**
+     * Migrate one element, catching the error instead of throwing it
+     *
+     * @param migrator the migrator to use
+     * @param data     the data to migrate
+     * @param <T>      the type of the class
+     * @return the result of the migration
+     */
+    static <T> MigrationResult<T> of(TypedMigrator<T> migrator, Map<String, Object> data) {
+        try {
+            return new MigrationResult<>(migrator.migrate(data), null, null);
+        } catch (RuntimeException e) {
+            //Only failed results keep the data, so successful results do not hold on to it
+            return new MigrationResult<>(null, data, e);
+        }
+    }
+
+    /**
+     * Check if the element was migrated
+     *
+     * @return true if the element was migrated, false if it failed
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Get the migrated object
+     *
+     * @return the migrated object
+     * @throws MigrationException if the element failed, the cause is the original error
+     */
+    public T get() {
+        if (error != null) throw new MigrationException("The element could not be migrated", error);
+        return value;
+    }
+
+    /**
+     * Get the migrated object or another value if the element failed
+     *
+     * @param other the value to return if the element failed
+     * @return the migrated object or the other value
+     */
+    public T orElse(T other) {
+        return error == null ? value : other;
+    }
+
+    /**
+     * Get the error of the element
+     *
+     * @return the error or null if the element was migrated
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * Get the data of a failed element, this is only kept for failed elements
+     *
+     * @return the data which could not be migrated or null if the element was migrated
+     */
+    public Map<String, Object> getData() {
+        return data;
+    }
+}
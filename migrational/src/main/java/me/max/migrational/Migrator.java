@@ -0,0 +1,413 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+import me.max.migrational.exceptions.InvalidConstructorException;
+import me.max.migrational.exceptions.MigrationException;
+import me.max.migrational.metrics.MigrationListener;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class will manage migration of one class and one data map.
+ * You can instantiate this class multiple times.
+ * A migrator holds state and should not be shared between threads, use {@link Migrators#forClass(Class)} for that.
+ * This will always make a new instance of the class on migration unless {@link Migrator#migrateToMap()} is used.
+ *
+ * @author Max Berkelmans
+ * @see Migratable
+ * @since 1.0.0
+ */
+public class Migrator {
+
+    private final Class<?> type;
+    private final TypedMigrator<?> compiledMigrator;
+    private final MigrationListener listener;
+    private MigrationPlan<?> plan;
+    private Field[] migratableFields;
+    private Map<String, Object> data;
+    private Constructor<?> constructor;
+    private TypedMigrator<?> migrator;
+    private Object lastMigratedObject;
+
+    /**
+     * Loads the data migration with preset data and preset constructor
+     *
+     * @param clazz       the class/object that contains the fields and constructor
+     * @param constructor the constructor of said class that should be used
+     * @param data        the data to be used on migration
+     */
+    public Migrator(Class<?> clazz, Constructor<?> constructor, Map<String, Object> data) {
+        this(clazz, constructor);
+        this.data = data;
+    }
+
+    /**
+     * Loads the data migration with preset data
+     *
+     * @param clazz the class/object that contains the fields and constructor
+     * @param data  the data to be used on migration
+     */
+    public Migrator(Class<?> clazz, Map<String, Object> data) {
+        this(clazz);
+        this.data = data;
+    }
+
+    /**
+     * Loads the data migration with preset constructor
+     *
+     * @param clazz       the class/object that contains the fields and constructor
+     * @param constructor the constructor of said class that should be used
+     */
+    public Migrator(Class<?> clazz, Constructor<?> constructor) {
+        this(clazz);
+        setConstructor(constructor);
+    }
+
+    /**
+     * Loads data migration
+     * The class is only scanned once, every migrator of the same class shares its {@link MigrationPlan}.
+     * If a migrator was generated for the class by the migrational-processor it is used instead,
+     * in that case the class is not scanned unless a method needs the plan.
+     *
+     * @param clazz the class/object that contains the fields and constructor
+     */
+    public Migrator(Class<?> clazz) {
+        this(clazz, (MigrationListener) null);
+    }
+
+    /**
+     * Loads data migration which notifies a listener of every migration
+     *
+     * @param clazz    the class/object that contains the fields and constructor
+     * @param listener the listener to notify or null to not measure migrations
+     * @since 1.2.0
+     */
+    public Migrator(Class<?> clazz, MigrationListener listener) {
+        this.type = clazz;
+        this.listener = listener;
+        this.compiledMigrator = CompiledMigrators.find(clazz);
+        if (compiledMigrator == null) plan();
+    }
+
+    /**
+     * Loads data migration from an already resolved plan
+     * This can be used to migrate using a different {@link AccessorBackend}.
+     *
+     * @param plan the plan of the class to migrate
+     * @since 1.2.0
+     */
+    public Migrator(MigrationPlan<?> plan) {
+        this(plan, null);
+    }
+
+    /**
+     * Loads data migration from an already resolved plan which notifies a listener of every migration
+     *
+     * @param plan     the plan of the class to migrate
+     * @param listener the listener to notify or null to not measure migrations
+     * @since 1.2.0
+     */
+    public Migrator(MigrationPlan<?> plan, MigrationListener listener) {
+        this.type = plan.getType();
+        this.listener = listener;
+        this.compiledMigrator = null;
+        this.plan = plan;
+        this.constructor = plan.getConstructor();
+    }
+
+    /**
+     * Get the plan of the class, resolving it if this was not done yet
+     *
+     * @return the plan of the class
+     */
+    private MigrationPlan<?> plan() {
+        if (plan == null) {
+            plan = MigrationPlan.of(type);
+            constructor = plan.getConstructor();
+        }
+        return plan;
+    }
+
+    /**
+     * Get the stateless migrator this delegates to, resolving it if this was not done yet
+     *
+     * @return the migrator to use
+     * @throws InvalidConstructorException if there is no constructor to use
+     */
+    private TypedMigrator<?> migrator() {
+        if (migrator != null) return migrator;
+
+        if (compiledMigrator != null) {
+            migrator = compiledMigrator;
+        } else {
+            //Check if the constructor is null due to not being found on instantiation
+            if (constructor == null && plan.creator() == null)
+                throw new InvalidConstructorException("Constructor provided was null, no matching constructor was found on instantiation make sure to set one.", null);
+            migrator = Migrators.forPlan(plan);
+        }
+        return migrator;
+    }
+
+
+    /**
+     * Migrate the data if necessary
+     * This will always create a new instance of the class
+     *
+     * @return the migrated object
+     * @throws IllegalAccessException      see {@link Constructor#newInstance(Object...)}
+     * @throws InvocationTargetException   see {@link Constructor#newInstance(Object...)}
+     * @throws InstantiationException      see {@link Constructor#newInstance(Object...)}
+     * @throws InvalidConstructorException if the constructor is null this will be thrown.
+     *
+     * @apiNote This method was renamed in version 1.0.0 -> 1.1.0 due to it being more consistent with other method namings
+     *
+     * @since 1.1.0
+     */
+    public Object migrateToClass() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        //Without a listener nothing is measured
+        if (listener == null) return migrate();
+
+        long start = System.nanoTime();
+        try {
+            migrate();
+        } catch (IllegalAccessException | InvocationTargetException | InstantiationException | RuntimeException e) {
+            listener.failed(type, MigrationListener.Operation.CLASS, System.nanoTime() - start, e);
+            throw e;
+        }
+        migrated(MigrationListener.Operation.CLASS, System.nanoTime() - start);
+        return lastMigratedObject;
+    }
+
+    /**
+     * Migrate the data into a new instance without notifying the listener
+     */
+    private Object migrate() throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        try {
+            lastMigratedObject = migrator().migrate(data);
+        } catch (MigrationException e) {
+            //Keep throwing the same exceptions as before typed migrators existed
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalAccessException) throw (IllegalAccessException) cause;
+            if (cause instanceof InvocationTargetException) throw (InvocationTargetException) cause;
+            if (cause instanceof InstantiationException) throw (InstantiationException) cause;
+            if (cause instanceof IllegalArgumentException) throw (IllegalArgumentException) cause;
+            throw e;
+        }
+
+        return lastMigratedObject;
+    }
+
+    /**
+     * This method migrates to a map rather than straight to an object instance.
+     * This can be used to instantiate the object yourself with or without reflection.
+     *
+     * @return a map of migrated data
+     * @since 1.1.0
+     */
+    public Map<String, Object> migrateToMap() {
+        //Without a listener nothing is measured
+        if (listener == null) return toMap();
+
+        long start = System.nanoTime();
+        Map<String, Object> migratedMap;
+        try {
+            migratedMap = toMap();
+        } catch (RuntimeException e) {
+            listener.failed(type, MigrationListener.Operation.MAP, System.nanoTime() - start, e);
+            throw e;
+        }
+        migrated(MigrationListener.Operation.MAP, System.nanoTime() - start);
+        return migratedMap;
+    }
+
+    /**
+     * Migrate the data into a map without notifying the listener
+     */
+    private Map<String, Object> toMap() {
+        MigrationPlan<?> plan = plan();
+        Map<String, Object> migratedMap = new HashMap<>((int) (plan.size() / 0.75f) + 1);
+
+        if (plan.isAliased()) {
+            MigrationField[] fields = plan.fields();
+            boolean[] present = new boolean[fields.length];
+            Object[] values = plan.keys().resolve(fields, data, present);
+            for (int i = 0; i < fields.length; i++) {
+                //Only skip it when the data does not contain it and there is no default value
+                if (values[i] != null || present[i]) migratedMap.put(fields[i].getKey(), values[i]);
+            }
+            return migratedMap;
+        }
+
+        //Loop over known migratable fields.
+        for (MigrationField field : plan.fields()) {
+            Object val = field.resolve(data);
+            //Only skip it when the data does not contain it and there is no default value
+            if (val == null && !data.containsKey(field.getKey())) continue;
+            migratedMap.put(field.getKey(), val);
+        }
+
+        //Return the migrated map.
+        return migratedMap;
+    }
+
+    /**
+     * Migrate the data into an existing instance instead of creating a new one
+     * Fields which are not in the data and have no default value keep their current value.
+     *
+     * @param target the object to migrate into
+     * @return the target
+     * @throws IllegalArgumentException if the target is not an instance of the class of this migrator
+     * @throws MigrationException       if a field could not be set
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unchecked")
+    public Object migrateInto(Object target) {
+        if (!type.isInstance(target))
+            throw new IllegalArgumentException("Cannot migrate " + type.getName() + " into " + (target == null ? null : target.getClass().getName()));
+        if (compiledMigrator != null) return ((TypedMigrator<Object>) compiledMigrator).migrateInto(target, data);
+        return PlanMigrator.migrateInto(plan(), target, data);
+    }
+
+    /**
+     * Count the missing keys and defaulted fields of the data and notify the listener
+     * A field found by one of its aliases is not missing.
+     * When a generated migrator is used and the plan was not needed the keys are read from the generated migrator,
+     * so the class is not scanned just to measure it.
+     *
+     * @param operation what the data was migrated to
+     * @param nanos     the time the migration took
+     */
+    private void migrated(MigrationListener.Operation operation, long nanos) {
+        int defaulted = 0, missing = 0;
+        if (plan == null && compiledMigrator != null) {
+            //Generated migrators are only made for classes without aliases, so their keys are looked up directly
+            CompiledMigrators.Keys keys = CompiledMigrators.keys(compiledMigrator);
+            for (int i = 0; i < keys.size(); i++) {
+                if (data.containsKey(keys.key(i))) continue;
+                missing++;
+                if (keys.isDefaulted(i)) defaulted++;
+            }
+        } else {
+            MigrationField[] fields = plan.fields();
+            byte[] found = null;
+            if (plan.isAliased()) {
+                found = new byte[fields.length];
+                plan.keys().scan(data, found);
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (found != null ? found[i] != 0 : data.containsKey(fields[i].getKey())) continue;
+                missing++;
+                if (fields[i].getDefaultValue() != null) defaulted++;
+            }
+        }
+        listener.migrated(type, operation, nanos, defaulted, missing);
+    }
+
+    /**
+     * This will return the last migrated object.
+     * This can be null if the data was not migrated yet.
+     *
+     * @return the last migrated object still in memory
+     */
+    public Object getLastMigratedObject() {
+        return lastMigratedObject;
+    }
+
+    /**
+     * Returns the constructor being used
+     *
+     * @return the constructor being used
+     */
+    public Constructor<?> getConstructor() {
+        plan();
+        return constructor;
+    }
+
+    /**
+     * Set the constructor to be used to migrateToClass.
+     *
+     * @param constructor the constructor to use
+     * @throws InvalidConstructorException if the constructor is null or has parameters or is not of the correct class
+     */
+    public void setConstructor(Constructor<?> constructor) throws InvalidConstructorException {
+        if (constructor == null) throw new InvalidConstructorException("Constructor provided was null", null);
+        if (!constructor.getDeclaringClass().equals(type))
+            throw new InvalidConstructorException("The provided constructor was not from the correct class", constructor);
+        if (constructor.getParameterCount() != 0)
+            throw new InvalidConstructorException("The provided constructor has parameters!", constructor);
+        this.constructor = constructor;
+        this.migrator = migratorOf(plan(), constructor);
+    }
+
+    /**
+     * Create a migrator which uses a specific constructor
+     *
+     * @param plan        the plan of the class
+     * @param constructor the constructor of the class
+     * @param <T>         the type of the class
+     * @return the migrator using the constructor
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> TypedMigrator<T> migratorOf(MigrationPlan<T> plan, Constructor<?> constructor) {
+        return new PlanMigrator<>(plan, plan.instantiator((Constructor<T>) constructor));
+    }
+
+    /**
+     * Get the data which will be migrated
+     *
+     * @return the data to migrateToClass
+     */
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    /**
+     * Set the data to be migrated
+     *
+     * @param data the data to migrateToClass
+     */
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    /**
+     * The array of fields that will be migrated
+     * This array was made on instantiation and cannot be changed
+     * This array will only contain fields which
+     * have been annotated with {@link Migratable}
+     * or which's class has been annotated with {@link Migratable} and not exempted using {@link Exempt}
+     *
+     * @return the array with the migratable fields
+     */
+    public Field[] getMigratableFields() {
+        if (migratableFields == null) {
+            MigrationPlan<?> plan = plan();
+            migratableFields = new Field[plan.size()];
+            for (int i = 0; i < migratableFields.length; i++) migratableFields[i] = plan.getField(i).getField();
+        }
+        return migratableFields;
+    }
+}
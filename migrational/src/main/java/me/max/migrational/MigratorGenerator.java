@@ -0,0 +1,377 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@link GeneratedMigrator} subclass for one class at runtime.
+ * The generated migrateFields method creates the instance and sets all fields in straight-line code,
+ * public fields of public classes are stored directly and all other fields go through the accessors of the plan.
+ * <p>
+ * Every generated class is defined in its own class loader,
+ * so it can be unloaded together with the class it migrates to.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class MigratorGenerator {
+
+    //Java 5 class files do not need stack map frames
+    private static final int CLASS_VERSION = 49;
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    private static final String SUPER_CLASS = "me/max/migrational/GeneratedMigrator";
+    private static final String PLAN_DESCRIPTOR = "(Lme/max/migrational/MigrationPlan;)V";
+    private static final Set<String> LIBRARY_CLASSES = new HashSet<>(Arrays.asList(
+            GeneratedMigrator.class.getName(), MigrationPlan.class.getName(), TypedMigrator.class.getName()));
+
+    private static final int ACC_PUBLIC = 0x0001, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020, ACC_SYNTHETIC = 0x1000;
+
+    private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c, ALOAD_3 = 0x2d, ASTORE_2 = 0x4d, ASTORE_3 = 0x4e,
+            ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13, DUP = 0x59, IFNULL = 0xc6, ARETURN = 0xb0, RETURN = 0xb1,
+            PUTFIELD = 0xb5, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, NEW = 0xbb, CHECKCAST = 0xc0;
+
+    private final Map<String, Integer> constants = new HashMap<>();
+    private final ByteBuffer pool = new ByteBuffer();
+    private int constantCount = 1;
+
+    private MigratorGenerator() {
+    }
+
+    /**
+     * Generate, load and instantiate the migrator of a class
+     *
+     * @param plan the plan of the class
+     * @param <T>  the type of the class
+     * @return the generated migrator
+     * @throws ReflectiveOperationException if the generated class could not be instantiated
+     * @throws IllegalStateException        if the class has too many fields to fit in one method
+     */
+    @SuppressWarnings("unchecked")
+    static <T> TypedMigrator<T> generate(MigrationPlan<T> plan) throws ReflectiveOperationException {
+        Class<T> type = plan.getType();
+        String name = type.getName() + "$$Migrator";
+        byte[] bytes = new MigratorGenerator().generateClass(plan, name.replace('.', '/'));
+
+        Class<?> generated = new GeneratedClassLoader(type.getClassLoader()).define(name, bytes);
+        return (TypedMigrator<T>) generated.getConstructor(MigrationPlan.class).newInstance(plan);
+    }
+
+    /**
+     * Write the class file of the migrator
+     *
+     * @param plan the plan of the class
+     * @param name the internal name of the generated class
+     * @return the class file
+     */
+    private byte[] generateClass(MigrationPlan<?> plan, String name) {
+        int thisClass = classConstant(name);
+        int superClass = classConstant(SUPER_CLASS);
+        //Methods are written first as they still add constants to the pool
+        ByteBuffer methods = new ByteBuffer();
+        method(methods, "<init>", PLAN_DESCRIPTOR, 2, 2, generateConstructor());
+        method(methods, "migrateFields", "(Ljava/util/Map;)Ljava/lang/Object;", 4, 4, generateMigrate(plan));
+
+        ByteBuffer out = new ByteBuffer();
+        out.u4(0xCAFEBABE).u2(0).u2(CLASS_VERSION);
+        out.u2(constantCount).bytes(pool);
+        out.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC).u2(thisClass).u2(superClass);
+        out.u2(0); //Interfaces
+        out.u2(0); //Fields
+        out.u2(2).bytes(methods);
+        out.u2(0); //Attributes
+        return out.toByteArray();
+    }
+
+    /**
+     * Write a public method with only a code attribute
+     */
+    private void method(ByteBuffer out, String name, String descriptor, int maxStack, int maxLocals, byte[] code) {
+        out.u2(ACC_PUBLIC).u2(utf8Constant(name)).u2(utf8Constant(descriptor));
+        out.u2(1).u2(utf8Constant("Code")).u4(12 + code.length);
+        out.u2(maxStack).u2(maxLocals).u4(code.length).bytes(code);
+        out.u2(0); //Exception table
+        out.u2(0); //Attributes
+    }
+
+    /**
+     * The constructor passes the plan on to {@link GeneratedMigrator#GeneratedMigrator(MigrationPlan)}
+     */
+    private byte[] generateConstructor() {
+        ByteBuffer code = new ByteBuffer();
+        code.u1(ALOAD_0).u1(ALOAD_1);
+        code.u1(INVOKESPECIAL).u2(methodConstant(SUPER_CLASS, "<init>", PLAN_DESCRIPTOR));
+        code.u1(RETURN);
+        return code.toByteArray();
+    }
+
+    /**
+     * The migrateFields method, locals are 1: data, 2: target and 3: value
+     */
+    private byte[] generateMigrate(MigrationPlan<?> plan) {
+        Class<?> type = plan.getType();
+        String typeName = internalName(type);
+        boolean direct = isAccessible(type);
+        ByteBuffer code = new ByteBuffer();
+
+        Constructor<?> constructor = plan.getConstructor();
+        if (direct && constructor != null && Modifier.isPublic(constructor.getModifiers()) && !Modifier.isAbstract(type.getModifiers())) {
+            code.u1(NEW).u2(classConstant(typeName)).u1(DUP);
+            code.u1(INVOKESPECIAL).u2(methodConstant(typeName, "<init>", "()V"));
+        } else {
+            code.u1(ALOAD_0).u1(INVOKEVIRTUAL).u2(methodConstant(SUPER_CLASS, "instantiate", "()Ljava/lang/Object;"));
+            if (direct) code.u1(CHECKCAST).u2(classConstant(typeName));
+        }
+        code.u1(ASTORE_2);
+
+        for (int i = 0; i < plan.size(); i++) {
+            Field field = plan.getField(i).getField();
+
+            code.u1(ALOAD_0).u1(ALOAD_1);
+            pushInt(code, i);
+            code.u1(INVOKEVIRTUAL).u2(methodConstant(SUPER_CLASS, "value", "(Ljava/util/Map;I)Ljava/lang/Object;"));
+            code.u1(ASTORE_3).u1(ALOAD_3);
+            int jump = code.length();
+            code.u1(IFNULL).u2(0);
+
+            if (direct && isDirectlyWritable(field)) {
+                code.u1(ALOAD_2).u1(ALOAD_3);
+                unbox(code, field.getType());
+                code.u1(PUTFIELD).u2(fieldConstant(internalName(field.getDeclaringClass()), field.getName(), descriptor(field.getType())));
+            } else {
+                code.u1(ALOAD_0);
+                pushInt(code, i);
+                code.u1(ALOAD_2).u1(ALOAD_3);
+                code.u1(INVOKEVIRTUAL).u2(methodConstant(SUPER_CLASS, "set", "(ILjava/lang/Object;Ljava/lang/Object;)V"));
+            }
+            //Jump over the store when the value is null
+            code.patchU2(jump + 1, code.length() - jump);
+        }
+
+        code.u1(ALOAD_2).u1(ARETURN);
+        if (code.length() > MAX_CODE_LENGTH)
+            throw new IllegalStateException(type.getName() + " has too many fields to generate a migrator");
+        return code.toByteArray();
+    }
+
+    /**
+     * Cast the value on the stack to the type of the field, unboxing primitives
+     */
+    private void unbox(ByteBuffer code, Class<?> type) {
+        if (!type.isPrimitive()) {
+            if (type != Object.class) code.u1(CHECKCAST).u2(classConstant(internalName(type)));
+            return;
+        }
+
+        String box = internalName(ConverterRegistry.box(type));
+        code.u1(CHECKCAST).u2(classConstant(box));
+        code.u1(INVOKEVIRTUAL).u2(methodConstant(box, type.getName() + "Value", "()" + descriptor(type)));
+    }
+
+    private void pushInt(ByteBuffer code, int value) {
+        if (value <= 5) code.u1(ICONST_0 + value);
+        else if (value <= Byte.MAX_VALUE) code.u1(BIPUSH).u1(value);
+        else if (value <= Short.MAX_VALUE) code.u1(SIPUSH).u2(value);
+        else code.u1(LDC_W).u2(integerConstant(value));
+    }
+
+    /**
+     * Check if a field can be stored to from a class in another package and class loader
+     */
+    private static boolean isDirectlyWritable(Field field) {
+        int modifiers = field.getModifiers();
+        return Modifier.isPublic(modifiers) && !Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers)
+                && isAccessible(field.getDeclaringClass()) && isAccessible(field.getType());
+    }
+
+    /**
+     * Check if a class can be referenced from a class in another package and class loader
+     */
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) type = type.getComponentType();
+        if (type.isPrimitive()) return true;
+        for (Class<?> enclosing = type; enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            if (!Modifier.isPublic(enclosing.getModifiers())) return false;
+        }
+        return true;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) return internalName(type);
+        if (!type.isPrimitive()) return "L" + internalName(type) + ";";
+        if (type == boolean.class) return "Z";
+        if (type == long.class) return "J";
+        return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+    }
+
+    private int utf8Constant(String value) {
+        Integer index = constants.get("U" + value);
+        if (index != null) return index;
+        pool.u1(1).utf8(value);
+        return addConstant("U" + value);
+    }
+
+    private int classConstant(String internalName) {
+        Integer index = constants.get("C" + internalName);
+        if (index != null) return index;
+        int name = utf8Constant(internalName);
+        pool.u1(7).u2(name);
+        return addConstant("C" + internalName);
+    }
+
+    private int integerConstant(int value) {
+        Integer index = constants.get("I" + value);
+        if (index != null) return index;
+        pool.u1(3).u4(value);
+        return addConstant("I" + value);
+    }
+
+    private int nameAndTypeConstant(String name, String descriptor) {
+        Integer index = constants.get("N" + name + ":" + descriptor);
+        if (index != null) return index;
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        pool.u1(12).u2(nameIndex).u2(descriptorIndex);
+        return addConstant("N" + name + ":" + descriptor);
+    }
+
+    private int fieldConstant(String owner, String name, String descriptor) {
+        return memberConstant(9, owner, name, descriptor);
+    }
+
+    private int methodConstant(String owner, String name, String descriptor) {
+        return memberConstant(10, owner, name, descriptor);
+    }
+
+    private int memberConstant(int tag, String owner, String name, String descriptor) {
+        String key = tag + owner + "." + name + ":" + descriptor;
+        Integer index = constants.get(key);
+        if (index != null) return index;
+        int ownerIndex = classConstant(owner);
+        int nameAndType = nameAndTypeConstant(name, descriptor);
+        pool.u1(tag).u2(ownerIndex).u2(nameAndType);
+        return addConstant(key);
+    }
+
+    private int addConstant(String key) {
+        constants.put(key, constantCount);
+        return constantCount++;
+    }
+
+    /**
+     * A growable big-endian byte buffer
+     */
+    private static final class ByteBuffer {
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        ByteBuffer u1(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+            return this;
+        }
+
+        ByteBuffer u2(int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        ByteBuffer u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        ByteBuffer utf8(String value) {
+            //Class file strings use modified UTF-8
+            ByteBuffer encoded = new ByteBuffer();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    encoded.u1(c);
+                } else if (c < 0x800) {
+                    encoded.u1(0xC0 | (c >> 6)).u1(0x80 | (c & 0x3F));
+                } else {
+                    encoded.u1(0xE0 | (c >> 12)).u1(0x80 | ((c >> 6) & 0x3F)).u1(0x80 | (c & 0x3F));
+                }
+            }
+            return u2(encoded.length).bytes(encoded);
+        }
+
+        ByteBuffer bytes(ByteBuffer other) {
+            ensure(other.length);
+            System.arraycopy(other.bytes, 0, bytes, length, other.length);
+            length += other.length;
+            return this;
+        }
+
+        ByteBuffer bytes(byte[] other) {
+            ensure(other.length);
+            System.arraycopy(other, 0, bytes, length, other.length);
+            length += other.length;
+            return this;
+        }
+
+        void patchU2(int position, int value) {
+            bytes[position] = (byte) (value >>> 8);
+            bytes[position + 1] = (byte) value;
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+
+    /**
+     * Loads classes of the migrated class' loader, but the classes of this library from the library's own loader
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (LIBRARY_CLASSES.contains(name)) return Class.forName(name, false, GeneratedMigrator.class.getClassLoader());
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+/**
+ * Creates {@link TypedMigrator}s, these hold no data and can be shared between threads without locking.
+ * <pre>{@code
+ * TypedMigrator<User> migrator = Migrators.forClass(User.class);
+ * User user = migrator.migrate(data);
+ * }</pre>
+ *
+ * @author Max Berkelmans
+ * @see Migrator
+ * @since 1.2.0
+ */
+public final class Migrators {
+
+    private static final ClassValue<TypedMigrator<?>> MIGRATORS = new ClassValue<TypedMigrator<?>>() {
+        @Override
+        protected TypedMigrator<?> computeValue(Class<?> type) {
+            TypedMigrator<?> migrator = CompiledMigrators.find(type);
+            return migrator != null ? migrator : forPlan(MigrationPlan.of(type));
+        }
+    };
+
+    private Migrators() {
+    }
+
+    /**
+     * Get the migrator of a class
+     * The migrator generated by the migrational-processor is used if there is one,
+     * otherwise the migrator uses the {@link MigrationPlan} of the class.
+     *
+     * @param clazz the class to migrate to
+     * @param <T>   the type of the class
+     * @return the shared migrator of this class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TypedMigrator<T> forClass(Class<T> clazz) {
+        return (TypedMigrator<T>) MIGRATORS.get(clazz);
+    }
+
+    /**
+     * Create a migrator which uses a specific plan
+     * This can be used to migrate using a different {@link AccessorBackend}.
+     *
+     * @param plan the plan of the class to migrate to
+     * @param <T>  the type of the class
+     * @return a migrator using the plan
+     */
+    public static <T> TypedMigrator<T> forPlan(MigrationPlan<T> plan) {
+        return new PlanMigrator<>(plan);
+    }
+}
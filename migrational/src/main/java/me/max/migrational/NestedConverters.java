@@ -0,0 +1,246 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Creates the converters of fields holding other migratable classes, directly or in a collection, map or array.
+ * The converters are built from the generic type of the field when its plan is made,
+ * the migrators of the nested classes are looked up the first time they are needed
+ * so classes referring to themselves or to each other do not recurse while planning.
+ * Nested classes are migrated using the backend and converters of the plan of the outer class.
+ *
+ * @author Max Berkelmans
+ * @see MigrationField
+ * @since 1.2.0
+ */
+final class NestedConverters {
+
+    private NestedConverters() {
+    }
+
+    /**
+     * Create the converter of a type if it holds a migratable class
+     *
+     * @param type       the generic type of the field
+     * @param backend    the backend to migrate nested classes with
+     * @param converters the registry to migrate nested classes with
+     * @return the converter or null if the type does not hold a migratable class
+     */
+    static Converter<Object> find(Type type, AccessorBackend backend, ConverterRegistry converters) {
+        Class<?> raw = raw(type);
+        if (raw == null) return null;
+
+        if (raw.isArray()) {
+            Type component = type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : raw.getComponentType();
+            Converter<Object> element = find(component, backend, converters);
+            return element == null ? null : new ArrayConverter(raw.getComponentType(), element);
+        }
+        if (Collection.class.isAssignableFrom(raw) || Map.class.isAssignableFrom(raw)) {
+            if (!(type instanceof ParameterizedType)) return null;
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            Type elementType = arguments[arguments.length - 1];
+            Converter<Object> element = find(elementType, backend, converters);
+            if (element == null) return null;
+            if (Map.class.isAssignableFrom(raw)) {
+                IntFunction<Map<Object, Object>> factory = mapFactory(raw);
+                return factory == null ? null : new MapConverter(factory, element);
+            }
+            IntFunction<Collection<Object>> factory = collectionFactory(raw);
+            return factory == null ? null : new CollectionConverter(factory, element);
+        }
+        return MigrationPlan.isMigratable(raw) ? new ObjectConverter(raw, backend, converters) : null;
+    }
+
+    /**
+     * Check if a converter was made by this class and so has to convert values which are already of the field type,
+     * a list of maps is a list but its elements still have to be migrated
+     *
+     * @param converter the converter
+     * @return true if the converter converts containers
+     */
+    static boolean isContainer(Converter<?> converter) {
+        return converter instanceof ArrayConverter || converter instanceof CollectionConverter || converter instanceof MapConverter;
+    }
+
+    private static Class<?> raw(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return raw(((ParameterizedType) type).getRawType());
+        if (type instanceof GenericArrayType) {
+            Class<?> component = raw(((GenericArrayType) type).getGenericComponentType());
+            return component == null ? null : Array.newInstance(component, 0).getClass();
+        }
+        //Type variables and wildcards are not known while planning
+        return null;
+    }
+
+    /**
+     * Get a factory creating a presized collection which can be assigned to the type
+     */
+    private static IntFunction<Collection<Object>> collectionFactory(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class)) return ArrayList::new;
+        if (type.isAssignableFrom(LinkedHashSet.class)) return size -> new LinkedHashSet<>(capacity(size));
+        if (type.isAssignableFrom(HashSet.class)) return size -> new HashSet<>(capacity(size));
+        if (type.isAssignableFrom(TreeSet.class)) return size -> new TreeSet<>();
+        if (type.isAssignableFrom(ArrayDeque.class)) return ArrayDeque::new;
+        return null;
+    }
+
+    /**
+     * Get a factory creating a presized map which can be assigned to the type
+     */
+    private static IntFunction<Map<Object, Object>> mapFactory(Class<?> type) {
+        if (type.isAssignableFrom(LinkedHashMap.class)) return size -> new LinkedHashMap<>(capacity(size));
+        if (type.isAssignableFrom(HashMap.class)) return size -> new HashMap<>(capacity(size));
+        if (type.isAssignableFrom(TreeMap.class)) return size -> new TreeMap<>();
+        if (type.isAssignableFrom(ConcurrentHashMap.class)) return size -> new ConcurrentHashMap<>(capacity(size));
+        return null;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * Get the elements of a collection or array value
+     */
+    private static Collection<?> elements(Object value) {
+        if (value instanceof Collection) return (Collection<?>) value;
+        if (value instanceof Object[]) return Arrays.asList((Object[]) value);
+        throw new IllegalArgumentException("Cannot convert " + value.getClass().getName() + " into a collection");
+    }
+
+    /**
+     * Migrates a map into a migratable class
+     */
+    private static final class ObjectConverter implements Converter<Object> {
+
+        private final Class<?> type;
+        private final AccessorBackend backend;
+        private final ConverterRegistry converters;
+        private TypedMigrator<?> migrator;
+
+        ObjectConverter(Class<?> type, AccessorBackend backend, ConverterRegistry converters) {
+            this.type = type;
+            this.backend = backend;
+            this.converters = converters;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object convert(Object value) {
+            if (type.isInstance(value)) return value;
+            if (!(value instanceof Map))
+                throw new IllegalArgumentException("Cannot migrate " + value.getClass().getName() + " into " + type.getName());
+
+            //Migrators are shared, so a race only looks it up twice
+            TypedMigrator<?> migrator = this.migrator;
+            if (migrator == null) this.migrator = migrator = migrator();
+            return migrator.migrate((Map<String, Object>) value);
+        }
+
+        /**
+         * The default reflection plan may use the migrator generated for the class, any other plan is kept by the registry
+         */
+        private TypedMigrator<?> migrator() {
+            if (backend == AccessorBackend.REFLECTION && converters == ConverterRegistry.defaults()) return Migrators.forClass(type);
+            return Migrators.forPlan(converters.plan(type, backend));
+        }
+    }
+
+    private static final class ArrayConverter implements Converter<Object> {
+
+        private final Class<?> componentType;
+        private final Converter<Object> element;
+
+        ArrayConverter(Class<?> componentType, Converter<Object> element) {
+            this.componentType = componentType;
+            this.element = element;
+        }
+
+        @Override
+        public Object convert(Object value) {
+            Collection<?> elements = elements(value);
+            Object array = Array.newInstance(componentType, elements.size());
+            int index = 0;
+            for (Object item : elements) Array.set(array, index++, item == null ? null : element.convert(item));
+            return array;
+        }
+    }
+
+    private static final class CollectionConverter implements Converter<Object> {
+
+        private final IntFunction<Collection<Object>> factory;
+        private final Converter<Object> element;
+
+        CollectionConverter(IntFunction<Collection<Object>> factory, Converter<Object> element) {
+            this.factory = factory;
+            this.element = element;
+        }
+
+        @Override
+        public Object convert(Object value) {
+            Collection<?> elements = elements(value);
+            Collection<Object> collection = factory.apply(elements.size());
+            for (Object item : elements) collection.add(item == null ? null : element.convert(item));
+            return collection;
+        }
+    }
+
+    private static final class MapConverter implements Converter<Object> {
+
+        private final IntFunction<Map<Object, Object>> factory;
+        private final Converter<Object> element;
+
+        MapConverter(IntFunction<Map<Object, Object>> factory, Converter<Object> element) {
+            this.factory = factory;
+            this.element = element;
+        }
+
+        @Override
+        public Object convert(Object value) {
+            if (!(value instanceof Map))
+                throw new IllegalArgumentException("Cannot convert " + value.getClass().getName() + " into a map");
+            Map<?, ?> entries = (Map<?, ?>) value;
+            Map<Object, Object> map = factory.apply(entries.size());
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                Object item = entry.getValue();
+                map.put(entry.getKey(), item == null ? null : element.convert(item));
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the resolved metadata of plans in a local file, so short lived processes do not scan the same classes on every start.
+ * For every class the file holds the fields in order with their keys, aliases and default values and the constructor or creator to use,
+ * keyed by the name of the class and a hash of the bytes of the class and its superclasses.
+ * <p>
+ * A plan is built from its entry by looking up the listed fields and constructors directly instead of scanning annotations,
+ * classes which changed since the entry was written are scanned again and their entry is replaced.
+ * <pre>{@code
+ * PlanCache cache = PlanCache.open(Paths.get("migrational.cache")).install();
+ * //Migrate as usual
+ * cache.save();
+ * }</pre>
+ * Only plans using {@link ConverterRegistry#defaults()} are cached.
+ *
+ * @author Max Berkelmans
+ * @see MigrationPlan
+ * @since 1.2.0
+ */
+public final class PlanCache {
+
+    private static final int MAGIC = 0x4d504c43, VERSION = 2;
+    private static final String CONSTRUCTOR = "<init>";
+
+    private static volatile PlanCache installed;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile boolean changed;
+
+    private PlanCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the cache stored in a file, the file is read in one read and closed again so it can be replaced by {@link #save()}
+     * A missing file or a file written by another version of this library gives an empty cache,
+     * as does a truncated or corrupted file as every size in it is checked against the bytes which are left.
+     *
+     * @param file the file of the cache
+     * @return the cache
+     * @throws UncheckedIOException if the file exists but could not be read
+     */
+    public static PlanCache open(Path file) {
+        PlanCache cache = new PlanCache(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            //The file is read into the heap instead of being mapped, a mapping would keep it from being replaced on save
+            if (channel.size() > Integer.MAX_VALUE) return cache;
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) ;
+            buffer.flip();
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return cache;
+            for (int i = Entry.count(buffer, Entry.MIN_ENTRY); i > 0; i--) {
+                Entry entry = Entry.read(buffer);
+                cache.entries.put(entry.type, entry);
+            }
+        } catch (NoSuchFileException e) {
+            return cache;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            //A truncated or corrupted file, every entry will be scanned again
+            cache.entries.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the plan cache " + file, e);
+        }
+        return cache;
+    }
+
+    /**
+     * Use this cache for every plan which is not resolved yet, like the plans of {@link MigrationPlan#of(Class)}
+     * This should be done before anything is migrated, plans which were already resolved are not replaced.
+     *
+     * @return this cache
+     */
+    public PlanCache install() {
+        installed = this;
+        return this;
+    }
+
+    /**
+     * Get the installed cache
+     *
+     * @return the installed cache or null if there is none
+     */
+    static PlanCache installed() {
+        return installed;
+    }
+
+    /**
+     * Get the plan of a class, from its entry if the class did not change or by scanning the class
+     * Plans are not shared, use {@link #install()} to have the plans of {@link MigrationPlan#of(Class)} use this cache.
+     *
+     * @param clazz   the class to get the plan for
+     * @param backend the backend used to write fields and create instances
+     * @param <T>     the type of the class
+     * @return a new plan of the class
+     * @throws me.max.migrational.exceptions.InvalidDefaultValueException if a default value cannot be parsed
+     */
+    public <T> MigrationPlan<T> plan(Class<T> clazz, AccessorBackend backend) {
+        long hash = hash(clazz);
+        //Classes of which we cannot read the bytes are never cached
+        if (hash < 0) return MigrationPlan.scan(clazz, backend);
+
+        Entry entry = entries.get(clazz.getName());
+        if (entry != null && entry.hash == hash) {
+            MigrationPlan<T> plan = entry.plan(clazz, backend);
+            if (plan != null) {
+                hits.incrementAndGet();
+                return plan;
+            }
+        }
+
+        MigrationPlan<T> plan = MigrationPlan.scan(clazz, backend);
+        entries.put(clazz.getName(), Entry.of(plan, hash));
+        changed = true;
+        return plan;
+    }
+
+    /**
+     * Write the cache to its file if any entry was added or replaced since it was opened or saved
+     * The file is replaced at once where the file system supports it, so a process reading it never sees a partly written cache.
+     *
+     * @throws UncheckedIOException if the file could not be written
+     */
+    public void save() {
+        if (!changed) return;
+        changed = false;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    Entry[] snapshot = entries.values().toArray(new Entry[0]);
+                    out.writeInt(snapshot.length);
+                    for (Entry entry : snapshot) entry.write(out);
+                }
+                try {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    //Readers may see a partly written cache, it is then discarded as corrupted
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                deleteTemporary(temporary);
+            }
+        } catch (IOException e) {
+            changed = true;
+            throw new UncheckedIOException("Could not write the plan cache " + file, e);
+        }
+    }
+
+    /**
+     * Delete the temporary file, which is only left when writing or moving it failed
+     * Failing to delete it is ignored so the error of writing or moving is the one which is reported.
+     */
+    private static void deleteTemporary(Path temporary) {
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            //Nothing more we can do, the file is left behind
+        }
+    }
+
+    /**
+     * Get the amount of classes in this cache
+     *
+     * @return the amount of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the amount of plans which were built from an entry instead of scanning
+     */
+    int hits() {
+        return hits.get();
+    }
+
+    /**
+     * Hash the bytes of a class and its superclasses, a change to any of them can change the plan
+     *
+     * @return the hash or -1 if the bytes of a class could not be read
+     */
+    private static long hash(Class<?> type) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            ClassLoader loader = current.getClassLoader();
+            if (loader == null) continue; //Classes of the platform do not change
+            try (InputStream in = loader.getResourceAsStream(current.getName().replace('.', '/') + ".class")) {
+                if (in == null) return -1;
+                for (int read; (read = in.read(buffer)) != -1; ) crc.update(buffer, 0, read);
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * The stored metadata of the plan of one class
+     */
+    private static final class Entry {
+
+        //The least amount of bytes an entry and a field take, every string takes at least its length
+        static final int MIN_ENTRY = 4 + 8 + 1 + 4 + 4 + 4, MIN_FIELD = 4 + 4 + 4 + 4 + 1 + 4;
+
+        private final String type;
+        private final long hash;
+        private final boolean constructor;
+        private final String[] owners, names, keys, defaults;
+        private final String[][] aliases;
+        private final boolean[] ignoreCase;
+        private final String creator;
+        private final String[] parameters;
+        private final int[] slots;
+
+        private Entry(String type, long hash, boolean constructor, String[] owners, String[] names, String[] keys, String[][] aliases,
+                      boolean[] ignoreCase, String[] defaults, String creator, String[] parameters, int[] slots) {
+            this.type = type;
+            this.hash = hash;
+            this.constructor = constructor;
+            this.owners = owners;
+            this.names = names;
+            this.keys = keys;
+            this.aliases = aliases;
+            this.ignoreCase = ignoreCase;
+            this.defaults = defaults;
+            this.creator = creator;
+            this.parameters = parameters;
+            this.slots = slots;
+        }
+
+        static Entry of(MigrationPlan<?> plan, long hash) {
+            MigrationField[] fields = plan.fields();
+            String[] owners = new String[fields.length], names = new String[fields.length];
+            String[] keys = new String[fields.length], defaults = new String[fields.length];
+            String[][] aliases = new String[fields.length][];
+            boolean[] ignoreCase = new boolean[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                owners[i] = fields[i].getField().getDeclaringClass().getName();
+                names[i] = fields[i].getField().getName();
+                keys[i] = fields[i].getKey();
+                aliases[i] = fields[i].aliases();
+                ignoreCase[i] = fields[i].isIgnoreCase();
+                defaults[i] = fields[i].getDefaultText();
+            }
+
+            String creator = null;
+            String[] parameters = new String[0];
+            int[] slots = new int[0];
+            if (plan.creator() != null) {
+                Executable executable = plan.creator().getExecutable();
+                creator = executable instanceof Constructor ? CONSTRUCTOR : executable.getName();
+                Class<?>[] types = executable.getParameterTypes();
+                parameters = new String[types.length];
+                for (int i = 0; i < types.length; i++) parameters[i] = types[i].getName();
+                slots = plan.creator().slots();
+            }
+            return new Entry(plan.getType().getName(), hash, plan.getConstructor() != null, owners, names, keys, aliases, ignoreCase, defaults, creator, parameters, slots);
+        }
+
+        /**
+         * Build the plan of the class by looking up the listed fields and constructors
+         *
+         * @return the plan or null if something listed does not exist anymore
+         */
+        @SuppressWarnings("unchecked")
+        <T> MigrationPlan<T> plan(Class<T> type, AccessorBackend backend) {
+            try {
+                MigrationField[] fields = new MigrationField[names.length];
+                for (int i = 0; i < fields.length; i++) {
+                    Field field = owner(type, owners[i]).getDeclaredField(names[i]);
+                    if (Modifier.isPrivate(field.getModifiers())) field.setAccessible(true);
+                    fields[i] = new MigrationField(field, keys[i], aliases[i], ignoreCase[i], defaults[i], backend, ConverterRegistry.defaults());
+                }
+
+                Constructor<T> zeroParameterConstructor = null;
+                if (constructor) {
+                    zeroParameterConstructor = type.getDeclaredConstructor();
+                    if (Modifier.isPrivate(zeroParameterConstructor.getModifiers())) zeroParameterConstructor.setAccessible(true);
+                }
+
+                Executable executable = null;
+                if (creator != null) {
+                    Class<?>[] types = new Class<?>[parameters.length];
+                    for (int i = 0; i < types.length; i++) types[i] = load(parameters[i], type.getClassLoader());
+                    executable = creator.equals(CONSTRUCTOR) ? type.getDeclaredConstructor(types) : type.getDeclaredMethod(creator, types);
+                }
+                return new MigrationPlan<>(type, backend, zeroParameterConstructor, fields, executable, slots);
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+
+        private static Class<?> owner(Class<?> type, String name) throws ClassNotFoundException {
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                if (current.getName().equals(name)) return current;
+            }
+            throw new ClassNotFoundException(name);
+        }
+
+        private static Class<?> load(String name, ClassLoader loader) throws ClassNotFoundException {
+            switch (name) {
+                case "boolean":
+                    return boolean.class;
+                case "byte":
+                    return byte.class;
+                case "char":
+                    return char.class;
+                case "short":
+                    return short.class;
+                case "int":
+                    return int.class;
+                case "long":
+                    return long.class;
+                case "float":
+                    return float.class;
+                case "double":
+                    return double.class;
+                default:
+                    return Class.forName(name, false, loader);
+            }
+        }
+
+        /**
+         * Read an entry, checking every size against the bytes which are left
+         *
+         * @throws IllegalArgumentException if the entry is corrupted
+         * @throws BufferUnderflowException if the entry is truncated
+         */
+        static Entry read(ByteBuffer buffer) {
+            String type = required(buffer);
+            long hash = buffer.getLong();
+            boolean constructor = buffer.get() != 0;
+            int size = count(buffer, MIN_FIELD);
+            String[] owners = new String[size], names = new String[size], keys = new String[size], defaults = new String[size];
+            String[][] aliases = new String[size][];
+            boolean[] ignoreCase = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                owners[i] = required(buffer);
+                names[i] = required(buffer);
+                keys[i] = required(buffer);
+                aliases[i] = new String[count(buffer, 4)];
+                for (int j = 0; j < aliases[i].length; j++) aliases[i][j] = required(buffer);
+                ignoreCase[i] = buffer.get() != 0;
+                defaults[i] = string(buffer);
+            }
+            String creator = string(buffer);
+            int count = count(buffer, 8);
+            String[] parameters = new String[count];
+            int[] slots = new int[count];
+            for (int i = 0; i < count; i++) {
+                parameters[i] = required(buffer);
+                slots[i] = buffer.getInt();
+                if (slots[i] < 0 || slots[i] >= size) throw new IllegalArgumentException("Slot " + slots[i] + " is out of range");
+            }
+            return new Entry(type, hash, constructor, owners, names, keys, aliases, ignoreCase, defaults, creator, parameters, slots);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            string(out, type);
+            out.writeLong(hash);
+            out.writeByte(constructor ? 1 : 0);
+            out.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                string(out, owners[i]);
+                string(out, names[i]);
+                string(out, keys[i]);
+                out.writeInt(aliases[i].length);
+                for (String alias : aliases[i]) string(out, alias);
+                out.writeByte(ignoreCase[i] ? 1 : 0);
+                string(out, defaults[i]);
+            }
+            string(out, creator);
+            out.writeInt(parameters.length);
+            for (int i = 0; i < parameters.length; i++) {
+                string(out, parameters[i]);
+                out.writeInt(slots[i]);
+            }
+        }
+
+        /**
+         * Read an amount of items which each take at least a number of bytes
+         *
+         * @throws IllegalArgumentException if the amount is negative or the items cannot fit in the bytes which are left
+         */
+        static int count(ByteBuffer buffer, int bytes) {
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * bytes > buffer.remaining())
+                throw new IllegalArgumentException("Count " + count + " does not fit in " + buffer.remaining() + " bytes");
+            return count;
+        }
+
+        /**
+         * Read a string which cannot be null
+         */
+        private static String required(ByteBuffer buffer) {
+            String value = string(buffer);
+            if (value == null) throw new IllegalArgumentException("Missing string at " + buffer.position());
+            return value;
+        }
+
+        /**
+         * Read a string stored as its length in UTF-8 bytes followed by the bytes, a length of -1 is null
+         */
+        private static String string(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length == -1) return null;
+            if (length < 0 || length > buffer.remaining())
+                throw new IllegalArgumentException("Length " + length + " does not fit in " + buffer.remaining() + " bytes");
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static void string(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidConstructorException;
+import me.max.migrational.exceptions.MigrationException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+/**
+ * A {@link TypedMigrator} which migrates using the accessors of a {@link MigrationPlan}.
+ * It holds no state besides the plan, so it can be used from many threads at once.
+ *
+ * @param <T> the type of the class this migrates to
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+final class PlanMigrator<T> implements TypedMigrator<T> {
+
+    private final MigrationPlan<T> plan;
+    private final Instantiator<T> instantiator;
+
+    /**
+     * @param plan the plan of the class to migrate to
+     */
+    PlanMigrator(MigrationPlan<T> plan) {
+        this(plan, plan.getConstructor() == null ? null : plan.instantiator(plan.getConstructor()));
+    }
+
+    /**
+     * @param plan         the plan of the class to migrate to
+     * @param instantiator the instantiator to create instances with or null if there is none
+     */
+    PlanMigrator(MigrationPlan<T> plan, Instantiator<T> instantiator) {
+        this.plan = plan;
+        this.instantiator = instantiator;
+    }
+
+    @Override
+    public T migrate(Map<String, Object> data) {
+        ArgumentInstantiator<T> creator = plan.creator();
+        if (creator == null) return migrateInto(plan, newInstance(plan, instantiator), data);
+
+        return creator.newInstance(resolve(plan, data));
+    }
+
+    @Override
+    public T migrateInto(T target, Map<String, Object> data) {
+        return migrateInto(plan, target, data);
+    }
+
+    @Override
+    public T migrate(MigrationRecord record) {
+        return migrate(plan, instantiator, record);
+    }
+
+    /**
+     * Set every field of the plan which has a value in the data on an existing object
+     *
+     * @param plan   the plan of the class
+     * @param target the object to migrate into
+     * @param data   the data to migrate
+     * @param <T>    the type of the class
+     * @return the target
+     * @throws MigrationException if a field could not be set
+     */
+    static <T> T migrateInto(MigrationPlan<?> plan, T target, Map<String, Object> data) {
+        if (plan.isAliased()) {
+            MigrationField[] fields = plan.fields();
+            Object[] values = plan.keys().resolve(fields, data, null);
+            for (int i = 0; i < fields.length; i++) {
+                if (values[i] != null) set(fields[i], target, values[i]);
+            }
+            return target;
+        }
+
+        for (MigrationField field : plan.fields()) {
+            Object val = field.resolve(data);
+            if (val == null) continue;
+            set(field, target, val);
+        }
+        return target;
+    }
+
+    /**
+     * Resolve the values of every field of the plan from the data
+     *
+     * @param plan the plan of the class
+     * @param data the data to resolve the values from
+     * @return the value of every field, null if there is nothing to migrate
+     * @throws IllegalArgumentException if a value could not be converted
+     */
+    static Object[] resolve(MigrationPlan<?> plan, Map<String, Object> data) {
+        MigrationField[] fields = plan.fields();
+        if (plan.isAliased()) return plan.keys().resolve(fields, data, null);
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) values[i] = fields[i].resolve(data);
+        return values;
+    }
+
+    /**
+     * Migrate a record by slot
+     *
+     * @param plan         the plan of the class
+     * @param instantiator the instantiator to use or null if the class has no zero parameter constructor, unused if the class has a creator
+     * @param record       the record to migrate
+     * @param <T>          the type of the class
+     * @return the migrated object
+     * @throws IllegalArgumentException if the record was not made for this class
+     * @throws MigrationException       if the instance could not be created or a field could not be set
+     */
+    static <T> T migrate(MigrationPlan<T> plan, Instantiator<T> instantiator, MigrationRecord record) {
+        if (record.getSchema().getType() != plan.getType())
+            throw new IllegalArgumentException("The record of " + record.getSchema().getType().getName() + " cannot be migrated to " + plan.getType().getName());
+        MigrationField[] fields = plan.fields();
+        ArgumentInstantiator<T> creator = plan.creator();
+        if (creator != null) {
+            Object[] values = new Object[fields.length];
+            for (int slot = 0; slot < fields.length; slot++) {
+                values[slot] = record.state(slot) == MigrationRecord.PRIMITIVE
+                        ? MigrationField.box(fields[slot].kind(), record.primitive(slot))
+                        : fields[slot].resolve(record, slot);
+            }
+            return creator.newInstance(values);
+        }
+
+        T target = newInstance(plan, instantiator);
+        for (int slot = 0; slot < fields.length; slot++) {
+            MigrationField field = fields[slot];
+            if (record.state(slot) == MigrationRecord.PRIMITIVE) {
+                try {
+                    field.setPrimitive(target, record.primitive(slot));
+                } catch (IllegalAccessException | IllegalArgumentException e) {
+                    throw new MigrationException("Could not set " + field.getField(), e);
+                }
+                continue;
+            }
+            Object val = field.resolve(record, slot);
+            if (val == null) continue;
+            set(field, target, val);
+        }
+        return target;
+    }
+
+    /**
+     * Create a new instance, wrapping any reflective exception
+     *
+     * @param plan         the plan of the class
+     * @param instantiator the instantiator to use or null if the class has no zero parameter constructor
+     * @param <T>          the type of the class
+     * @return the new instance
+     * @throws InvalidConstructorException if there is no instantiator
+     * @throws MigrationException          if the instance could not be created
+     */
+    static <T> T newInstance(MigrationPlan<T> plan, Instantiator<T> instantiator) {
+        if (instantiator == null)
+            throw new InvalidConstructorException("No zero parameter constructor was found in " + plan.getType().getName(), null);
+        try {
+            return instantiator.newInstance();
+        } catch (IllegalAccessException | InvocationTargetException | InstantiationException e) {
+            throw new MigrationException("Could not create an instance of " + plan.getType().getName(), e);
+        }
+    }
+
+    /**
+     * Set a field, wrapping any reflective exception
+     *
+     * @param field  the field to set
+     * @param target the object to set the field on
+     * @param value  the value to set
+     * @throws MigrationException if the field could not be set
+     */
+    static void set(MigrationField field, Object target, Object value) {
+        try {
+            field.set(target, value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new MigrationException("Could not set " + field.getField(), e);
+        }
+    }
+}
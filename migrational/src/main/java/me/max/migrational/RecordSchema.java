@@ -0,0 +1,176 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The key layout of the {@link MigrationRecord}s of one class.
+ * Every migratable field has a slot, the slot of a key is resolved once so records can be filled and read without hashing.
+ * A schema is created with the {@link MigrationPlan} of its class, see {@link MigrationPlan#getSchema()}.
+ * <p>
+ * The aliases of fields and keys matched ignoring case resolve to the slot of their field as well.
+ * Readers which fill a slot from more than one key should let the key of the field win over its aliases, see {@link #isKey(int, String)}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class RecordSchema {
+
+    private final Class<?> type;
+    private final String[] keys;
+    private final int[] kinds;
+    private final Class<?>[] types;
+    private final Map<String, Integer> slots;
+    private final String[][] aliases;
+    private final boolean[] ignoreCase;
+    private final KeyTable table;
+
+    /**
+     * @param type   the class of the schema
+     * @param fields the migratable fields of the class, their index is their slot
+     * @param table  the key table of the fields, used for aliases and keys matched ignoring case
+     */
+    RecordSchema(Class<?> type, MigrationField[] fields, KeyTable table) {
+        this.type = type;
+        this.table = table;
+        this.keys = new String[fields.length];
+        this.aliases = new String[fields.length][];
+        this.ignoreCase = new boolean[fields.length];
+        this.kinds = new int[fields.length];
+        this.types = new Class<?>[fields.length];
+        this.slots = new HashMap<>((int) (fields.length / 0.75f) + 1);
+        for (int i = 0; i < fields.length; i++) {
+            keys[i] = fields[i].getKey();
+            kinds[i] = fields[i].kind();
+            types[i] = fields[i].getField().getType();
+            aliases[i] = fields[i].aliases();
+            ignoreCase[i] = fields[i].isIgnoreCase();
+            slots.put(keys[i], i);
+        }
+    }
+
+    /**
+     * Get the slot of a key, this should be done once and not for every record.
+     * Aliases and keys matched ignoring case are resolved to the slot of their field,
+     * a key which is the key of one field and an alias of another resolves to the field whose key it is.
+     *
+     * @param key the key or alias of the field
+     * @return the slot of the key or -1 if no field has this key
+     */
+    public int slot(String key) {
+        Integer slot = slots.get(key);
+        if (slot != null) return slot;
+
+        int[] targets = table.find(key);
+        if (targets == null) return -1;
+        for (int target : targets) {
+            //The lowest bit is set when it is the key of the field itself
+            if ((target & 1) != 0) return target >> 1;
+        }
+        return targets[0] >> 1;
+    }
+
+    /**
+     * Check if a key is the key of the field in a slot itself and not one of its aliases
+     *
+     * @param slot the slot
+     * @param key  the key found in the data
+     * @return true if it is the key of the field, matched ignoring case if the field does
+     */
+    public boolean isKey(int slot, String key) {
+        if (keys[slot].equals(key)) return true;
+        return ignoreCase[slot] && KeyTable.fold(keys[slot]).equals(KeyTable.fold(key));
+    }
+
+    /**
+     * Get the aliases of the field in a slot
+     *
+     * @param slot the slot
+     * @return a copy of the aliases, empty if the field has none
+     */
+    public String[] getAliases(int slot) {
+        return aliases[slot].clone();
+    }
+
+    /**
+     * Check if the key and aliases of the field in a slot match keys ignoring case
+     *
+     * @param slot the slot
+     * @return true if keys are matched ignoring case
+     */
+    public boolean isIgnoreCase(int slot) {
+        return ignoreCase[slot];
+    }
+
+    /**
+     * Get the key of a slot
+     *
+     * @param slot the slot
+     * @return the key of the field in this slot
+     */
+    public String getKey(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Get the type of the field in a slot, readers use it to pick the primitive setter of the builder
+     *
+     * @param slot the slot
+     * @return the declared type of the field
+     */
+    public Class<?> getFieldType(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Get the amount of slots
+     *
+     * @return the amount of slots
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Get the class this schema was made for
+     *
+     * @return the class of this schema
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Start a new record
+     *
+     * @return a builder for a record of this schema
+     */
+    public MigrationRecord.Builder newRecord() {
+        return new MigrationRecord.Builder(this);
+    }
+
+    /**
+     * Get the primitive kind of the field in a slot, see {@link MigrationField#kind()}
+     */
+    int kind(int slot) {
+        return kinds[slot];
+    }
+}
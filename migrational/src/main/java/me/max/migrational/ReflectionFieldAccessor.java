@@ -0,0 +1,90 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.lang.reflect.Field;
+
+/**
+ * A {@link FieldAccessor} using core reflection.
+ *
+ * @author Max Berkelmans
+ * @see AccessorBackend#REFLECTION
+ * @since 1.2.0
+ */
+final class ReflectionFieldAccessor implements FieldAccessor {
+
+    private final Field field;
+
+    /**
+     * @param field the field, this should already be accessible
+     */
+    ReflectionFieldAccessor(Field field) {
+        this.field = field;
+    }
+
+    @Override
+    public void set(Object target, Object value) throws IllegalAccessException {
+        field.set(target, value);
+    }
+
+    @Override
+    public void setInt(Object target, int value) throws IllegalAccessException {
+        field.setInt(target, value);
+    }
+
+    @Override
+    public void setLong(Object target, long value) throws IllegalAccessException {
+        field.setLong(target, value);
+    }
+
+    @Override
+    public void setBoolean(Object target, boolean value) throws IllegalAccessException {
+        field.setBoolean(target, value);
+    }
+
+    @Override
+    public void setDouble(Object target, double value) throws IllegalAccessException {
+        field.setDouble(target, value);
+    }
+
+    @Override
+    public Object get(Object target) throws IllegalAccessException {
+        return field.get(target);
+    }
+
+    @Override
+    public int getInt(Object target) throws IllegalAccessException {
+        return field.getInt(target);
+    }
+
+    @Override
+    public long getLong(Object target) throws IllegalAccessException {
+        return field.getLong(target);
+    }
+
+    @Override
+    public boolean getBoolean(Object target) throws IllegalAccessException {
+        return field.getBoolean(target);
+    }
+
+    @Override
+    public double getDouble(Object target) throws IllegalAccessException {
+        return field.getDouble(target);
+    }
+}
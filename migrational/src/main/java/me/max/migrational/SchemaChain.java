@@ -0,0 +1,434 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.annotations.Migratable;
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Migrates data of older versions of a class, declared with {@link Migratable#version()}, in a single pass.
+ * Every version has steps which rename, convert, derive or remove keys to reach the next version.
+ * The steps are not run one version after the other, instead the steps are fused into one resolver per field
+ * which reads the old data directly, so no map is created for the versions in between.
+ * <pre>{@code
+ * @Migratable(version = 3)
+ * public class User { private String firstName; private double height; }
+ *
+ * SchemaChain<User> chain = SchemaChain.builder(User.class)
+ *         .from(1).rename("name", "fullName")
+ *         .from(2).derive("firstName", values -> ((String) values[0]).split(" ")[0], "fullName")
+ *                 .convert("height", centimeters -> ((Number) centimeters).doubleValue() / 100)
+ *         .build();
+ *
+ * User user = chain.migrate(1, oldData);
+ * }</pre>
+ * Every step of a version reads the keys of that version, so a key can only be written once per version.
+ * The aliases of a field are matched wherever its key is read from the source data unchanged.
+ *
+ * @param <T> the type of the class
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class SchemaChain<T> {
+
+    //Returned by resolvers when the key is not in the data, so it can be told apart from a null value
+    private static final Object MISSING = new Object();
+
+    private final MigrationPlan<T> plan;
+    private final int version;
+    private final TypedMigrator<T>[] migrators;
+
+    @SuppressWarnings("unchecked")
+    private SchemaChain(MigrationPlan<T> plan, int version, Map<Integer, Hop> hops) {
+        this.plan = plan;
+        this.version = version;
+        this.migrators = new TypedMigrator[version];
+
+        //Fuse the pipeline of every source version once
+        MigrationField[] fields = plan.fields();
+        for (int source = 1; source <= version; source++) {
+            Resolver[] resolvers = new Resolver[fields.length];
+            for (int i = 0; i < fields.length; i++) resolvers[i] = resolver(hops, source, version, fields[i].getKey(), i);
+            migrators[source - 1] = new FusedMigrator<>(plan, resolvers);
+        }
+    }
+
+    /**
+     * Start declaring the steps of a class, the latest version is read from its {@link Migratable} annotation
+     *
+     * @param clazz the class to migrate to
+     * @param <T>   the type of the class
+     * @return the builder
+     */
+    public static <T> Builder<T> builder(Class<T> clazz) {
+        Migratable migratable = clazz.getAnnotation(Migratable.class);
+        return new Builder<>(MigrationPlan.of(clazz), migratable == null ? 1 : migratable.version());
+    }
+
+    /**
+     * Get the migrator of data of a version
+     *
+     * @param sourceVersion the version of the data
+     * @return the fused migrator of this version
+     * @throws IllegalArgumentException if the version is not between 1 and the latest version
+     */
+    public TypedMigrator<T> forVersion(int sourceVersion) {
+        if (sourceVersion < 1 || sourceVersion > version)
+            throw new IllegalArgumentException("Version " + sourceVersion + " of " + plan.getType().getName() + " does not exist, the latest version is " + version);
+        return migrators[sourceVersion - 1];
+    }
+
+    /**
+     * Migrate data of a version into a new instance
+     *
+     * @param sourceVersion the version of the data
+     * @param data          the data to migrate
+     * @return the migrated object
+     * @throws MigrationException if the instance could not be created or a field could not be set
+     */
+    public T migrate(int sourceVersion, Map<String, Object> data) {
+        return forVersion(sourceVersion).migrate(data);
+    }
+
+    /**
+     * Get the latest version of the class
+     *
+     * @return the latest version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Build the resolver of a key at a version from the data of the source version
+     * The key of a field which is read from the data unchanged is matched using its aliases as well.
+     *
+     * @param index the index of the field the resolver is built for
+     */
+    private Resolver resolver(Map<Integer, Hop> hops, int source, int version, String key, int index) {
+        if (version == source) {
+            boolean ownKey = plan.isAliased() && key.equals(plan.fields()[index].getKey());
+            return ownKey ? new ScannedResolver(index) : new DataResolver(key);
+        }
+
+        //The hop to this version is the one declared with from(version - 1)
+        Hop hop = hops.get(version - 1);
+        if (hop == null) return resolver(hops, source, version - 1, key, index);
+
+        Step step = hop.steps.get(key);
+        if (step == null) {
+            //Removed and renamed keys do not exist anymore in the next version
+            return hop.removed.contains(key) ? MissingResolver.INSTANCE : resolver(hops, source, version - 1, key, index);
+        }
+
+        Resolver[] sources = new Resolver[step.sources.length];
+        for (int i = 0; i < sources.length; i++) sources[i] = resolver(hops, source, version - 1, step.sources[i], index);
+        switch (step.kind) {
+            case RENAME:
+                return sources[0];
+            case CONVERT:
+                return new ConvertResolver(sources[0], step.converter);
+            default:
+                return new DeriveResolver(sources, step.deriver);
+        }
+    }
+
+    /**
+     * Declares the steps between the versions of a class.
+     *
+     * @param <T> the type of the class
+     */
+    public static final class Builder<T> {
+
+        private final MigrationPlan<T> plan;
+        private final int version;
+        private final Map<Integer, Hop> hops = new HashMap<>();
+        private Hop hop;
+        private int from;
+
+        private Builder(MigrationPlan<T> plan, int version) {
+            if (version < 1) throw new IllegalArgumentException("The version of " + plan.getType().getName() + " must be at least 1");
+            this.plan = plan;
+            this.version = version;
+        }
+
+        /**
+         * Start declaring the steps from a version to the next version
+         *
+         * @param version the version the steps read
+         * @return this builder
+         * @throws IllegalArgumentException if there is no next version
+         */
+        public Builder<T> from(int version) {
+            if (version < 1 || version >= this.version)
+                throw new IllegalArgumentException("Version " + version + " of " + plan.getType().getName() + " has no next version, the latest version is " + this.version);
+            this.from = version;
+            this.hop = hops.computeIfAbsent(version, key -> new Hop());
+            return this;
+        }
+
+        /**
+         * Rename a key
+         *
+         * @param from the key in this version
+         * @param to   the key in the next version
+         * @return this builder
+         */
+        public Builder<T> rename(String from, String to) {
+            hop().removed.add(from);
+            return step(to, new Step(Kind.RENAME, new String[]{from}, null, null));
+        }
+
+        /**
+         * Convert the value of a key, null values and missing keys are not converted
+         *
+         * @param key       the key
+         * @param converter the function converting the value of this version into the value of the next version
+         * @return this builder
+         */
+        public Builder<T> convert(String key, Function<Object, Object> converter) {
+            return step(key, new Step(Kind.CONVERT, new String[]{key}, converter, null));
+        }
+
+        /**
+         * Derive the value of a key from the values of other keys, it is missing if all other keys are missing
+         *
+         * @param key     the key in the next version
+         * @param deriver the function getting the values of the sources, missing values are null
+         * @param sources the keys in this version to derive the value from
+         * @return this builder
+         */
+        public Builder<T> derive(String key, Function<Object[], Object> deriver, String... sources) {
+            if (sources.length == 0) throw new IllegalArgumentException("Cannot derive " + key + " from nothing");
+            return step(key, new Step(Kind.DERIVE, sources.clone(), null, deriver));
+        }
+
+        /**
+         * Remove a key, it does not exist in the next version
+         *
+         * @param key the key
+         * @return this builder
+         */
+        public Builder<T> remove(String key) {
+            hop().removed.add(key);
+            return this;
+        }
+
+        private Builder<T> step(String key, Step step) {
+            if (hop().steps.put(key, step) != null)
+                throw new IllegalStateException("The key " + key + " is written twice from version " + from + " of " + plan.getType().getName());
+            return this;
+        }
+
+        private Hop hop() {
+            if (hop == null) throw new IllegalStateException("Call from(version) before declaring steps");
+            return hop;
+        }
+
+        /**
+         * Fuse the steps into one migrator per version
+         *
+         * @return the chain
+         */
+        public SchemaChain<T> build() {
+            return new SchemaChain<>(plan, version, hops);
+        }
+    }
+
+    /**
+     * The steps from one version to the next version
+     */
+    private static final class Hop {
+
+        //The steps by the key they write in the next version
+        private final Map<String, Step> steps = new HashMap<>();
+        private final Set<String> removed = new HashSet<>();
+    }
+
+    private enum Kind {
+        RENAME, CONVERT, DERIVE
+    }
+
+    private static final class Step {
+
+        private final Kind kind;
+        private final String[] sources;
+        private final Function<Object, Object> converter;
+        private final Function<Object[], Object> deriver;
+
+        Step(Kind kind, String[] sources, Function<Object, Object> converter, Function<Object[], Object> deriver) {
+            this.kind = kind;
+            this.sources = sources;
+            this.converter = converter;
+            this.deriver = deriver;
+        }
+    }
+
+    /**
+     * Resolves the value of one key of the latest version from the source data
+     */
+    private interface Resolver {
+
+        /**
+         * @param data    the data of the source version
+         * @param scanned the values of the fields found by the key table of the plan, null if the class has no aliases
+         * @param found   the fields found by the key table, null if the class has no aliases
+         * @return the value or {@link #MISSING}
+         */
+        Object resolve(Map<String, Object> data, Object[] scanned, byte[] found);
+    }
+
+    private static final class DataResolver implements Resolver {
+
+        private final String key;
+
+        DataResolver(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> data, Object[] scanned, byte[] found) {
+            Object value = data.get(key);
+            if (value == null && !data.containsKey(key)) return MISSING;
+            return value;
+        }
+    }
+
+    /**
+     * Resolves the key of a field including its aliases, from the scan of the key table
+     */
+    private static final class ScannedResolver implements Resolver {
+
+        private final int index;
+
+        ScannedResolver(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> data, Object[] scanned, byte[] found) {
+            return found[index] == 0 ? MISSING : scanned[index];
+        }
+    }
+
+    private static final class MissingResolver implements Resolver {
+
+        private static final MissingResolver INSTANCE = new MissingResolver();
+
+        @Override
+        public Object resolve(Map<String, Object> data, Object[] scanned, byte[] found) {
+            return MISSING;
+        }
+    }
+
+    private static final class ConvertResolver implements Resolver {
+
+        private final Resolver source;
+        private final Function<Object, Object> converter;
+
+        ConvertResolver(Resolver source, Function<Object, Object> converter) {
+            this.source = source;
+            this.converter = converter;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> data, Object[] scanned, byte[] found) {
+            Object value = source.resolve(data, scanned, found);
+            return value == null || value == MISSING ? value : converter.apply(value);
+        }
+    }
+
+    private static final class DeriveResolver implements Resolver {
+
+        private final Resolver[] sources;
+        private final Function<Object[], Object> deriver;
+
+        DeriveResolver(Resolver[] sources, Function<Object[], Object> deriver) {
+            this.sources = sources;
+            this.deriver = deriver;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> data, Object[] scanned, byte[] found) {
+            Object[] values = new Object[sources.length];
+            boolean present = false;
+            for (int i = 0; i < values.length; i++) {
+                Object value = sources[i].resolve(data, scanned, found);
+                if (value == MISSING) continue;
+                values[i] = value;
+                present = true;
+            }
+            return present ? deriver.apply(values) : MISSING;
+        }
+    }
+
+    /**
+     * Migrates the data of one source version using the fused resolvers of every field
+     */
+    private static final class FusedMigrator<T> implements TypedMigrator<T> {
+
+        private final MigrationPlan<T> plan;
+        private final Instantiator<T> instantiator;
+        private final Resolver[] resolvers;
+
+        FusedMigrator(MigrationPlan<T> plan, Resolver[] resolvers) {
+            this.plan = plan;
+            this.instantiator = plan.getConstructor() == null ? null : plan.instantiator(plan.getConstructor());
+            this.resolvers = resolvers;
+        }
+
+        @Override
+        public T migrate(Map<String, Object> data) {
+            ArgumentInstantiator<T> creator = plan.creator();
+            if (creator == null) return migrateInto(PlanMigrator.newInstance(plan, instantiator), data);
+
+            MigrationField[] fields = plan.fields();
+            byte[] found = plan.isAliased() ? new byte[fields.length] : null;
+            Object[] scanned = found == null ? null : plan.keys().scan(data, found);
+            Object[] values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) values[i] = resolve(fields[i], i, data, scanned, found);
+            return creator.newInstance(values);
+        }
+
+        @Override
+        public T migrateInto(T target, Map<String, Object> data) {
+            MigrationField[] fields = plan.fields();
+            byte[] found = plan.isAliased() ? new byte[fields.length] : null;
+            Object[] scanned = found == null ? null : plan.keys().scan(data, found);
+            for (int i = 0; i < fields.length; i++) {
+                Object value = resolve(fields[i], i, data, scanned, found);
+                if (value == null) continue;
+                PlanMigrator.set(fields[i], target, value);
+            }
+            return target;
+        }
+
+        private Object resolve(MigrationField field, int index, Map<String, Object> data, Object[] scanned, byte[] found) {
+            Object value = resolvers[index].resolve(data, scanned, found);
+            if (value == MISSING) return field.getDefaultValue();
+            return value == null ? null : field.convert(value);
+        }
+    }
+}
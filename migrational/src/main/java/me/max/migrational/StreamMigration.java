@@ -0,0 +1,155 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Migrates data lazily while it is read, so only the elements which are being migrated are held in memory.
+ * Every element results in a {@link MigrationResult}, an element which fails does not stop the stream.
+ * The source is split when the stream is parallel and the source supports splitting.
+ * <pre>{@code
+ * try (Stream<Map<String, Object>> lines = readExport()) {
+ *     StreamMigration.migrate(User.class, lines)
+ *             .filter(MigrationResult::isSuccess)
+ *             .map(MigrationResult::get)
+ *             .forEach(database::save);
+ * }
+ * }</pre>
+ *
+ * @author Max Berkelmans
+ * @see BatchMigration
+ * @since 1.2.0
+ */
+public final class StreamMigration {
+
+    private StreamMigration() {
+    }
+
+    /**
+     * Migrate a stream using {@link Migrators#forClass(Class)}
+     *
+     * @param clazz  the class to migrate to
+     * @param source the data to migrate, one map per object
+     * @param <T>    the type of the class
+     * @return a lazy stream of results, it is parallel if the source is parallel
+     */
+    public static <T> Stream<MigrationResult<T>> migrate(Class<T> clazz, Stream<? extends Map<String, Object>> source) {
+        return migrate(Migrators.forClass(clazz), source);
+    }
+
+    /**
+     * Migrate a stream, closing the returned stream closes the source
+     *
+     * @param migrator the migrator to use, this must be safe to use from multiple threads if the source is parallel
+     * @param source   the data to migrate, one map per object
+     * @param <T>      the type of the class
+     * @return a lazy stream of results, it is parallel if the source is parallel
+     */
+    public static <T> Stream<MigrationResult<T>> migrate(TypedMigrator<T> migrator, Stream<? extends Map<String, Object>> source) {
+        return migrate(migrator, source.spliterator(), source.isParallel()).onClose(source::close);
+    }
+
+    /**
+     * Migrate the elements of an iterator, an iterator cannot be split so the stream is sequential
+     *
+     * @param migrator the migrator to use
+     * @param source   the data to migrate, one map per object
+     * @param <T>      the type of the class
+     * @return a lazy stream of results
+     */
+    public static <T> Stream<MigrationResult<T>> migrate(TypedMigrator<T> migrator, Iterator<? extends Map<String, Object>> source) {
+        return migrate(migrator, Spliterators.spliteratorUnknownSize(source, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Migrate the elements of a spliterator
+     *
+     * @param migrator the migrator to use, this must be safe to use from multiple threads if parallel is true
+     * @param source   the data to migrate, one map per object
+     * @param parallel whether the stream should be parallel
+     * @param <T>      the type of the class
+     * @return a lazy stream of results
+     */
+    public static <T> Stream<MigrationResult<T>> migrate(TypedMigrator<T> migrator, Spliterator<? extends Map<String, Object>> source, boolean parallel) {
+        return StreamSupport.stream(spliterator(migrator, source), parallel);
+    }
+
+    /**
+     * Wrap a spliterator so every element is migrated when it is advanced to
+     * The spliterator splits whenever the source splits.
+     *
+     * @param migrator the migrator to use
+     * @param source   the data to migrate, one map per object
+     * @param <T>      the type of the class
+     * @return a spliterator of results
+     */
+    public static <T> Spliterator<MigrationResult<T>> spliterator(TypedMigrator<T> migrator, Spliterator<? extends Map<String, Object>> source) {
+        return new MigratingSpliterator<>(migrator, source);
+    }
+
+    /**
+     * Migrates the elements of the source spliterator one by one
+     */
+    private static final class MigratingSpliterator<T> implements Spliterator<MigrationResult<T>> {
+
+        //Characteristics which still hold after migrating, sorted and distinct depend on the elements
+        private static final int KEPT = ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT;
+
+        private final TypedMigrator<T> migrator;
+        private final Spliterator<? extends Map<String, Object>> source;
+
+        MigratingSpliterator(TypedMigrator<T> migrator, Spliterator<? extends Map<String, Object>> source) {
+            this.migrator = migrator;
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super MigrationResult<T>> action) {
+            return source.tryAdvance(data -> action.accept(MigrationResult.of(migrator, data)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super MigrationResult<T>> action) {
+            source.forEachRemaining(data -> action.accept(MigrationResult.of(migrator, data)));
+        }
+
+        @Override
+        public Spliterator<MigrationResult<T>> trySplit() {
+            Spliterator<? extends Map<String, Object>> prefix = source.trySplit();
+            return prefix == null ? null : new MigratingSpliterator<>(migrator, prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return (source.characteristics() & KEPT) | NONNULL;
+        }
+    }
+}
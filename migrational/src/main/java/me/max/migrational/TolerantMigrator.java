@@ -0,0 +1,171 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidConstructorException;
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.Map;
+
+/**
+ * Migrates records which may hold bad values, recording problems in {@link MigrationErrors} instead of throwing.
+ * Values are checked before they are converted, so the usual bad values, like text in a number field
+ * or an unknown enum constant, are found without creating an exception at all.
+ * Only failures which cannot be checked up front, like a constructor which throws, are caught.
+ *
+ * @param <T> the type of the class this migrates to
+ * @author Max Berkelmans
+ * @see BatchMigration#migrateAll(MigrationPlan, java.util.Collection, ErrorPolicy, MigrationErrors)
+ * @since 1.2.0
+ */
+final class TolerantMigrator<T> {
+
+    private final MigrationPlan<T> plan;
+    private final MigrationField[] fields;
+    private final Instantiator<T> instantiator;
+    private final ArgumentInstantiator<T> creator;
+    private final ErrorPolicy policy;
+
+    /**
+     * @param plan   the plan of the class to migrate to
+     * @param policy what to do with records holding bad values
+     * @throws InvalidConstructorException if the class has no way to create instances
+     */
+    TolerantMigrator(MigrationPlan<T> plan, ErrorPolicy policy) {
+        this.plan = plan;
+        this.fields = plan.fields();
+        this.instantiator = plan.getConstructor() == null ? null : plan.instantiator(plan.getConstructor());
+        this.creator = plan.creator();
+        this.policy = policy;
+        //This is not a problem of one record, so it is reported once
+        if (instantiator == null && creator == null)
+            throw new InvalidConstructorException("No zero parameter constructor or creator was found in " + plan.getType().getName(), null);
+    }
+
+    /**
+     * Migrate one record
+     *
+     * @param data   the data of the record
+     * @param record the index of the record
+     * @param errors the buffer to record problems in
+     * @return the migrated object or null if the record was skipped
+     */
+    T migrate(Map<String, Object> data, int record, MigrationErrors errors) {
+        Object[] values = resolve(data, record, errors);
+        if (values == null) return null;
+
+        if (creator != null) {
+            try {
+                return creator.newInstance(values);
+            } catch (MigrationException e) {
+                errors.add(record, null, MigrationErrors.Reason.INSTANTIATION);
+                return null;
+            }
+        }
+
+        T target;
+        try {
+            target = PlanMigrator.newInstance(plan, instantiator);
+        } catch (MigrationException e) {
+            errors.add(record, null, MigrationErrors.Reason.INSTANTIATION);
+            return null;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (values[i] == null) continue;
+            try {
+                fields[i].set(target, values[i]);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                errors.add(record, fields[i], MigrationErrors.Reason.ACCESS);
+                if (policy == ErrorPolicy.SKIP_RECORD) return null;
+                setDefault(target, fields[i]);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Set the default value of a field after setting its value failed
+     * If the default cannot be set either the field keeps its current value, the failure is already recorded.
+     */
+    private static void setDefault(Object target, MigrationField field) {
+        Object value = field.getDefaultValue();
+        if (value == null) return;
+        try {
+            field.set(target, value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            //Nothing left to fall back to
+        }
+    }
+
+    /**
+     * Resolve and convert the value of every field
+     *
+     * @return the values or null if the record is skipped
+     */
+    private Object[] resolve(Map<String, Object> data, int record, MigrationErrors errors) {
+        Object[] values;
+        byte[] found = null;
+        if (plan.isAliased()) {
+            found = new byte[fields.length];
+            values = plan.keys().scan(data, found);
+        } else {
+            values = new Object[fields.length];
+            for (int i = 0; i < fields.length; i++) values[i] = data.get(fields[i].getKey());
+        }
+
+        for (int i = 0; i < fields.length; i++) {
+            MigrationField field = fields[i];
+            Object value = values[i];
+            if (value == null) {
+                //Only missing keys get the default value, a key with a null value is skipped
+                boolean present = found != null ? found[i] != 0 : data.containsKey(field.getKey());
+                if (!present) values[i] = field.getDefaultValue();
+                continue;
+            }
+
+            Object converted = convert(field, value);
+            if (converted != null) {
+                values[i] = converted;
+                continue;
+            }
+            errors.add(record, field, MigrationErrors.Reason.CONVERSION);
+            if (policy == ErrorPolicy.SKIP_RECORD) return null;
+            values[i] = field.getDefaultValue();
+        }
+        return values;
+    }
+
+    /**
+     * Convert a value, checking it first so bad values do not throw
+     *
+     * @return the converted value or null if it cannot be converted
+     */
+    private static Object convert(MigrationField field, Object value) {
+        if (!field.canConvert(value)) return null;
+        Object converted;
+        try {
+            converted = field.convert(value);
+        } catch (IllegalArgumentException e) {
+            //A value which passed the check but still failed, like a string holding a number which is too large
+            //or a value which is not checked, like a duration. Other exceptions are not bad data and are thrown
+            return null;
+        }
+        return converted != null && field.accepts(converted) ? converted : null;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+
+import java.util.Map;
+
+/**
+ * Migrates data into new instances of one class.
+ * Unlike {@link Migrator} a typed migrator does not hold any data, it is given the data on every migration.
+ *
+ * @param <T> the type of the class this migrates to
+ * @author Max Berkelmans
+ * @see GeneratedMigrator
+ * @since 1.2.0
+ */
+public interface TypedMigrator<T> {
+
+    /**
+     * Migrate the data into a new instance
+     *
+     * @param data the data to migrate
+     * @return the migrated object
+     * @throws MigrationException if the instance could not be created or a field could not be set
+     */
+    T migrate(Map<String, Object> data);
+
+    /**
+     * Migrate the data into an existing instance instead of creating a new one
+     * Fields which are not in the data and have no default value keep their current value.
+     *
+     * @param target the object to migrate into
+     * @param data   the data to migrate
+     * @return the target
+     * @throws MigrationException if a field could not be set
+     */
+    T migrateInto(T target, Map<String, Object> data);
+
+    /**
+     * Migrate a record into a new instance
+     * By default the record is turned into a map, this is what migrators generated by the migrational-processor do.
+     * Plan based migrators, see {@link Migrators#forPlan(MigrationPlan)}, read the record by slot instead.
+     *
+     * @param record the record to migrate
+     * @return the migrated object
+     * @throws MigrationException if the instance could not be created or a field could not be set
+     */
+    default T migrate(MigrationRecord record) {
+        return migrate(record.toMap());
+    }
+}
@@ -27,6 +27,7 @@ import java.lang.annotation.Target;
  * Marks a {@link java.lang.reflect.Field} migratable.
  * OR Marks all {@link java.lang.reflect.Field} in a {@link Class} migratable.
  * Unless a field is marked with {@link Exempt}.
+ * On a parameter of a {@link Creator} it binds the parameter to the migratable field with its key.
  * key will default to the field name and defaultValue will be the already initialised value.
  * This means this data is able to be migrated.
  *
@@ -34,7 +35,7 @@ import java.lang.annotation.Target;
  * @since 1.0.0
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target({ElementType.FIELD, ElementType.TYPE})
+@Target({ElementType.FIELD, ElementType.TYPE, ElementType.PARAMETER})
 public @interface Migratable {
 
     /**
@@ -44,6 +45,22 @@ public @interface Migratable {
      */
     String key() default "";
 
+    /**
+     * Other keys of this field in the data, used when the data does not contain the key itself
+     *
+     * @return the aliases of this field, none if none specified
+     * @since 1.2.0
+     */
+    String[] aliases() default {};
+
+    /**
+     * Whether the key and aliases of this field also match keys in the data which only differ in case
+     *
+     * @return true to match keys ignoring case, false if none specified
+     * @since 1.2.0
+     */
+    boolean ignoreCase() default false;
+
     /**
      * The default value if none is found in the data
      *
@@ -51,5 +68,14 @@ public @interface Migratable {
      */
     String defaultValue() default "";
 
+    /**
+     * The current version of the data of this class, only used when the class itself is annotated
+     * Data of older versions is brought up to this version by a {@link me.max.migrational.SchemaChain}.
+     *
+     * @return the version of the data, 1 if none specified
+     * @since 1.2.0
+     */
+    int version() default 1;
+
 
 }
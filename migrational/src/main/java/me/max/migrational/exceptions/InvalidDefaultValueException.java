@@ -0,0 +1,63 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.exceptions;
+
+import java.lang.reflect.Field;
+
+/**
+ * The exception to be thrown when the default value of a field cannot be parsed into the type of the field
+ * This is thrown when the plan of the class is built, so before anything is migrated.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class InvalidDefaultValueException extends RuntimeException {
+
+    private final String reason;
+    private final Field field;
+
+    /**
+     * @param reason the reason why the default value is invalid
+     * @param field  the field with the invalid default value
+     * @param cause  the exception thrown while parsing or null if there is none
+     */
+    public InvalidDefaultValueException(String reason, Field field, Throwable cause) {
+        super(reason, cause);
+        this.reason = reason;
+        this.field = field;
+    }
+
+    /**
+     * This returns the reason why the default value is invalid
+     *
+     * @return the string reason
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * This returns the field with the invalid default value
+     *
+     * @return the field
+     */
+    public Field getField() {
+        return field;
+    }
+}
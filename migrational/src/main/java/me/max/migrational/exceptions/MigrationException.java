@@ -0,0 +1,37 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.exceptions;
+
+/**
+ * The exception to be thrown when migrating an object failed
+ * The cause will be the reflective exception which was thrown while creating the instance or setting a field.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrationException extends RuntimeException {
+
+    /**
+     * @param message the reason why the migration failed
+     * @param cause   the exception which caused the migration to fail
+     */
+    public MigrationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of one migrated class, see {@link MigrationMetrics}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class ClassMetrics {
+
+    private final LongAdder migrations = new LongAdder();
+    private final LongAdder defaulted = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    ClassMetrics() {
+    }
+
+    void migrated(long nanos, int defaulted, int missing) {
+        migrations.increment();
+        if (defaulted != 0) this.defaulted.add(defaulted);
+        if (missing != 0) this.missing.add(missing);
+        latency.record(nanos);
+    }
+
+    void failed(long nanos) {
+        failures.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * Get the amount of successful migrations
+     *
+     * @return the amount of migrations
+     */
+    public long getMigrations() {
+        return migrations.sum();
+    }
+
+    /**
+     * Get the amount of fields which used their default value, over all migrations
+     *
+     * @return the amount of defaulted fields
+     */
+    public long getDefaulted() {
+        return defaulted.sum();
+    }
+
+    /**
+     * Get the amount of keys which were not in the data, over all migrations
+     *
+     * @return the amount of missing keys
+     */
+    public long getMissing() {
+        return missing.sum();
+    }
+
+    /**
+     * Get the amount of failed migrations
+     *
+     * @return the amount of failures
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Get the latencies of both successful and failed migrations
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
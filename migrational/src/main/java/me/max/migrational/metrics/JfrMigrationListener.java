@@ -0,0 +1,53 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+/**
+ * A {@link MigrationListener} which commits a {@code me.max.migrational.Migration} Flight Recorder event for every migration.
+ * The events only cost something while a recording with the event enabled is running.
+ * This is the only class using {@code jdk.jfr}, so it needs a JVM with Flight Recorder (Java 11, or 8u262 and newer)
+ * while the rest of this library does not.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class JfrMigrationListener implements MigrationListener {
+
+    @Override
+    public void migrated(Class<?> type, Operation operation, long nanos, int defaulted, int missing) {
+        commit(type, operation, nanos, defaulted, missing, false);
+    }
+
+    @Override
+    public void failed(Class<?> type, Operation operation, long nanos, Throwable error) {
+        commit(type, operation, nanos, 0, 0, true);
+    }
+
+    private static void commit(Class<?> type, Operation operation, long nanos, int defaulted, int missing, boolean failed) {
+        MigrationEvent event = new MigrationEvent();
+        if (!event.isEnabled()) return;
+        event.type = type;
+        event.operation = operation.name();
+        event.migrationTime = nanos;
+        event.defaulted = defaulted;
+        event.missing = missing;
+        event.failed = failed;
+        event.commit();
+    }
+}
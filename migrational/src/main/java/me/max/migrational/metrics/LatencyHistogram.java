@@ -0,0 +1,99 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of latencies in power of two buckets.
+ * Bucket {@code i} counts the latencies from {@code 2^i} up to {@code 2^(i+1)} nanoseconds,
+ * so a percentile is accurate up to a factor of two which is enough to spot slow classes.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The amount of buckets, enough for any positive long
+     */
+    public static final int BUCKETS = 63;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Record one latency
+     *
+     * @param nanos the latency in nanoseconds, anything below 1 is counted as 1
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Get the bucket of a latency
+     *
+     * @param nanos the latency in nanoseconds
+     * @return the index of the bucket
+     */
+    static int bucket(long nanos) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1, nanos));
+    }
+
+    /**
+     * Get the amount of latencies in a bucket
+     *
+     * @param bucket the index of the bucket
+     * @return the amount of latencies in the bucket
+     */
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Get the amount of recorded latencies
+     *
+     * @return the amount of latencies
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * Get the upper bound of the bucket containing a percentile
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in nanoseconds below which at least this percentile of the latencies is, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        long total = getCount();
+        if (total == 0) return 0;
+
+        long needed = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= needed) return (1L << (i + 1)) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Flight Recorder event of one migration, committed by {@link JfrMigrationListener}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Name("me.max.migrational.Migration")
+@Label("Migration")
+@Category("Migrational")
+@Description("Data migrated by a Migrator")
+final class MigrationEvent extends Event {
+
+    @Label("Type")
+    Class<?> type;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Migration Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long migrationTime;
+
+    @Label("Defaulted Fields")
+    int defaulted;
+
+    @Label("Missing Keys")
+    int missing;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,69 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+/**
+ * Gets notified of every migration of a {@link me.max.migrational.Migrator} it was given to.
+ * Listeners are called on the migrating thread, so they should be fast and safe to use from multiple threads.
+ * A migrator without a listener does not measure anything.
+ *
+ * @author Max Berkelmans
+ * @see MigrationMetrics
+ * @see JfrMigrationListener
+ * @since 1.2.0
+ */
+public interface MigrationListener {
+
+    /**
+     * Called after data was migrated
+     *
+     * @param type      the class which was migrated
+     * @param operation whether the data was migrated to an object or to a map
+     * @param nanos     the time the migration took in nanoseconds
+     * @param defaulted the amount of fields which used their default value
+     * @param missing   the amount of keys of the class which were not in the data
+     */
+    default void migrated(Class<?> type, Operation operation, long nanos, int defaulted, int missing) {
+    }
+
+    /**
+     * Called after a migration failed
+     *
+     * @param type      the class which was migrated
+     * @param operation whether the data was migrated to an object or to a map
+     * @param nanos     the time until the migration failed in nanoseconds
+     * @param error     the error the migration failed with
+     */
+    default void failed(Class<?> type, Operation operation, long nanos, Throwable error) {
+    }
+
+    /**
+     * What the data was migrated to
+     */
+    enum Operation {
+        /**
+         * {@link me.max.migrational.Migrator#migrateToClass()}
+         */
+        CLASS,
+        /**
+         * {@link me.max.migrational.Migrator#migrateToMap()}
+         */
+        MAP
+    }
+}
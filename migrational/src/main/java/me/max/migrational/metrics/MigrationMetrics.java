@@ -0,0 +1,75 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link MigrationListener} which keeps {@link ClassMetrics} for every migrated class.
+ * <pre>{@code
+ * MigrationMetrics metrics = new MigrationMetrics();
+ * Migrator migrator = new Migrator(User.class, metrics);
+ * ...
+ * long p99 = metrics.get(User.class).getLatency().getPercentile(99);
+ * }</pre>
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public final class MigrationMetrics implements MigrationListener {
+
+    private final Map<Class<?>, ClassMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void migrated(Class<?> type, Operation operation, long nanos, int defaulted, int missing) {
+        metrics(type).migrated(nanos, defaulted, missing);
+    }
+
+    @Override
+    public void failed(Class<?> type, Operation operation, long nanos, Throwable error) {
+        metrics(type).failed(nanos);
+    }
+
+    private ClassMetrics metrics(Class<?> type) {
+        ClassMetrics classMetrics = metrics.get(type);
+        //Only use computeIfAbsent the first time as it may lock even when the class is present
+        return classMetrics != null ? classMetrics : metrics.computeIfAbsent(type, key -> new ClassMetrics());
+    }
+
+    /**
+     * Get the metrics of a class
+     *
+     * @param type the class
+     * @return the metrics or null if the class was not migrated yet
+     */
+    public ClassMetrics get(Class<?> type) {
+        return metrics.get(type);
+    }
+
+    /**
+     * Get the metrics of all migrated classes
+     *
+     * @return an unmodifiable view of the metrics per class
+     */
+    public Map<Class<?>, ClassMetrics> getAll() {
+        return Collections.unmodifiableMap(metrics);
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+/**
+ * Optional instrumentation of {@link me.max.migrational.Migrator}
+ * {@link me.max.migrational.metrics.MigrationListener} is notified of every migration
+ * {@link me.max.migrational.metrics.MigrationMetrics} keeps counters and latency histograms per class
+ * {@link me.max.migrational.metrics.JfrMigrationListener} publishes every migration as a Flight Recorder event
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+package me.max.migrational.metrics;
@@ -20,6 +20,7 @@
  * This is the root package of the Migrational libary
  * {@link me.max.migrational.annotations} for all annotations
  * {@link me.max.migrational.exceptions} for all exceptions
+ * {@link me.max.migrational.metrics} for optional migration metrics
  * {@link me.max.migrational.Migrator} should be instantiated to use this library
  *
  * @author Max Berkelmans
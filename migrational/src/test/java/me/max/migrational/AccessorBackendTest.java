@@ -0,0 +1,84 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.FieldObject;
+import me.max.migrational.testobjects.StaticFieldObject;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+/**
+ * This test class will check if migrating with the {@link AccessorBackend#METHOD_HANDLE} backend works the same as with reflection.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class AccessorBackendTest {
+
+    @Test
+    public void of_DifferentBackends_ReturnsDifferentPlans() {
+        assertNotSame(MigrationPlan.of(FieldObject.class, AccessorBackend.REFLECTION), MigrationPlan.of(FieldObject.class, AccessorBackend.METHOD_HANDLE));
+    }
+
+    @Test
+    public void migrate_MethodHandleBackend_SetsFields() throws IllegalAccessException, InstantiationException, InvocationTargetException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("age", 20);
+
+        Migrator migrator = new Migrator(MigrationPlan.of(FieldObject.class, AccessorBackend.METHOD_HANDLE));
+        migrator.setData(data);
+        FieldObject testObject = (FieldObject) migrator.migrateToClass();
+
+        assertEquals("Stijn", testObject.getName());
+        assertEquals(20, testObject.getAge());
+        assertEquals("Netherlands", testObject.getCountry());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void migrate_MethodHandleBackendWrongType_ThrowsIllegalArgument() throws IllegalAccessException, InstantiationException, InvocationTargetException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", "twenty");
+
+        Migrator migrator = new Migrator(MigrationPlan.of(FieldObject.class, AccessorBackend.METHOD_HANDLE));
+        migrator.setData(data);
+        migrator.migrateToClass();
+    }
+
+    @Test
+    public void migrate_MethodHandleBackendStaticField_SetsField() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("count", 3);
+
+        StaticFieldObject object = Migrators.forPlan(MigrationPlan.of(StaticFieldObject.class, AccessorBackend.METHOD_HANDLE)).migrate(data);
+
+        assertEquals("Stijn", object.getName());
+        assertEquals(3, StaticFieldObject.getCount());
+        data.put("count", 4);
+        GeneratedMigrator.of(StaticFieldObject.class).migrate(data);
+        assertEquals(4, StaticFieldObject.getCount());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.ClassObject;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check that migrating an object does not allocate anything besides the object itself.
+ * This uses the allocation counter of the HotSpot thread management bean and is skipped on other virtual machines.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class AllocationTest {
+
+    private static final int ITERATIONS = 100_000;
+    //A ClassObject is 24 bytes with compressed references, leave some room for other layouts.
+    private static final long MAX_BYTES_PER_MIGRATION = 32;
+    //Less than a ClassObject so the target is certainly reused, without relying on the JIT removing every other allocation
+    private static final long MAX_POOLED_BYTES_PER_MIGRATION = 16;
+
+    @Test
+    public void migrateToClass_SingleObject_AllocatesOnlyTarget() throws IllegalAccessException, InstantiationException, InvocationTargetException {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        long threadId = Thread.currentThread().getId();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("isCool", false);
+        Migrator migrator = new Migrator(ClassObject.class, data);
+
+        //Warm up so the reflection accessors are generated and compiled
+        for (int i = 0; i < ITERATIONS; i++) migrator.migrateToClass();
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) migrator.migrateToClass();
+        long perMigration = (threadBean.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+
+        assertTrue("Allocated " + perMigration + " bytes per migration", perMigration <= MAX_BYTES_PER_MIGRATION);
+    }
+
+    @Test
+    public void migrate_Pool_AllocatesLessThanTarget() {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        long threadId = Thread.currentThread().getId();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("isCool", false);
+        MigrationPool<ClassObject> pool = new MigrationPool<>(Migrators.forClass(ClassObject.class), 1);
+
+        //Warm up so the accessors are generated and compiled
+        for (int i = 0; i < ITERATIONS; i++) pool.release(pool.migrate(data));
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) pool.release(pool.migrate(data));
+        long perMigration = (threadBean.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+
+        assertTrue("Allocated " + perMigration + " bytes per migration", perMigration < MAX_POOLED_BYTES_PER_MIGRATION);
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        return threadBean;
+    }
+}
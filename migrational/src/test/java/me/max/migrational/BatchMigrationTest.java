@@ -0,0 +1,79 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This test class will check if {@link BatchMigration} migrates all data in order.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class BatchMigrationTest {
+
+    @Test
+    public void migrateAll_ManyRecords_KeepsOrder() {
+        List<Map<String, Object>> data = data(10_000);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<FieldObject> migrated = BatchMigration.migrateAll(GeneratedMigrator.of(FieldObject.class), data, pool);
+
+            assertEquals(data.size(), migrated.size());
+            for (int i = 0; i < migrated.size(); i++) assertEquals(i, migrated.get(i).getAge());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void migrateAll_FewRecords_MigratesOnCallingThread() {
+        List<FieldObject> migrated = BatchMigration.migrateAll(FieldObject.class, data(3));
+
+        assertEquals(3, migrated.size());
+        assertEquals("Netherlands", migrated.get(2).getCountry());
+    }
+
+    @Test
+    public void chunkSize_LargeBatch_SplitsPerWorker() {
+        assertEquals(256, BatchMigration.chunkSize(1000, 8));
+        assertEquals(31_250, BatchMigration.chunkSize(1_000_000, 8));
+    }
+
+    private static List<Map<String, Object>> data(int size) {
+        List<Map<String, Object>> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("name", "Name" + i);
+            record.put("age", i);
+            data.add(record);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.ImmutableObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * This test class will check if a {@link ColumnBatch} is migrated row by row into the right fields.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class ColumnBatchTest {
+
+    @Test
+    public void migrateColumns_PrimitiveColumns_SetsFields() {
+        ColumnBatch batch = new ColumnBatch(2)
+                .column("age", new int[]{20, 21})
+                .column("balance", new int[]{5, 6})
+                .column("cool", new boolean[]{false, true})
+                .column("height", new double[]{1.8, 1.9})
+                .column("color", new Object[]{"RED", null})
+                .column("unknown", new long[]{1, 2});
+
+        List<TypedObject> objects = BatchMigration.migrateColumns(MigrationPlan.of(TypedObject.class), batch, null);
+
+        assertEquals(2, objects.size());
+        assertEquals(21, objects.get(1).getAge());
+        assertEquals(6L, objects.get(1).getBalance());
+        assertFalse(objects.get(0).isCool());
+        assertEquals(1.9, objects.get(1).getHeight(), 0);
+        assertEquals(TypedObject.Color.RED, objects.get(0).getColor());
+        assertNull(objects.get(1).getColor());
+        //Fields without a column get their default value
+        assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), objects.get(0).getId());
+    }
+
+    @Test
+    public void migrateColumns_ConvertedColumns_ConvertsValues() {
+        ColumnBatch batch = new ColumnBatch(1).column("age", new Object[]{"30"}).column("height", new int[]{2});
+
+        TypedObject object = BatchMigration.migrateColumns(TypedObject.class, batch).get(0);
+
+        assertEquals(30, object.getAge());
+        assertEquals(2.0, object.getHeight(), 0);
+    }
+
+    @Test
+    public void migrateColumns_ManyRows_KeepsOrder() {
+        int rows = 10_000;
+        int[] ages = new int[rows];
+        String[] names = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            ages[i] = i;
+            names[i] = "Name" + i;
+        }
+        ColumnBatch batch = new ColumnBatch(rows).column("age", ages).column("name", names);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<ImmutableObject> objects = BatchMigration.migrateColumns(MigrationPlan.of(ImmutableObject.class), batch, pool);
+
+            assertEquals(rows, objects.size());
+            for (int i = 0; i < rows; i++) {
+                assertEquals(i, objects.get(i).getAge());
+                assertEquals(names[i], objects.get(i).getName());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void column_TooShort_Throws() {
+        new ColumnBatch(3).column("age", new int[2]);
+    }
+
+    @Test
+    public void getKeys_Columns_KeepsOrder() {
+        ColumnBatch batch = new ColumnBatch(0).column("b", new int[0]).column("a", new Object[0]);
+
+        assertEquals("b", batch.getKeys().iterator().next());
+        assertEquals(0, BatchMigration.migrateColumns(TypedObject.class, batch).size());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidDefaultValueException;
+import me.max.migrational.testobjects.InvalidDefaultObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This test class will check if default values are parsed and values are converted using the {@link ConverterRegistry}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class ConverterTest {
+
+    @Test
+    public void migrate_MissingKeys_UsesParsedDefaults() {
+        TypedObject testObject = Migrators.forClass(TypedObject.class).migrate(new HashMap<>());
+
+        assertEquals(27, testObject.getAge());
+        assertEquals(10_000_000_000L, testObject.getBalance());
+        assertTrue(testObject.isCool());
+        assertEquals(1.5, testObject.getHeight(), 0);
+        assertEquals(TypedObject.Color.GREEN, testObject.getColor());
+        assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), testObject.getId());
+        assertEquals(Instant.parse("2019-01-01T00:00:00Z"), testObject.getCreated());
+    }
+
+    @Test
+    public void migrate_ValuesOfOtherTypes_ConvertsValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", "20");
+        data.put("balance", 5);
+        data.put("cool", "false");
+        data.put("color", "RED");
+        data.put("created", 0L);
+
+        TypedObject testObject = Migrators.forPlan(MigrationPlan.of(TypedObject.class, AccessorBackend.METHOD_HANDLE)).migrate(data);
+
+        assertEquals(20, testObject.getAge());
+        assertEquals(5L, testObject.getBalance());
+        assertFalse(testObject.isCool());
+        assertEquals(TypedObject.Color.RED, testObject.getColor());
+        assertEquals(Instant.EPOCH, testObject.getCreated());
+    }
+
+    @Test
+    public void migrate_CustomConverter_UsesCustomConverter() {
+        ConverterRegistry converters = new ConverterRegistry().register(TypedObject.Color.class, value -> TypedObject.Color.valueOf(value.toString().toUpperCase()));
+        Map<String, Object> data = new HashMap<>();
+        data.put("color", "red");
+
+        TypedObject testObject = Migrators.forPlan(MigrationPlan.of(TypedObject.class, AccessorBackend.REFLECTION, converters)).migrate(data);
+
+        assertEquals(TypedObject.Color.RED, testObject.getColor());
+    }
+
+    @Test
+    public void migrate_WholeNumbersOfOtherTypes_ConvertsValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 20L);
+        data.put("balance", 3.0);
+
+        TypedObject testObject = Migrators.forClass(TypedObject.class).migrate(data);
+
+        assertEquals(20, testObject.getAge());
+        assertEquals(3L, testObject.getBalance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void migrate_NumberOutOfRange_ThrowsIllegalArgument() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", 3_000_000_000L);
+
+        Migrators.forPlan(MigrationPlan.of(TypedObject.class, AccessorBackend.METHOD_HANDLE)).migrate(data);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void migrate_FractionalNumber_ThrowsIllegalArgument() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("balance", 3.7);
+
+        Migrators.forPlan(MigrationPlan.of(TypedObject.class, AccessorBackend.METHOD_HANDLE)).migrate(data);
+    }
+
+    @Test
+    public void convert_MalformedDates_ThrowsIllegalArgument() {
+        for (Class<?> type : new Class<?>[]{Instant.class, LocalDate.class, LocalDateTime.class, Duration.class}) {
+            try {
+                ConverterRegistry.defaults().find(type).convert("2019-13-45");
+                fail("A malformed " + type.getSimpleName() + " was parsed");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("2019-13-45"));
+                assertTrue(e.getCause() instanceof DateTimeException);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void convert_MapToString_ThrowsIllegalArgument() {
+        ConverterRegistry.defaults().find(String.class).convert(new HashMap<>());
+    }
+
+    @Test
+    public void convert_NumberToString_ConvertsValue() {
+        assertEquals("12", ConverterRegistry.defaults().find(String.class).convert(12));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void register_DefaultRegistry_ThrowsUnsupportedOperation() {
+        ConverterRegistry.defaults().register(String.class, Object::toString);
+    }
+
+    @Test(expected = InvalidDefaultValueException.class)
+    public void of_UnparseableDefault_ThrowsInvalidDefaultValue() {
+        MigrationPlan.of(InvalidDefaultObject.class);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidConstructorException;
+import me.max.migrational.testobjects.FactoryObject;
+import me.max.migrational.testobjects.FieldObject;
+import me.max.migrational.testobjects.ImmutableObject;
+import me.max.migrational.testobjects.SwappedObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if classes without a usable zero parameter constructor are created through their creator.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class CreatorTest {
+
+    @Test
+    public void getCreator_FieldObject_ReturnsNull() {
+        assertNull(MigrationPlan.of(FieldObject.class).getCreator());
+    }
+
+    @Test
+    public void migrate_ImmutableObject_UsesAllFieldsConstructor() throws NoSuchMethodException {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Max");
+        data.put("age", "22");
+
+        for (TypedMigrator<ImmutableObject> migrator : migrators(ImmutableObject.class)) {
+            ImmutableObject object = migrator.migrate(data);
+
+            assertEquals("Max", object.getName());
+            assertEquals(22, object.getAge());
+        }
+        assertEquals(ImmutableObject.class.getConstructor(String.class, int.class), MigrationPlan.of(ImmutableObject.class).getCreator());
+    }
+
+    @Test
+    public void migrate_MissingKeys_PassesDefaults() {
+        ImmutableObject object = Migrators.forClass(ImmutableObject.class).migrate(Collections.singletonMap("name", null));
+
+        assertNull(object.getName());
+        assertEquals(18, object.getAge());
+    }
+
+    @Test
+    public void migrate_FactoryObject_UsesFactoryAndSetsOtherFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("full_name", "Max Berkelmans");
+        data.put("balance", 10);
+        data.put("nickname", "Max");
+
+        for (TypedMigrator<FactoryObject> migrator : migrators(FactoryObject.class)) {
+            FactoryObject object = migrator.migrate(data);
+
+            assertTrue(object.isCreated());
+            assertEquals("Max Berkelmans", object.getName());
+            assertEquals(10L, object.getBalance());
+            assertEquals("Max", object.getNickname());
+        }
+    }
+
+    @Test
+    public void migrate_MissingPrimitive_PassesZero() {
+        FactoryObject object = Migrators.forClass(FactoryObject.class).migrate(new HashMap<>());
+
+        assertEquals(0L, object.getBalance());
+    }
+
+    @Test
+    public void migrate_Record_UsesFactory() {
+        RecordSchema schema = MigrationPlan.of(FactoryObject.class).getSchema();
+        MigrationRecord record = schema.newRecord().set("full_name", "Max").setLong(schema.slot("balance"), 5).build();
+
+        FactoryObject object = Migrators.forClass(FactoryObject.class).migrate(record);
+
+        assertTrue(object.isCreated());
+        assertEquals(5L, object.getBalance());
+    }
+
+    @Test
+    public void getCreator_ConstructorOfOtherTypes_ReturnsNull() {
+        assertNull(MigrationPlan.of(SwappedObject.class).getCreator());
+    }
+
+    @Test(expected = InvalidConstructorException.class)
+    public void migrate_ConstructorOfOtherTypes_ThrowsInvalidConstructor() {
+        Migrators.forClass(SwappedObject.class).migrate(Collections.singletonMap("name", "Max"));
+    }
+
+    @Test
+    public void migrate_LegacyMigrator_UsesCreator() throws Exception {
+        Migrator migrator = new Migrator(ImmutableObject.class);
+        migrator.setData(Collections.singletonMap("name", "Max"));
+
+        ImmutableObject object = (ImmutableObject) migrator.migrateToClass();
+
+        assertEquals("Max", object.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> TypedMigrator<T>[] migrators(Class<T> clazz) {
+        return new TypedMigrator[]{
+                Migrators.forClass(clazz),
+                Migrators.forPlan(MigrationPlan.of(clazz, AccessorBackend.METHOD_HANDLE)),
+                GeneratedMigrator.of(clazz)
+        };
+    }
+}
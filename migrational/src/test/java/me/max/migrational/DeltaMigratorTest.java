@@ -0,0 +1,116 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.AliasedObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if a {@link DeltaMigrator} only applies and reports the changed fields.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class DeltaMigratorTest {
+
+    private final DeltaMigrator<TypedObject> delta = DeltaMigrator.forClass(TypedObject.class);
+    private final RecordSchema schema = delta.getPlan().getSchema();
+
+    @Test
+    public void apply_ChangedValues_SetsFieldsAndMask() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(new HashMap<>());
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("age", "30");
+        changes.put("color", "RED");
+
+        BitSet changed = delta.apply(object, changes);
+
+        assertEquals(30, object.getAge());
+        assertEquals(TypedObject.Color.RED, object.getColor());
+        assertEquals(2, changed.cardinality());
+        assertTrue(changed.get(schema.slot("age")));
+        assertTrue(changed.get(schema.slot("color")));
+    }
+
+    @Test
+    public void apply_EqualValues_ReportsNothing() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(new HashMap<>());
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("age", 27);
+        changes.put("balance", 10000000000L);
+        changes.put("cool", "true");
+        changes.put("height", 1.5);
+        changes.put("id", "123e4567-e89b-12d3-a456-426614174000");
+
+        assertTrue(delta.apply(object, changes).isEmpty());
+    }
+
+    @Test
+    public void apply_NullAndUnknownKeys_AreSkipped() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(new HashMap<>());
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("color", null);
+        changes.put("unknown", 1);
+
+        assertTrue(delta.apply(object, changes).isEmpty());
+        assertEquals(TypedObject.Color.GREEN, object.getColor());
+    }
+
+    @Test
+    public void apply_ReusedMask_CollectsChanges() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(new HashMap<>());
+        BitSet changed = new BitSet();
+
+        assertEquals(1, delta.apply(object, Collections.singletonMap("cool", false), changed));
+        assertEquals(1, delta.apply(object, Collections.singletonMap("height", 2.0), changed));
+        assertEquals(0, delta.apply(object, Collections.singletonMap("height", 2.0), changed));
+
+        assertEquals(2, changed.cardinality());
+        assertEquals(2.0, object.getHeight(), 0);
+    }
+
+    @Test
+    public void apply_KeyAndAlias_KeyWinsInAnyOrder() {
+        DeltaMigrator<AliasedObject> aliased = DeltaMigrator.forClass(AliasedObject.class);
+        Map<String, Object> aliasFirst = new LinkedHashMap<>();
+        aliasFirst.put("fullName", "Alias");
+        aliasFirst.put("name", "Key");
+        Map<String, Object> keyFirst = new LinkedHashMap<>();
+        keyFirst.put("name", "Key");
+        keyFirst.put("fullName", "Alias");
+
+        AliasedObject first = Migrators.forClass(AliasedObject.class).migrate(new HashMap<>());
+        AliasedObject second = Migrators.forClass(AliasedObject.class).migrate(new HashMap<>());
+        aliased.apply(first, aliasFirst);
+        aliased.apply(second, keyFirst);
+
+        assertEquals("Key", first.getName());
+        assertEquals("Key", second.getName());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.ClassObject;
+import me.max.migrational.testobjects.FieldObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if {@link Exporter} exports objects into data which migrates back into the same object.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class ExporterTest {
+
+    @Test
+    public void toMap_ExemptField_SkipsField() {
+        Map<String, Object> data = Exporter.forClass(ClassObject.class).toMap(new ClassObject());
+
+        assertEquals(2, data.size());
+        assertEquals("Stijn", data.get("name"));
+        assertEquals(true, data.get("isCool"));
+        assertFalse(data.containsKey("age"));
+    }
+
+    @Test
+    public void toMap_MigratedObject_MigratesBack() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(Collections.singletonMap("age", 30));
+
+        for (Exporter<TypedObject> exporter : exporters()) {
+            TypedObject migrated = Migrators.forClass(TypedObject.class).migrate(exporter.toMap(object));
+
+            assertEquals(30, migrated.getAge());
+            assertEquals(object.getBalance(), migrated.getBalance());
+            assertEquals(object.getColor(), migrated.getColor());
+            assertEquals(object.getId(), migrated.getId());
+            assertEquals(object.getCreated(), migrated.getCreated());
+        }
+    }
+
+    @Test
+    public void toRecord_PrimitiveFields_MigratesBack() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(Collections.singletonMap("height", 2.5));
+
+        for (Exporter<TypedObject> exporter : exporters()) {
+            MigrationRecord record = exporter.toRecord(object);
+            TypedObject migrated = Migrators.forClass(TypedObject.class).migrate(record);
+
+            assertEquals(2.5, (Double) record.get(record.getSchema().slot("height")), 0);
+            assertEquals(2.5, migrated.getHeight(), 0);
+            assertTrue(migrated.isCool());
+            assertEquals(object.getId(), migrated.getId());
+        }
+    }
+
+    @Test
+    public void exportAll_ManyObjects_KeepsOrder() {
+        List<FieldObject> objects = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) objects.add(Migrators.forClass(FieldObject.class).migrate(Collections.singletonMap("age", i)));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Map<String, Object>> data = BatchMigration.exportAll(Exporter.forClass(FieldObject.class), objects, pool);
+
+            assertEquals(objects.size(), data.size());
+            for (int i = 0; i < data.size(); i++) assertEquals(i, data.get(i).get("age"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void export_Stream_ExportsLazily() {
+        Map<String, Object> source = new HashMap<>();
+        source.put("name", "Max");
+        FieldObject object = Migrators.forClass(FieldObject.class).migrate(source);
+
+        List<Map<String, Object>> data = Exporter.forClass(FieldObject.class).export(Stream.of(object, object)).collect(Collectors.toList());
+
+        assertEquals(2, data.size());
+        assertEquals("Max", data.get(1).get("name"));
+        assertEquals("Netherlands", data.get(1).get("country"));
+    }
+
+    private List<Exporter<TypedObject>> exporters() {
+        List<Exporter<TypedObject>> exporters = new ArrayList<>();
+        exporters.add(Exporter.forClass(TypedObject.class));
+        exporters.add(Exporter.forPlan(MigrationPlan.of(TypedObject.class, AccessorBackend.REFLECTION)));
+        return exporters;
+    }
+}
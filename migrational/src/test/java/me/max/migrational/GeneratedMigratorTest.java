@@ -0,0 +1,113 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidDefaultValueException;
+import me.max.migrational.exceptions.MigrationException;
+import me.max.migrational.testobjects.ClassObject;
+import me.max.migrational.testobjects.InvalidDefaultObject;
+import me.max.migrational.testobjects.PublicFieldObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This test class will check migration using a {@link GeneratedMigrator}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class GeneratedMigratorTest {
+
+    @Test
+    public void of_SameClass_ReturnsSameGeneratedMigrator() {
+        TypedMigrator<PublicFieldObject> migrator = GeneratedMigrator.of(PublicFieldObject.class);
+
+        assertTrue(migrator instanceof GeneratedMigrator);
+        assertSame(migrator, GeneratedMigrator.of(PublicFieldObject.class));
+    }
+
+    @Test
+    public void migrate_PublicFields_SetsFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Stijn");
+        data.put("age", 20);
+        data.put("balance", 100L);
+        data.put("cool", true);
+        data.put("tags", new String[]{"a", "b"});
+        data.put("country", "Belgium");
+        data.put("exempted", "Migrated");
+
+        PublicFieldObject testObject = GeneratedMigrator.of(PublicFieldObject.class).migrate(data);
+
+        assertEquals("Stijn", testObject.name);
+        assertEquals(20, testObject.age);
+        assertEquals(100L, testObject.balance);
+        assertTrue(testObject.cool);
+        assertArrayEquals(new String[]{"a", "b"}, testObject.tags);
+        assertEquals("Belgium", testObject.getCountry());
+        assertEquals("Exempted", testObject.exempted);
+    }
+
+    @Test
+    public void migrate_WrongTypeOfPublicField_ThrowsMigrationException() {
+        try {
+            GeneratedMigrator.of(PublicFieldObject.class).migrate(Collections.singletonMap("tags", 5));
+            fail("The value of the wrong type was stored");
+        } catch (MigrationException e) {
+            assertTrue(e.getMessage().contains("tags"));
+            assertTrue(e.getCause() instanceof ClassCastException);
+        }
+    }
+
+    @Test(expected = InvalidDefaultValueException.class)
+    public void of_InvalidDefault_ThrowsInvalidDefaultValue() {
+        GeneratedMigrator.of(InvalidDefaultObject.class);
+    }
+
+    @Test
+    public void migrate_MissingKeys_KeepsInitialValues() {
+        PublicFieldObject testObject = GeneratedMigrator.of(PublicFieldObject.class).migrate(new HashMap<>());
+
+        assertEquals(0, testObject.age);
+        assertEquals("Netherlands", testObject.getCountry());
+    }
+
+    @Test
+    public void migrate_PrivateFields_SetsFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Max");
+        data.put("isCool", false);
+
+        ClassObject testObject = GeneratedMigrator.of(ClassObject.class).migrate(data);
+
+        assertEquals("Max", testObject.getName());
+        assertFalse(testObject.isCool());
+        assertEquals(27, testObject.getAge());
+    }
+}
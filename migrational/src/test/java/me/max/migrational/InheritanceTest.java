@@ -0,0 +1,96 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.ChildObject;
+import me.max.migrational.testobjects.ParentObject;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This test class will check if migratable fields of superclasses are migrated too.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class InheritanceTest {
+
+    @Test
+    public void of_ChildObject_IncludesSuperclassFieldsFirst() {
+        MigrationPlan<ChildObject> plan = MigrationPlan.of(ChildObject.class);
+
+        assertEquals(3, plan.size());
+        assertEquals("id", plan.getField(0).getKey());
+        assertEquals(ParentObject.class, plan.getField(0).getField().getDeclaringClass());
+        assertEquals(ChildObject.class, plan.getField(1).getField().getDeclaringClass());
+        assertEquals("level", plan.getField(2).getKey());
+    }
+
+    @Test
+    public void of_ChildObject_ReusesParentFields() {
+        assertSame(MigrationPlan.of(ParentObject.class).getField(0), MigrationPlan.of(ChildObject.class).getField(0));
+    }
+
+    @Test
+    public void migrate_ChildObject_SetsInheritedAndShadowingFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", 7L);
+        data.put("name", "Max");
+        data.put("level", 3);
+        data.put("note", "Not migrated");
+
+        for (TypedMigrator<ChildObject> migrator : migrators()) {
+            ChildObject object = migrator.migrate(data);
+
+            assertEquals(7L, object.getId());
+            assertEquals("Max", object.getName());
+            assertNull(object.getParentName()); //Shadowed by the field of the child
+            assertEquals(3, object.getLevel());
+            assertNull(object.getNote());
+        }
+    }
+
+    @Test
+    public void toMap_ChildObject_ExportsInheritedFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", 7L);
+        data.put("name", "Max");
+
+        Map<String, Object> exported = Exporter.forClass(ChildObject.class).toMap(Migrators.forClass(ChildObject.class).migrate(data));
+
+        assertEquals(7L, exported.get("id"));
+        assertEquals("Max", exported.get("name"));
+        assertEquals(0, exported.get("level"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMigrator<ChildObject>[] migrators() {
+        return new TypedMigrator[]{
+                Migrators.forClass(ChildObject.class),
+                Migrators.forPlan(MigrationPlan.of(ChildObject.class, AccessorBackend.METHOD_HANDLE)),
+                GeneratedMigrator.of(ChildObject.class)
+        };
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.AliasedObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if fields are found by their aliases and keys differing in case.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class KeyAliasTest {
+
+    @Test
+    public void find_EveryKeyAndAlias_ReturnsField() {
+        KeyTable keys = MigrationPlan.of(AliasedObject.class).keys();
+
+        assertArrayEquals(new int[]{1}, keys.find("name"));
+        assertArrayEquals(new int[]{0}, keys.find("full_name"));
+        assertArrayEquals(new int[]{3}, keys.find("AGE"));
+        assertArrayEquals(new int[]{2}, keys.find("Years"));
+        //Equal hash codes
+        assertArrayEquals(new int[]{4}, keys.find("Aa"));
+        assertArrayEquals(new int[]{4}, keys.find("BB"));
+        assertNull(keys.find("NAME"));
+        assertNull(keys.find("unknown"));
+    }
+
+    @Test
+    public void find_ManyKeys_IsPerfect() {
+        MigrationField field = MigrationPlan.of(AliasedObject.class).getField(0);
+        MigrationField[] fields = new MigrationField[500];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new MigrationField(field.getField(), "key" + i, new String[]{"alias" + i}, false, null,
+                    AccessorBackend.REFLECTION, ConverterRegistry.defaults());
+        }
+
+        KeyTable keys = new KeyTable(fields);
+
+        assertFalse(keys.isFallback());
+        for (int i = 0; i < fields.length; i++) {
+            assertArrayEquals(new int[]{i << 1 | 1}, keys.find("key" + i));
+            assertArrayEquals(new int[]{i << 1}, keys.find("alias" + i));
+        }
+    }
+
+    @Test
+    public void find_ExactKeyOfOtherField_IncludesIgnoreCaseField() {
+        MigrationField field = MigrationPlan.of(AliasedObject.class).getField(0);
+        MigrationField[] fields = {
+                new MigrationField(field.getField(), "Name", new String[0], false, null, AccessorBackend.REFLECTION, ConverterRegistry.defaults()),
+                new MigrationField(field.getField(), "name", new String[0], true, null, AccessorBackend.REFLECTION, ConverterRegistry.defaults())
+        };
+
+        KeyTable keys = new KeyTable(fields);
+
+        assertArrayEquals(new int[]{1, 3}, keys.find("Name"));
+        assertArrayEquals(new int[]{3}, keys.find("name"));
+        assertArrayEquals(new int[]{3}, keys.find("NAME"));
+    }
+
+    @Test
+    public void find_NoSeedFound_FallsBackToHashMap() {
+        MigrationField field = MigrationPlan.of(AliasedObject.class).getField(0);
+        MigrationField[] fields = new MigrationField[500];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = new MigrationField(field.getField(), "key" + i, new String[]{"alias" + i}, true, null,
+                    AccessorBackend.REFLECTION, ConverterRegistry.defaults());
+        }
+
+        KeyTable keys = new KeyTable(fields, 1);
+
+        assertTrue(keys.isFallback());
+        for (int i = 0; i < fields.length; i++) {
+            assertArrayEquals(new int[]{i << 1 | 1}, keys.find("KEY" + i));
+            assertArrayEquals(new int[]{i << 1}, keys.find("alias" + i));
+        }
+        assertNull(keys.find("unknown"));
+    }
+
+    @Test
+    public void migrate_Aliases_SetsFields() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("fullName", "Max Berkelmans");
+        data.put("YEARS", "22");
+        data.put("BB", "code");
+
+        for (TypedMigrator<AliasedObject> migrator : migrators()) {
+            AliasedObject object = migrator.migrate(data);
+
+            assertEquals("Max Berkelmans", object.getName());
+            assertEquals(22, object.getAge());
+            assertEquals("code", object.getCode());
+        }
+    }
+
+    @Test
+    public void migrate_KeyAndAlias_PrefersKey() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("full_name", "Alias");
+        data.put("name", "Key");
+        data.put("fullName", "Other alias");
+
+        assertEquals("Key", Migrators.forClass(AliasedObject.class).migrate(data).getName());
+    }
+
+    @Test
+    public void migrate_MissingAndNull_KeepsDefaultRules() {
+        AliasedObject missing = Migrators.forClass(AliasedObject.class).migrate(Collections.emptyMap());
+        AliasedObject nulled = Migrators.forClass(AliasedObject.class).migrate(Collections.singletonMap("Years", null));
+
+        assertEquals(18, missing.getAge());
+        assertEquals(0, nulled.getAge());
+    }
+
+    @Test
+    public void toMap_Aliases_UsesKeys() throws Exception {
+        Migrator migrator = new Migrator(AliasedObject.class);
+        migrator.setData(Collections.singletonMap("full_name", "Max"));
+
+        Map<String, Object> map = migrator.migrateToMap();
+
+        assertEquals("Max", map.get("name"));
+        assertEquals(18, map.get("age"));
+        assertFalse(map.containsKey("code"));
+    }
+
+    @Test
+    public void apply_Alias_UpdatesField() {
+        AliasedObject object = Migrators.forClass(AliasedObject.class).migrate(Collections.emptyMap());
+
+        assertEquals(1, DeltaMigrator.forClass(AliasedObject.class).apply(object, Collections.singletonMap("YEARS", 30)).cardinality());
+        assertEquals(30, object.getAge());
+    }
+
+    @Test
+    public void migrate_SchemaChainAliases_SetsFields() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("full_name", "Alias");
+        data.put("name", "Key");
+        data.put("YEARS", "22");
+
+        AliasedObject object = SchemaChain.builder(AliasedObject.class).build().migrate(1, data);
+
+        assertEquals("Key", object.getName());
+        assertEquals(22, object.getAge());
+    }
+
+    @Test
+    public void slot_Aliases_ReturnsSlotOfField() {
+        RecordSchema schema = MigrationPlan.of(AliasedObject.class).getSchema();
+
+        assertEquals(0, schema.slot("fullName"));
+        assertEquals(1, schema.slot("Years"));
+        assertEquals(-1, schema.slot("NAME"));
+        assertTrue(schema.isKey(1, "AGE"));
+        assertFalse(schema.isKey(0, "fullName"));
+
+        AliasedObject object = Migrators.forClass(AliasedObject.class).migrate(schema.newRecord().set("full_name", "Max").build());
+
+        assertEquals("Max", object.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMigrator<AliasedObject>[] migrators() {
+        return new TypedMigrator[]{
+                Migrators.forClass(AliasedObject.class),
+                GeneratedMigrator.of(AliasedObject.class)
+        };
+    }
+}
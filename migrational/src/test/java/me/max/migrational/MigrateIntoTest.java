@@ -0,0 +1,90 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This test class will check if data can be migrated into existing instances and if {@link MigrationPool} reuses them.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrateIntoTest {
+
+    @Test
+    public void migrateInto_ExistingInstance_KeepsMissingFields() {
+        for (TypedMigrator<FieldObject> migrator : migrators()) {
+            FieldObject target = migrator.migrate(Collections.singletonMap("age", 20));
+
+            FieldObject migrated = migrator.migrateInto(target, Collections.singletonMap("name", "Stijn"));
+
+            assertSame(target, migrated);
+            assertEquals("Stijn", migrated.getName());
+            //Age has no default value so it is not touched
+            assertEquals(20, migrated.getAge());
+        }
+    }
+
+    @Test
+    public void migrateInto_Migrator_SetsFields() {
+        FieldObject target = new FieldObject();
+        Migrator migrator = new Migrator(FieldObject.class, Collections.singletonMap("age", 30));
+
+        assertSame(target, migrator.migrateInto(target));
+        assertEquals(30, target.getAge());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void migrateInto_OtherClass_ThrowsIllegalArgumentException() {
+        new Migrator(FieldObject.class, Collections.emptyMap()).migrateInto("Not a FieldObject");
+    }
+
+    @Test
+    public void migrate_Pool_ReusesReleasedObject() {
+        AtomicInteger resets = new AtomicInteger();
+        MigrationPool<FieldObject> pool = new MigrationPool<>(Migrators.forClass(FieldObject.class), 1, object -> resets.incrementAndGet());
+        FieldObject first = pool.migrate(Collections.singletonMap("age", 1));
+        pool.release(first);
+        //The pool is full so this one is dropped
+        pool.release(new FieldObject());
+
+        FieldObject second = pool.migrate(Collections.singletonMap("name", "Max"));
+        assertSame(first, second);
+        assertEquals(1, resets.get());
+        assertEquals("Max", second.getName());
+        assertNotSame(first, pool.migrate(Collections.emptyMap()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMigrator<FieldObject>[] migrators() {
+        return new TypedMigrator[]{
+                Migrators.forClass(FieldObject.class),
+                GeneratedMigrator.of(FieldObject.class)
+        };
+    }
+}
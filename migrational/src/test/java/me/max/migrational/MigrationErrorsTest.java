@@ -0,0 +1,265 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.AliasedObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if bad records are recorded in {@link MigrationErrors} and handled by the {@link ErrorPolicy}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrationErrorsTest {
+
+    private final MigrationPlan<TypedObject> plan = MigrationPlan.of(TypedObject.class);
+
+    @Test
+    public void migrateAll_SkipRecord_LeavesOutBadRecords() {
+        MigrationErrors errors = new MigrationErrors();
+
+        List<TypedObject> objects = BatchMigration.migrateAll(plan, data(), ErrorPolicy.SKIP_RECORD, errors);
+
+        assertEquals(2, objects.size());
+        assertEquals(30, objects.get(0).getAge());
+        assertEquals(2, errors.size());
+        assertEquals(1, errors.getRecord(0));
+        assertEquals("age", errors.getKey(0));
+        assertEquals(MigrationErrors.Reason.CONVERSION, errors.getReason(0));
+        assertEquals(2, errors.getRecord(1));
+        assertEquals("color", errors.getKey(1));
+    }
+
+    @Test
+    public void migrateAll_UseDefault_DefaultsBadFields() {
+        MigrationErrors errors = new MigrationErrors();
+
+        List<TypedObject> objects = BatchMigration.migrateAll(plan, data(), ErrorPolicy.USE_DEFAULT, errors);
+
+        assertEquals(4, objects.size());
+        assertEquals(27, objects.get(1).getAge());
+        assertTrue(objects.get(1).isCool());
+        assertEquals(TypedObject.Color.GREEN, objects.get(2).getColor());
+        //A key with a null value keeps the field unset
+        assertEquals(0L, objects.get(3).getBalance());
+        assertEquals(2, errors.size());
+    }
+
+    @Test
+    public void migrateAll_TooLargeNumber_RecordsConversion() {
+        MigrationErrors errors = new MigrationErrors();
+
+        BatchMigration.migrateAll(plan, Collections.singletonList(Collections.singletonMap("age", "99999999999")), ErrorPolicy.SKIP_RECORD, errors);
+
+        assertEquals(MigrationErrors.Reason.CONVERSION, errors.getReason(0));
+    }
+
+    @Test
+    public void migrateAll_NumberOutOfRange_RecordsConversion() {
+        MigrationErrors errors = new MigrationErrors();
+        Map<String, Object> data = Collections.singletonMap("age", (long) Integer.MAX_VALUE + 1);
+
+        List<TypedObject> objects = BatchMigration.migrateAll(plan, Collections.singletonList(data), ErrorPolicy.USE_DEFAULT, errors);
+
+        assertEquals(27, objects.get(0).getAge());
+        assertEquals(1, errors.size());
+        assertEquals("age", errors.getKey(0));
+        assertEquals(MigrationErrors.Reason.CONVERSION, errors.getReason(0));
+    }
+
+    @Test
+    public void migrateAll_FailedSetUseDefault_SetsDefault() throws NoSuchFieldException {
+        Field age = TypedObject.class.getDeclaredField("age");
+        age.setAccessible(true);
+        MigrationField[] fields = plan.fields().clone();
+        //An accessor which rejects one value, like a field write refused at runtime
+        fields[0] = new MigrationField(age, "age", new String[0], false, "27", AccessorBackend.REFLECTION,
+                new RejectingAccessor(age, 13), ConverterRegistry.defaults());
+        MigrationPlan<TypedObject> rejecting = new MigrationPlan<>(TypedObject.class, AccessorBackend.REFLECTION, plan.getConstructor(), fields, null, null);
+        MigrationErrors errors = new MigrationErrors();
+
+        List<TypedObject> objects = BatchMigration.migrateAll(rejecting, Collections.singletonList(Collections.singletonMap("age", 13)), ErrorPolicy.USE_DEFAULT, errors);
+
+        assertEquals(27, objects.get(0).getAge());
+        assertEquals(MigrationErrors.Reason.ACCESS, errors.getReason(0));
+    }
+
+    @Test
+    public void migrateAll_Aliases_ChecksAliasedValues() {
+        MigrationErrors errors = new MigrationErrors();
+        List<Map<String, Object>> data = Arrays.asList(Collections.singletonMap("YEARS", "old"), Collections.singletonMap("fullName", "Max"));
+
+        List<AliasedObject> objects = BatchMigration.migrateAll(MigrationPlan.of(AliasedObject.class), data, ErrorPolicy.USE_DEFAULT, errors);
+
+        assertEquals(18, objects.get(0).getAge());
+        assertEquals("Max", objects.get(1).getName());
+        assertEquals("age", errors.getKey(0));
+    }
+
+    @Test
+    public void clear_Errors_IsEmpty() {
+        MigrationErrors errors = new MigrationErrors();
+        for (int i = 0; i < 100; i++) errors.add(i, null, MigrationErrors.Reason.INSTANTIATION);
+
+        assertEquals(99, errors.getRecord(99));
+        assertNull(errors.getKey(99));
+        errors.clear();
+
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void migrateAll_ConverterBug_IsNotRecorded() {
+        ConverterRegistry converters = new ConverterRegistry().register(TypedObject.Color.class, value -> {
+            if ("BROKEN".equals(value)) throw new IllegalStateException("A bug in the converter");
+            return TypedObject.Color.valueOf(value.toString());
+        });
+
+        BatchMigration.migrateAll(MigrationPlan.of(TypedObject.class, AccessorBackend.REFLECTION, converters),
+                Collections.singletonList(Collections.singletonMap("color", "BROKEN")), ErrorPolicy.USE_DEFAULT, new MigrationErrors());
+    }
+
+    @Test
+    public void canParse_BadValues_ReturnsFalse() {
+        assertTrue(ConverterRegistry.canParse(Integer.class, " -12 "));
+        assertFalse(ConverterRegistry.canParse(Integer.class, "12a"));
+        assertTrue(ConverterRegistry.canParse(Double.class, "1.5e3"));
+        assertTrue(ConverterRegistry.canParse(Double.class, "NaN"));
+        assertFalse(ConverterRegistry.canParse(Double.class, "one"));
+        assertFalse(ConverterRegistry.canParse(Boolean.class, "yes"));
+        assertFalse(ConverterRegistry.canParse(TypedObject.Color.class, "BLUE"));
+        assertFalse(ConverterRegistry.canParse(Long.class, Collections.emptyList()));
+        assertFalse(ConverterRegistry.canParse(Integer.class, 3_000_000_000L));
+        assertFalse(ConverterRegistry.canParse(Long.class, 3.7));
+        assertTrue(ConverterRegistry.canParse(Long.class, 3.0));
+        assertFalse(ConverterRegistry.canParse(Float.class, Double.MAX_VALUE));
+        assertFalse(ConverterRegistry.canParse(String.class, Collections.emptyMap()));
+    }
+
+    @Test
+    public void canParse_DatesAndUuids_ChecksShape() {
+        assertTrue(ConverterRegistry.canParse(UUID.class, UUID.randomUUID().toString()));
+        assertTrue(ConverterRegistry.canParse(UUID.class, "1-2-3-4-5"));
+        assertFalse(ConverterRegistry.canParse(UUID.class, "not-a-uuid"));
+        assertFalse(ConverterRegistry.canParse(UUID.class, "123e4567-e89b-12d3-a456-42661417400g"));
+        assertTrue(ConverterRegistry.canParse(LocalDate.class, "2019-06-30"));
+        assertTrue(ConverterRegistry.canParse(LocalDate.class, "+12019-06-30"));
+        assertFalse(ConverterRegistry.canParse(LocalDate.class, "2019-13-45"));
+        assertFalse(ConverterRegistry.canParse(LocalDate.class, "30/06/2019"));
+        assertTrue(ConverterRegistry.canParse(LocalDateTime.class, "2019-06-30T10:15"));
+        assertTrue(ConverterRegistry.canParse(LocalDateTime.class, "2019-06-30T10:15:30.123456789"));
+        assertFalse(ConverterRegistry.canParse(LocalDateTime.class, "2019-06-30 10:15"));
+        assertFalse(ConverterRegistry.canParse(LocalDateTime.class, "2019-06-30T25:15"));
+    }
+
+    /**
+     * Writes an int field using reflection but rejects one value
+     */
+    private static final class RejectingAccessor implements FieldAccessor {
+
+        private final Field field;
+        private final int rejected;
+
+        private RejectingAccessor(Field field, int rejected) {
+            this.field = field;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void set(Object target, Object value) throws IllegalAccessException {
+            setInt(target, (Integer) value);
+        }
+
+        @Override
+        public void setInt(Object target, int value) throws IllegalAccessException {
+            if (value == rejected) throw new IllegalArgumentException("Rejected " + value);
+            field.setInt(target, value);
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setBoolean(Object target, boolean value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setDouble(Object target, double value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object get(Object target) throws IllegalAccessException {
+            return field.get(target);
+        }
+
+        @Override
+        public int getInt(Object target) throws IllegalAccessException {
+            return field.getInt(target);
+        }
+
+        @Override
+        public long getLong(Object target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean getBoolean(Object target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static List<Map<String, Object>> data() {
+        Map<String, Object> good = new HashMap<>();
+        good.put("age", "30");
+        Map<String, Object> badAge = new HashMap<>();
+        badAge.put("age", "thirty");
+        badAge.put("cool", "true");
+        Map<String, Object> badColor = new HashMap<>();
+        badColor.put("color", "BLUE");
+        Map<String, Object> nulled = new HashMap<>();
+        nulled.put("balance", null);
+        return Arrays.asList(good, badAge, badColor, nulled);
+    }
+}
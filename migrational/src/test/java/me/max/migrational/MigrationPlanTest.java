@@ -0,0 +1,61 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.ClassObject;
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This test class will check if the {@link MigrationPlan} of a class is resolved correctly and shared.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrationPlanTest {
+
+    @Test
+    public void of_SameClass_ReturnsSamePlan() {
+        assertSame(MigrationPlan.of(FieldObject.class), MigrationPlan.of(FieldObject.class));
+    }
+
+    @Test
+    public void of_ClassObject_SkipsExemptedField() {
+        final int expected = 2;
+
+        final int actual = MigrationPlan.of(ClassObject.class).size();
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void of_FieldObject_ResolvesKeysAndDefaults() {
+        MigrationPlan<FieldObject> plan = MigrationPlan.of(FieldObject.class);
+
+        assertEquals("name", plan.getField(0).getKey());
+        assertEquals("Max", plan.getField(0).getDefaultValue());
+        assertEquals("age", plan.getField(1).getKey());
+        assertNull(plan.getField(1).getDefaultValue());
+        assertEquals("Netherlands", plan.getField(2).getDefaultValue());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.FieldObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if a {@link MigrationRecord} migrates the same as a data map.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrationRecordTest {
+
+    private final RecordSchema schema = MigrationPlan.of(TypedObject.class).getSchema();
+
+    @Test
+    public void slot_UnknownKey_ReturnsMinusOne() {
+        assertEquals(-1, schema.slot("unknown"));
+    }
+
+    @Test
+    public void migrate_PrimitiveSlots_SetsFields() {
+        MigrationRecord record = schema.newRecord()
+                .setInt(schema.slot("age"), 20)
+                .setLong(schema.slot("balance"), 5L)
+                .setBoolean(schema.slot("cool"), false)
+                .setDouble(schema.slot("height"), 1.8)
+                .build();
+
+        for (TypedMigrator<TypedObject> migrator : migrators()) {
+            TypedObject object = migrator.migrate(record);
+            assertEquals(20, object.getAge());
+            assertEquals(5L, object.getBalance());
+            assertFalse(object.isCool());
+            assertEquals(1.8, object.getHeight(), 0);
+        }
+    }
+
+    @Test
+    public void migrate_UnsetSlots_UsesDefaults() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(schema.newRecord().build());
+
+        assertEquals(27, object.getAge());
+        assertTrue(object.isCool());
+        assertEquals(TypedObject.Color.GREEN, object.getColor());
+    }
+
+    @Test
+    public void migrate_ValuesOfOtherType_ConvertsValues() {
+        MigrationRecord record = schema.newRecord()
+                .setLong(schema.slot("age"), 21L)
+                .set("color", "RED")
+                .build();
+
+        TypedObject object = GeneratedMigrator.of(TypedObject.class).migrate(record);
+        assertEquals(21, object.getAge());
+        assertEquals(TypedObject.Color.RED, object.getColor());
+    }
+
+    @Test
+    public void migrate_NullSlot_SkipsDefault() {
+        TypedObject object = Migrators.forClass(TypedObject.class).migrate(schema.newRecord().set("color", null).build());
+
+        assertEquals(null, object.getColor());
+    }
+
+    @Test
+    public void toMap_PrimitiveSlot_ReturnsBoxedValue() {
+        MigrationRecord record = schema.newRecord().setDouble(schema.slot("height"), 2.0).build();
+
+        assertEquals(1, record.toMap().size());
+        assertEquals(2.0, record.toMap().get("height"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void migrate_RecordOfOtherClass_ThrowsIllegalArgumentException() {
+        Migrators.forClass(FieldObject.class).migrate(schema.newRecord().build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMigrator<TypedObject>[] migrators() {
+        return new TypedMigrator[]{
+                Migrators.forClass(TypedObject.class),
+                Migrators.forPlan(MigrationPlan.of(TypedObject.class, AccessorBackend.METHOD_HANDLE)),
+                GeneratedMigrator.of(TypedObject.class)
+        };
+    }
+}
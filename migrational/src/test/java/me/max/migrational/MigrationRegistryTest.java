@@ -0,0 +1,89 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.InvalidDefaultValueException;
+import me.max.migrational.exceptions.MigrationException;
+import me.max.migrational.testobjects.ClassObject;
+import me.max.migrational.testobjects.FieldObject;
+import me.max.migrational.testobjects.ImmutableObject;
+import me.max.migrational.testobjects.InvalidDefaultObject;
+import me.max.migrational.testobjects.ParentObject;
+import me.max.migrational.testobjects.TypedObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This test class will check if a {@link MigrationRegistry} finds and warms up migratable classes.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrationRegistryTest {
+
+    @Test
+    public void warmUp_ValidClasses_ReportsEveryClass() {
+        MigrationRegistry registry = MigrationRegistry.of(FieldObject.class, ClassObject.class, ImmutableObject.class, FieldObject.class);
+
+        MigrationRegistry.WarmUpReport report = registry.warmUp(2);
+
+        assertEquals(3, report.size());
+        assertTrue(report.getNanos(ClassObject.class) >= 0);
+        assertEquals(-1, report.getNanos(String.class));
+        assertTrue(report.getTotalNanos() > 0);
+    }
+
+    @Test
+    public void warmUp_InvalidDefault_FailsAtWarmUp() {
+        try {
+            MigrationRegistry.of(FieldObject.class, InvalidDefaultObject.class).warmUp();
+            fail("The invalid default value was not reported");
+        } catch (MigrationException e) {
+            assertTrue(e.getCause() instanceof InvalidDefaultValueException);
+        }
+    }
+
+    @Test
+    public void warmUp_MethodHandleBackend_FailsAtWarmUp() {
+        try {
+            MigrationRegistry.of(InvalidDefaultObject.class).warmUp(1, AccessorBackend.METHOD_HANDLE);
+            fail("The invalid default value was not reported");
+        } catch (MigrationException e) {
+            assertTrue(e.getCause() instanceof InvalidDefaultValueException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void warmUp_NoBackends_ThrowsIllegalArgument() {
+        MigrationRegistry.of(FieldObject.class).warmUp(1, new AccessorBackend[0]);
+    }
+
+    @Test
+    public void scan_TestObjects_FindsMigratableClasses() {
+        MigrationRegistry registry = MigrationRegistry.scan("me.max.migrational.testobjects");
+
+        assertTrue(registry.getClasses().contains(FieldObject.class));
+        assertTrue(registry.getClasses().contains(ParentObject.class));
+        assertFalse(registry.getClasses().contains(TypedObject.Color.class));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This test class will check if one {@link TypedMigrator} from {@link Migrators} can be shared between threads.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigratorsTest {
+
+    @Test
+    public void forClass_SameClass_ReturnsSameMigrator() {
+        assertSame(Migrators.forClass(FieldObject.class), Migrators.forClass(FieldObject.class));
+    }
+
+    @Test
+    public void migrate_ManyThreads_MigratesOwnData() throws Exception {
+        TypedMigrator<FieldObject> migrator = Migrators.forClass(FieldObject.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread * 10_000;
+                results.add(executor.submit((Callable<Boolean>) () -> {
+                    for (int i = offset; i < offset + 10_000; i++) {
+                        Map<String, Object> data = new HashMap<>();
+                        data.put("age", i);
+                        if (migrator.migrate(data).getAge() != i) return false;
+                    }
+                    return true;
+                }));
+            }
+
+            for (Future<Boolean> result : results) assertEquals(true, result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.FieldObject;
+import me.max.migrational.testobjects.NestedObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This test class will check if data maps of nested migratable objects are migrated too.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class NestedMigrationTest {
+
+    @Test
+    public void migrate_NestedMap_MigratesChild() {
+        Map<String, Object> child = new HashMap<>();
+        child.put("name", "Child");
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Parent");
+        data.put("child", child);
+
+        for (TypedMigrator<NestedObject> migrator : migrators()) {
+            NestedObject object = migrator.migrate(data);
+
+            assertEquals("Child", object.getChild().getName());
+            assertNull(object.getChild().getChild());
+        }
+    }
+
+    @Test
+    public void migrate_ContainersOfMaps_MigratesElements() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("friends", Arrays.asList(person("Stijn", 20), person("Lily", 21)));
+        data.put("family", Collections.singletonList(person("Max", 22)));
+        data.put("byName", Collections.singletonMap("lily", person("Lily", 21)));
+        data.put("array", Arrays.asList(person("Max", 22), null));
+
+        for (TypedMigrator<NestedObject> migrator : migrators()) {
+            NestedObject object = migrator.migrate(data);
+
+            assertEquals(2, object.getFriends().size());
+            assertEquals("Lily", object.getFriends().get(1).getName());
+            assertEquals(22, object.getFamily().iterator().next().getAge());
+            assertEquals(21, object.getByName().get("lily").getAge());
+            assertEquals(2, object.getArray().length);
+            assertEquals("Max", object.getArray()[0].getName());
+            assertNull(object.getArray()[1]);
+        }
+    }
+
+    @Test
+    public void migrate_MigratedElements_KeepsElements() {
+        FieldObject friend = Migrators.forClass(FieldObject.class).migrate(person("Stijn", 20));
+
+        NestedObject object = Migrators.forClass(NestedObject.class).migrate(Collections.singletonMap("friends", Collections.singletonList(friend)));
+
+        assertSame(friend, object.getFriends().get(0));
+    }
+
+    @Test
+    public void migrate_ListOfOtherType_AssignsValue() {
+        List<String> tags = Arrays.asList("a", "b");
+
+        NestedObject object = Migrators.forClass(NestedObject.class).migrate(Collections.singletonMap("tags", tags));
+
+        assertSame(tags, object.getTags());
+    }
+
+    @Test
+    public void migrate_CustomRegistry_ConvertsNestedFields() {
+        ConverterRegistry converters = new ConverterRegistry().register(Integer.class, value -> Integer.parseInt(value.toString().replace(" years", "")));
+        MigrationPlan<NestedObject> plan = MigrationPlan.of(NestedObject.class, AccessorBackend.METHOD_HANDLE, converters);
+        Map<String, Object> friend = new HashMap<>();
+        friend.put("name", "Stijn");
+        friend.put("age", "20 years");
+
+        NestedObject object = Migrators.forPlan(plan).migrate(Collections.singletonMap("friends", Collections.singletonList(friend)));
+
+        assertEquals(20, object.getFriends().get(0).getAge());
+        assertEquals(AccessorBackend.METHOD_HANDLE, converters.plan(FieldObject.class, AccessorBackend.METHOD_HANDLE).getBackend());
+        assertSame(converters.plan(FieldObject.class, AccessorBackend.METHOD_HANDLE), converters.plan(FieldObject.class, AccessorBackend.METHOD_HANDLE));
+    }
+
+    private static Map<String, Object> person(String name, int age) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", name);
+        data.put("age", age);
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedMigrator<NestedObject>[] migrators() {
+        return new TypedMigrator[]{
+                Migrators.forClass(NestedObject.class),
+                GeneratedMigrator.of(NestedObject.class)
+        };
+    }
+}
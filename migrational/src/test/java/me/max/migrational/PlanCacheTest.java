@@ -0,0 +1,177 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.ChildObject;
+import me.max.migrational.testobjects.FactoryObject;
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This test class will check if plans stored in a {@link PlanCache} are the same as scanned plans.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class PlanCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void plan_SavedCache_BuildsPlanFromEntry() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("plans.cache");
+        PlanCache cache = PlanCache.open(file);
+        cache.plan(FieldObject.class, AccessorBackend.REFLECTION);
+        cache.plan(ChildObject.class, AccessorBackend.REFLECTION);
+        cache.save();
+
+        PlanCache reopened = PlanCache.open(file);
+        MigrationPlan<FieldObject> plan = reopened.plan(FieldObject.class, AccessorBackend.METHOD_HANDLE);
+        MigrationPlan<ChildObject> child = reopened.plan(ChildObject.class, AccessorBackend.REFLECTION);
+
+        assertEquals(2, reopened.hits());
+        assertEquals(MigrationPlan.of(FieldObject.class).getFields().size(), plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            MigrationField expected = MigrationPlan.of(FieldObject.class).getField(i);
+            assertEquals(expected.getField(), plan.getField(i).getField());
+            assertEquals(expected.getKey(), plan.getField(i).getKey());
+            assertEquals(expected.getDefaultValue(), plan.getField(i).getDefaultValue());
+        }
+        assertEquals(MigrationPlan.of(FieldObject.class).getConstructor(), plan.getConstructor());
+        assertEquals(MigrationPlan.of(ChildObject.class).getField(0).getField(), child.getField(0).getField());
+    }
+
+    @Test
+    public void plan_CachedCreator_CreatesInstances() {
+        Path file = folder.getRoot().toPath().resolve("plans.cache");
+        PlanCache cache = PlanCache.open(file);
+        cache.plan(FactoryObject.class, AccessorBackend.REFLECTION);
+        cache.save();
+
+        PlanCache reopened = PlanCache.open(file);
+        MigrationPlan<FactoryObject> plan = reopened.plan(FactoryObject.class, AccessorBackend.REFLECTION);
+        Map<String, Object> data = new HashMap<>();
+        data.put("full_name", "Max");
+        data.put("nickname", "M");
+        FactoryObject object = Migrators.forPlan(plan).migrate(data);
+
+        assertEquals(1, reopened.hits());
+        assertEquals(MigrationPlan.of(FactoryObject.class).getCreator(), plan.getCreator());
+        assertTrue(object.isCreated());
+        assertEquals("M", object.getNickname());
+    }
+
+    @Test
+    public void open_CorruptedFile_IsEmpty() throws IOException {
+        Path file = folder.newFile("plans.cache").toPath();
+        Files.write(file, new byte[]{0x4d, 0x50, 0x4c, 0x43, 0, 0, 0, 2, 0, 0, 0, 5, 0, 0});
+
+        PlanCache cache = PlanCache.open(file);
+
+        assertEquals(0, cache.size());
+        assertEquals("Max", Migrators.forPlan(cache.plan(FieldObject.class, AccessorBackend.REFLECTION)).migrate(Collections.emptyMap()).getName());
+    }
+
+    @Test
+    public void open_CorruptedSizes_IsEmpty() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("plans.cache");
+        PlanCache cache = PlanCache.open(file);
+        cache.plan(FieldObject.class, AccessorBackend.REFLECTION);
+        cache.save();
+        byte[] saved = Files.readAllBytes(file);
+        //The entry count is at 8, after the header come the length of the name of the class, the name, the hash and the constructor flag
+        int fieldCount = 12 + 4 + FieldObject.class.getName().length() + 8 + 1;
+
+        for (int[] corruption : new int[][]{{8, Integer.MAX_VALUE}, {12, -2}, {fieldCount, Integer.MAX_VALUE}, {fieldCount, -5}, {fieldCount + 4, Integer.MAX_VALUE}}) {
+            ByteBuffer buffer = ByteBuffer.wrap(saved.clone());
+            buffer.putInt(corruption[0], corruption[1]);
+            Files.write(file, buffer.array());
+
+            PlanCache reopened = PlanCache.open(file);
+
+            assertEquals(0, reopened.size());
+            assertEquals("Max", Migrators.forPlan(reopened.plan(FieldObject.class, AccessorBackend.REFLECTION)).migrate(Collections.emptyMap()).getName());
+            assertEquals(0, reopened.hits());
+        }
+
+        Files.write(file, Arrays.copyOf(saved, saved.length / 2));
+        assertEquals(0, PlanCache.open(file).size());
+    }
+
+    @Test
+    public void save_OpenedFile_ReplacesFile() {
+        Path file = folder.getRoot().toPath().resolve("plans.cache");
+        PlanCache cache = PlanCache.open(file);
+        cache.plan(FieldObject.class, AccessorBackend.REFLECTION);
+        cache.save();
+
+        PlanCache reopened = PlanCache.open(file);
+        reopened.plan(ChildObject.class, AccessorBackend.REFLECTION);
+        reopened.save();
+
+        assertEquals(2, PlanCache.open(file).size());
+    }
+
+    @Test
+    public void save_MoveFails_DeletesTemporaryFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("plans.cache");
+        PlanCache cache = PlanCache.open(file);
+        cache.plan(FieldObject.class, AccessorBackend.REFLECTION);
+        //A directory which is not empty cannot be replaced by the cache
+        Files.createFile(Files.createDirectory(file).resolve("blocking"));
+
+        try {
+            cache.save();
+            fail("The cache replaced a directory");
+        } catch (UncheckedIOException e) {
+            //Expected
+        }
+
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void save_Unchanged_DoesNotWrite() {
+        Path file = folder.getRoot().toPath().resolve("plans.cache");
+
+        PlanCache.open(file).save();
+
+        assertTrue(Files.notExists(file));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.testobjects.VersionedObject;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * This test class will check if a {@link SchemaChain} brings data of every version up to the latest version.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class SchemaChainTest {
+
+    private final SchemaChain<VersionedObject> chain = SchemaChain.builder(VersionedObject.class)
+            .from(1).rename("name", "fullName").rename("heightCm", "height")
+            .from(2).derive("firstName", values -> ((String) values[0]).split(" ")[0], "fullName")
+            .derive("lastName", values -> ((String) values[0]).split(" ")[1], "fullName")
+            .convert("height", centimeters -> ((Number) centimeters).doubleValue() / 100)
+            .remove("country")
+            .build();
+
+    @Test
+    public void migrate_FirstVersion_AppliesAllSteps() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Max Berkelmans");
+        data.put("heightCm", 180);
+        data.put("country", "Netherlands");
+
+        VersionedObject object = chain.migrate(1, data);
+
+        assertEquals("Max", object.getFirstName());
+        assertEquals("Berkelmans", object.getLastName());
+        assertEquals(1.8, object.getHeight(), 0.0001);
+        assertNull(object.getCountry());
+    }
+
+    @Test
+    public void migrate_SecondVersion_AppliesLastSteps() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("fullName", "Stijn Berkelmans");
+        data.put("height", 150);
+
+        VersionedObject object = chain.migrate(2, data);
+
+        assertEquals("Stijn", object.getFirstName());
+        assertEquals(1.5, object.getHeight(), 0.0001);
+    }
+
+    @Test
+    public void migrate_LatestVersion_ReadsKeysDirectly() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("firstName", "Lily");
+        data.put("height", 1.6);
+        data.put("country", "Belgium");
+
+        VersionedObject object = chain.migrate(3, data);
+
+        assertEquals("Lily", object.getFirstName());
+        assertEquals(1.6, object.getHeight(), 0);
+        assertEquals("Belgium", object.getCountry());
+    }
+
+    @Test
+    public void migrate_MissingSources_SkipsDerivedField() {
+        VersionedObject object = chain.migrate(1, new HashMap<>());
+
+        assertNull(object.getFirstName());
+        assertEquals(0, object.getHeight(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void forVersion_NewerVersion_ThrowsIllegalArgumentException() {
+        chain.forVersion(4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void build_KeyWrittenTwice_ThrowsIllegalStateException() {
+        SchemaChain.builder(VersionedObject.class).from(1).rename("name", "firstName").convert("firstName", value -> value);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational;
+
+import me.max.migrational.exceptions.MigrationException;
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class will check if {@link StreamMigration} migrates lazily and keeps going after an element fails.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class StreamMigrationTest {
+
+    @Test
+    public void migrate_InvalidElement_ContinuesStream() {
+        List<MigrationResult<FieldObject>> results = StreamMigration.migrate(FieldObject.class,
+                Stream.of(data(1), Collections.<String, Object>singletonMap("age", "not a number"), data(3)))
+                .collect(Collectors.toList());
+
+        assertEquals(3, results.size());
+        assertEquals(1, results.get(0).get().getAge());
+        assertFalse(results.get(1).isSuccess());
+        assertNotNull(results.get(1).getData());
+        assertEquals(3, results.get(2).get().getAge());
+    }
+
+    @Test(expected = MigrationException.class)
+    public void get_FailedResult_ThrowsMigrationException() {
+        StreamMigration.migrate(FieldObject.class, Stream.of(Collections.<String, Object>singletonMap("age", "x")))
+                .findFirst().get().get();
+    }
+
+    @Test
+    public void migrate_Iterator_ReadsLazily() {
+        AtomicInteger read = new AtomicInteger();
+        Stream<MigrationResult<FieldObject>> stream = StreamMigration.migrate(Migrators.forClass(FieldObject.class),
+                IntStream.range(0, 1_000_000).peek(i -> read.incrementAndGet()).mapToObj(StreamMigrationTest::data).iterator());
+
+        assertEquals(4, stream.skip(4).findFirst().get().get().getAge());
+        assertTrue(read.get() < 1_000);
+    }
+
+    @Test
+    public void migrate_ParallelStream_KeepsOrder() {
+        List<FieldObject> migrated = StreamMigration.migrate(FieldObject.class, IntStream.range(0, 10_000).parallel().mapToObj(StreamMigrationTest::data))
+                .map(MigrationResult::get)
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < migrated.size(); i++) assertEquals(i, migrated.get(i).getAge());
+    }
+
+    @Test
+    public void migrate_ClosedStream_ClosesSource() {
+        AtomicInteger closed = new AtomicInteger();
+        StreamMigration.migrate(FieldObject.class, Stream.of(data(0)).onClose(closed::incrementAndGet)).close();
+
+        assertEquals(1, closed.get());
+    }
+
+    private static Map<String, Object> data(int age) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("age", age);
+        return data;
+    }
+}
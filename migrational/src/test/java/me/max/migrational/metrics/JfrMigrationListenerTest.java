@@ -0,0 +1,66 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import me.max.migrational.Migrator;
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * This test class will check if {@link JfrMigrationListener} commits a Flight Recorder event for every migration.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class JfrMigrationListenerTest {
+
+    @Test
+    public void migrateToClass_Recording_CommitsEvent() throws Exception {
+        Path file = Files.createTempFile("migrational", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("me.max.migrational.Migration");
+            recording.start();
+
+            Migrator migrator = new Migrator(FieldObject.class, new JfrMigrationListener());
+            migrator.setData(Collections.singletonMap("age", 20));
+            migrator.migrateToClass();
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            assertEquals("CLASS", events.get(0).getString("operation"));
+            assertFalse(events.get(0).getBoolean("failed"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.metrics;
+
+import me.max.migrational.Migrator;
+import me.max.migrational.testobjects.AliasedObject;
+import me.max.migrational.testobjects.FieldObject;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This test class will check if {@link MigrationMetrics} counts the migrations of a {@link Migrator}.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class MigrationMetricsTest {
+
+    @Test
+    public void migrateToClass_MissingKeys_CountsMissingAndDefaulted() throws Exception {
+        MigrationMetrics metrics = new MigrationMetrics();
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Max");
+        Migrator migrator = new Migrator(FieldObject.class, metrics);
+        migrator.setData(data);
+
+        migrator.migrateToClass();
+        migrator.migrateToMap();
+
+        ClassMetrics classMetrics = metrics.get(FieldObject.class);
+        assertEquals(2, classMetrics.getMigrations());
+        assertEquals(0, classMetrics.getFailures());
+        assertEquals(2 * (migrator.getMigratableFields().length - 1), classMetrics.getMissing());
+        assertEquals(2, classMetrics.getDefaulted());
+        assertEquals(2, classMetrics.getLatency().getCount());
+    }
+
+    @Test
+    public void migrateToClass_Aliases_CountsAliasedKeysAsPresent() throws Exception {
+        MigrationMetrics metrics = new MigrationMetrics();
+        Map<String, Object> data = new HashMap<>();
+        data.put("fullName", "Max");
+        data.put("YEARS", 22);
+        Migrator migrator = new Migrator(AliasedObject.class, metrics);
+        migrator.setData(data);
+
+        migrator.migrateToClass();
+
+        assertEquals(1, metrics.get(AliasedObject.class).getMissing());
+        assertEquals(0, metrics.get(AliasedObject.class).getDefaulted());
+    }
+
+    @Test
+    public void migrateToClass_InvalidValue_CountsFailure() throws Exception {
+        MigrationMetrics metrics = new MigrationMetrics();
+        Migrator migrator = new Migrator(FieldObject.class, metrics);
+        migrator.setData(Collections.singletonMap("age", "not a number"));
+
+        try {
+            migrator.migrateToClass();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, metrics.get(FieldObject.class).getFailures());
+            assertEquals(0, metrics.get(FieldObject.class).getMigrations());
+        }
+    }
+
+    @Test
+    public void get_NotMigrated_ReturnsNull() {
+        assertNull(new MigrationMetrics().get(FieldObject.class));
+    }
+
+    @Test
+    public void getPercentile_RecordedLatencies_ReturnsBucketUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) histogram.record(100);
+        histogram.record(5_000);
+
+        assertEquals(127, histogram.getPercentile(50));
+        assertEquals(127, histogram.getPercentile(99));
+        assertEquals(8_191, histogram.getPercentile(100));
+        assertTrue(histogram.getPercentile(0) > 0);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.testobjects;
+
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * This is a test object
+ * This test object is used to test fields with aliases and keys matched ignoring case.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class AliasedObject {
+
+    @Migratable(aliases = {"fullName", "full_name"})
+    private String name;
+    @Migratable(key = "age", aliases = "years", ignoreCase = true, defaultValue = "18")
+    private int age;
+    @Migratable(aliases = {"Aa", "BB"})
+    private String code;
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
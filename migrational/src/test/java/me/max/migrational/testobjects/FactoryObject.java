@@ -0,0 +1,70 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.testobjects;
+
+import me.max.migrational.annotations.Creator;
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * This is a test object
+ * This test object is created through a static factory, its nickname is not passed to the factory.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Migratable
+public class FactoryObject {
+
+    @Migratable(key = "full_name")
+    private final String name;
+    private final long balance;
+    private String nickname;
+    @Exempt
+    private boolean created;
+
+    private FactoryObject(String name, long balance) {
+        this.name = name;
+        this.balance = balance;
+    }
+
+    @Creator
+    public static FactoryObject of(@Migratable(key = "full_name") String name, @Migratable(key = "balance") long balance) {
+        FactoryObject object = new FactoryObject(name, balance);
+        object.created = true;
+        return object;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public String getNickname() {
+        return nickname;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.testobjects;
+
+import me.max.migrational.annotations.Migratable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This is a test object
+ * This test object is used to test fields holding other migratable objects.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Migratable
+public class NestedObject {
+
+    private String name;
+    private NestedObject child;
+    private List<FieldObject> friends;
+    private Set<FieldObject> family;
+    private Map<String, FieldObject> byName;
+    private FieldObject[] array;
+    private List<String> tags;
+
+    public String getName() {
+        return name;
+    }
+
+    public NestedObject getChild() {
+        return child;
+    }
+
+    public List<FieldObject> getFriends() {
+        return friends;
+    }
+
+    public Set<FieldObject> getFamily() {
+        return family;
+    }
+
+    public Map<String, FieldObject> getByName() {
+        return byName;
+    }
+
+    public FieldObject[] getArray() {
+        return array;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.testobjects;
+
+import me.max.migrational.annotations.Exempt;
+import me.max.migrational.annotations.Migratable;
+
+/**
+ * This is a test object
+ * This test object is used to test migrating public fields, which generated migrators are able to set directly.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+@Migratable
+public class PublicFieldObject {
+
+    public String name;
+    public int age;
+    public long balance;
+    public boolean cool;
+    public String[] tags;
+    private String country = "Netherlands";
+    @Exempt
+    public String exempted = "Exempted";
+
+    public String getCountry() {
+        return country;
+    }
+}
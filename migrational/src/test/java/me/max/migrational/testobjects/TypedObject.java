@@ -0,0 +1,82 @@
+/*
+ *
+ *  *     Copyright 2019 Max Berkelmans
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package me.max.migrational.testobjects;
+
+import me.max.migrational.annotations.Migratable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * This is a test object
+ * This test object is used to test default values and values which need to be converted to the type of the field.
+ * It will be migrated as a test.
+ *
+ * @author Max Berkelmans
+ * @since 1.2.0
+ */
+public class TypedObject {
+
+    @Migratable(defaultValue = "27")
+    private int age;
+    @Migratable(defaultValue = "10000000000")
+    private long balance;
+    @Migratable(defaultValue = "true")
+    private boolean cool;
+    @Migratable(defaultValue = "1.5")
+    private double height;
+    @Migratable(defaultValue = "GREEN")
+    private Color color;
+    @Migratable(defaultValue = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID id;
+    @Migratable(defaultValue = "2019-01-01T00:00:00Z")
+    private Instant created;
+
+    public int getAge() {
+        return age;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public boolean isCool() {
+        return cool;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
+}